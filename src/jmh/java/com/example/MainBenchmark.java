@@ -0,0 +1,69 @@
+package com.example;
+
+import com.example.api.PriceSeries;
+import com.example.api.SyntheticPrices;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for the hot paths in {@link Main}: the charging window, sorting and formatting prices.
+ * <p>
+ * Runs on a day of hourly and of 15 minute prices and on three years of 15 minute prices, see
+ * {@link SyntheticPrices}. Add {@code -prof gc} to also report allocation per call.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MainBenchmark {
+
+    // A day of hourly and of 15 minute prices, and SyntheticPrices.THREE_YEARS
+    @Param({"24", "96", "105120"})
+    int rows;
+
+    private PriceSeries series;
+
+    @Setup
+    public void setUp() {
+        series = SyntheticPrices.series(rows);
+    }
+
+    @Benchmark
+    public PriceSeries optimalWindow() {
+        return Main.optimalWindow(series, Duration.ofHours(4));
+    }
+
+    @Benchmark
+    public PriceSeries sortedPrices() {
+        return Main.sortedPrices(series, "PRICE");
+    }
+
+    /**
+     * Formats every price as "HH-HH 0,00 öre", or "HH:mm-HH:mm 0,00 öre", the way the price list is printed
+     */
+    @Benchmark
+    public String formatPrices() {
+        boolean minutes = series.intervalSeconds() % 3600 != 0;
+        ReportWriter report = new ReportWriter();
+        for (int i = 0; i < series.size(); i++) {
+            report.time(series.startEpochSecond(i), minutes).text('-')
+                    .time(series.endEpochSecond(i), minutes).text(' ')
+                    .ore(series.sekPerKWh(i)).text(" öre").newLine();
+        }
+        return report.toString();
+    }
+}
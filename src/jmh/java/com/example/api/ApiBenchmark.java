@@ -0,0 +1,86 @@
+package com.example.api;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks för de heta vägarna i API:t: tolkning av svaret, omsampling till timpriser, billigaste
+ * laddfönster och statistik.
+ * <p>
+ * Körs på ett dygn med tim- och kvartspriser och på tre år med kvartspriser, se {@link SyntheticPrices}.
+ * Med {@code -prof gc} rapporteras även allokering per anrop. {@link #parseLegacy} är den tidigare
+ * regex-baserade parsern, som jämförelse för {@link #parse} och {@link #parseSeries}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ApiBenchmark {
+
+    // Ett dygn med tim- och kvartspriser och SyntheticPrices.THREE_YEARS
+    @Param({"24", "96", "105120"})
+    int rows;
+
+    private byte[] json;
+    private String jsonText;
+    private PriceSeries series;
+    private int windowSlots;
+
+    @Setup
+    public void setUp() {
+        json = SyntheticPrices.json(rows);
+        jsonText = new String(json, StandardCharsets.UTF_8);
+        series = SyntheticPrices.series(rows);
+        windowSlots = ChargingWindows.of(series).slotsFor(Duration.ofHours(4));
+    }
+
+    @Benchmark
+    public List<ElpriserAPI.Elpris> parse() {
+        return ElprisJsonParser.parse(json);
+    }
+
+    @Benchmark
+    public List<ElpriserAPI.Elpris> parseLegacy() {
+        return LegacyJsonParser.parse(jsonText);
+    }
+
+    @Benchmark
+    public PriceSeries parseSeries() {
+        return ElprisJsonParser.parseSeries(json);
+    }
+
+    @Benchmark
+    public PriceSeries resampleToHours() {
+        return series.resample(3600);
+    }
+
+    @Benchmark
+    public ChargingWindows.Window cheapestWindow() {
+        return ChargingWindows.of(series).cheapest(windowSlots);
+    }
+
+    @Benchmark
+    public void minMaxMean(Blackhole blackhole) {
+        PriceStatistics.Column sek = PriceStatistics.of(series).sek();
+        blackhole.consume(sek.min());
+        blackhole.consume(sek.max());
+        blackhole.consume(sek.mean());
+    }
+}
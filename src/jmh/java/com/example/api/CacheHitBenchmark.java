@@ -0,0 +1,49 @@
+package com.example.api;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ElpriserAPI#getPriser(LocalDate, ElpriserAPI.Prisklass)} för ett dygn som redan ligger i
+ * minnes-cachen. En träff ska inte allokera något, vilket syns med {@code -prof gc}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CacheHitBenchmark {
+
+    private final LocalDate date = SyntheticPrices.FIRST_DAY;
+    private ElpriserAPI api;
+
+    @Setup
+    public void setUp() {
+        // Utan disk-cache och nätverk, så att bara minnes-cachen mäts
+        InMemoryPriceSource source = new InMemoryPriceSource()
+                .putJson(date, ElpriserAPI.Prisklass.SE3, new String(SyntheticPrices.json(96), StandardCharsets.UTF_8));
+        api = new ElpriserAPI(true, source);
+        if (api.getPriser(date, ElpriserAPI.Prisklass.SE3).isEmpty()) {
+            throw new IllegalStateException("Inga priser i cachen");
+        }
+    }
+
+    @Benchmark
+    public List<ElpriserAPI.Elpris> getPriser() {
+        return api.getPriser(date, ElpriserAPI.Prisklass.SE3);
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.api;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Den tidigare regex-baserade parsern från {@code ElpriserAPI}, kvar som jämförelse för
+ * {@link ElprisJsonParser} i {@link ApiBenchmark}.
+ */
+final class LegacyJsonParser {
+
+    private LegacyJsonParser() {
+    }
+
+    static List<ElpriserAPI.Elpris> parse(String json) {
+        List<ElpriserAPI.Elpris> priser = new ArrayList<>();
+        String trimmedJson = json.trim();
+        if (!trimmedJson.startsWith("[") || !trimmedJson.endsWith("]")) {
+            return Collections.emptyList();
+        }
+        String content = trimmedJson.substring(1, trimmedJson.length() - 1).trim();
+        if (content.isEmpty()) {
+            return Collections.emptyList();
+        }
+        for (String objStr : content.split("}\\s*,\\s*\\{")) {
+            String cleanObjStr = objStr.replace("{", "").replace("}", "");
+            Map<String, String> valueMap = new HashMap<>();
+            for (String pair : cleanObjStr.split(",")) {
+                String[] keyValue = pair.split(":", 2);
+                valueMap.put(keyValue[0].trim().replace("\"", ""), keyValue[1].trim().replace("\"", ""));
+            }
+            priser.add(new ElpriserAPI.Elpris(
+                    Double.parseDouble(valueMap.get("SEK_per_kWh")),
+                    Double.parseDouble(valueMap.get("EUR_per_kWh")),
+                    Double.parseDouble(valueMap.get("EXR")),
+                    ZonedDateTime.parse(valueMap.get("time_start")),
+                    ZonedDateTime.parse(valueMap.get("time_end"))));
+        }
+        return priser;
+    }
+}
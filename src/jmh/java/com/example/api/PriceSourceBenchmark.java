@@ -0,0 +1,67 @@
+package com.example.api;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ElpriserAPI#getPriser(LocalDate, ElpriserAPI.Prisklass)} med minnes-cachen avstängd, så att varje
+ * anrop går hela vägen till en {@link InMemoryPriceSource}. Mäter vägen vid en miss, med sammanslagning
+ * av samtidiga laddningar, från flera trådar utan nätverk eller global mock-data.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class PriceSourceBenchmark {
+
+    private static final int DAYS = 32;
+
+    private ElpriserAPI api;
+
+    @Setup
+    public void setUp() {
+        InMemoryPriceSource source = new InMemoryPriceSource();
+        for (int d = 0; d < DAYS; d++) {
+            LocalDate date = SyntheticPrices.FIRST_DAY.plusDays(d);
+            for (ElpriserAPI.Prisklass prisklass : ElpriserAPI.Prisklass.values()) {
+                source.putJson(date, prisklass, new String(SyntheticPrices.json(96), StandardCharsets.UTF_8));
+            }
+        }
+        api = new ElpriserAPI(false, source);
+    }
+
+    @Benchmark
+    public List<ElpriserAPI.Elpris> getPriserMiss(ThreadDay day) {
+        return api.getPriser(day.next(), ElpriserAPI.Prisklass.SE3);
+    }
+
+    /**
+     * Egen dagräknare per tråd, så att trådarna inte delar på någon räknare.
+     */
+    @State(Scope.Thread)
+    public static class ThreadDay {
+        private int day;
+
+        LocalDate next() {
+            day = (day + 1) % DAYS;
+            return SyntheticPrices.FIRST_DAY.plusDays(day);
+        }
+    }
+}
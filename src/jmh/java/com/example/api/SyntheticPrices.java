@@ -0,0 +1,82 @@
+package com.example.api;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Random;
+
+/**
+ * Syntetiska priser för benchmarks, med samma form som API:ts svar.
+ * <p>
+ * Serierna börjar vid midnatt den {@link #FIRST_DAY} i {@link PriceSeries#ZONE} och följer sommar- och
+ * vintertid. 24 rader ger ett dygn med timpriser, alla andra storlekar kvartspriser, så 96 är ett dygn
+ * och {@link #THREE_YEARS} tre år. Priserna är en dygnskurva med brus och fem decimaler som i API:t,
+ * och samma storlek ger alltid samma priser.
+ */
+public final class SyntheticPrices {
+
+    public static final LocalDate FIRST_DAY = LocalDate.of(2023, 1, 1);
+    public static final int THREE_YEARS = 3 * 365 * 96;
+
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ISO_OFFSET_DATE_TIME;
+    private static final double EXR = 11.2;
+
+    private SyntheticPrices() {
+    }
+
+    /**
+     * @param rows antal rader, 24 för timpriser, annars kvartspriser
+     */
+    public static PriceSeries series(int rows) {
+        long interval = intervalSeconds(rows);
+        long first = FIRST_DAY.atStartOfDay(PriceSeries.ZONE).toEpochSecond();
+        Random random = new Random(rows);
+        PriceSeries.Builder builder = new PriceSeries.Builder(rows);
+        for (int i = 0; i < rows; i++) {
+            long start = first + i * interval;
+            double sek = price(start, random);
+            builder.add(start, start + interval, sek, round(sek / EXR), EXR);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Samma priser som {@link #series(int)} som ett JSON-svar från API:t
+     */
+    public static byte[] json(int rows) {
+        PriceSeries series = series(rows);
+        StringBuilder json = new StringBuilder(rows * 140).append('[');
+        for (int i = 0; i < series.size(); i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"SEK_per_kWh\":").append(series.sekPerKWh(i))
+                    .append(",\"EUR_per_kWh\":").append(series.eurPerKWh(i))
+                    .append(",\"EXR\":").append(series.exr(i))
+                    .append(",\"time_start\":\"").append(time(series.startEpochSecond(i)))
+                    .append("\",\"time_end\":\"").append(time(series.endEpochSecond(i)))
+                    .append("\"}");
+        }
+        return json.append(']').toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static long intervalSeconds(int rows) {
+        return rows == 24 ? 3600 : 900;
+    }
+
+    private static double price(long epochSecond, Random random) {
+        double hour = Math.floorMod(epochSecond, 86_400L) / 3600.0;
+        double daily = 0.6 + 0.4 * Math.sin((hour - 6) / 24 * 2 * Math.PI);
+        return round(Math.max(0, daily + random.nextGaussian() * 0.15));
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1e5) / 1e5;
+    }
+
+    private static String time(long epochSecond) {
+        return TIME_FORMAT.format(ZonedDateTime.ofInstant(Instant.ofEpochSecond(epochSecond), PriceSeries.ZONE));
+    }
+}
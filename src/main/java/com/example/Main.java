@@ -1,34 +1,44 @@
 package com.example;
 
+import com.example.api.ChargingWindows;
 import com.example.api.ElpriserAPI;
-
-import java.text.DecimalFormat;
-import java.text.DecimalFormatSymbols;
+import com.example.api.LivePriceSeries;
+import com.example.api.LoadScheduler;
+import com.example.api.PriceSeries;
+import com.example.api.PriceStatistics;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
-import java.time.ZonedDateTime;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.regex.Pattern;
+import java.util.stream.IntStream;
 
 public class Main {
 
     private static ElpriserAPI elpriserAPI;
 
-    private static ElpriserAPI.Prisklass zon;
+    private static Query query; //the query given as arguments
+    private static PriceContext context; //prices fetched for this run, created once the zone is known
 
-    private static LocalDate date;
-    private static int window;
-    private static boolean  sorted;
+    private static LocalDate date; //the date of the query, or today if there was no data for it
+    private static boolean verbose;
+    private static ReportWriter report; //output of the query, written once at the end
+    private static RecordWriter.Format format; //TEXT for the report, otherwise records streamed as they are produced
 
     public static void main(String[] args) {
 
         elpriserAPI = new ElpriserAPI();
 
         //set default values
-        date =  LocalDate.now();
-        window = 24;
-        sorted = false;
+        query = null;
+        date = null;
+        verbose = false;
+        context = null;
+        report = new ReportWriter();
+        format = RecordWriter.Format.TEXT;
 
         //show usage if no arguments provided
         if (args.length == 0) {
@@ -39,6 +49,10 @@ public class Main {
         else if (args.length == 1 && args[0].equals("--help")) {
             help();
         }
+        //keep running and answer queries over http instead of printing once
+        else if (args[0].equals("--serve")) {
+            serve(args);
+        }
         //parse given args and provide requested data if valid and available
         else {
 
@@ -49,320 +63,227 @@ public class Main {
     }
 
     /**
-     * Get list of price collections for {@link #date}
+     * Averages the prices into intervals of {@code resolution}, e.g. quarter hours into hours
      *
-     * @return List of {@link ElpriserAPI.Elpris} for specified {@link LocalDate}, will be empty if not available
+     * @param prices {@link PriceSeries} for a single day
+     * @param resolution interval length, {@code null} for the native resolution
+     * @return series at the requested resolution, or unchanged for native resolution
      */
-    private static List<ElpriserAPI.Elpris> priceOnDate () {
-        List<ElpriserAPI.Elpris> priceList = elpriserAPI.getPriser(date,zon);
-        if (priceList.size() > 24){
-            return combineSameHour(priceList);
-        }
-        else{
-            return priceList;
+    private static PriceSeries atResolution(PriceSeries prices, Duration resolution) {
+        if (resolution == null) {
+            return prices;
         }
+        return prices.resample(resolution.toSeconds());
     }
 
     /**
-     * Get list of price collections for next day after {@link #date}
+     * Gets the prices for {@link #date} at the resolution of the {@link #query}, see {@link #priceRealDay(PriceContext, LocalDate, Duration)}
      *
-     * @return List of {@link ElpriserAPI.Elpris} for specified {@link LocalDate}, will be empty if not available
+     * @return {@link PriceSeries} spanning over two days
      */
-    private static List<ElpriserAPI.Elpris> priceOnNextDate () {
-        List<ElpriserAPI.Elpris>  priceList = elpriserAPI.getPriser(date.plusDays(1), zon);
-        if (priceList.size() > 24){
-            return combineSameHour(priceList);
-        }
-        else {
-            return priceList;
-        }
+    private static PriceSeries priceRealDay () {
+        return priceRealDay(context, date, query.resolution());
     }
 
     /**
-     * Gets a list of price collections for date, removed the ones that are in the past of the list is for today.
-     * Returns with next days dates appended if possible
+     * Gets the prices for date, removes the ones that are in the past if the series is for today.
+     * Returns with next days prices appended if possible
      *
-     * @return List of {@link ElpriserAPI.Elpris} spanning over two days
+     * @param prices {@link PriceContext} to read the days from
+     * @param date first day of the series
+     * @param resolution interval length, {@code null} for the native resolution
+     * @return {@link PriceSeries} spanning over two days
      */
-    private static List<ElpriserAPI.Elpris> priceRealDay () {
-        List <ElpriserAPI.Elpris> today = priceOnDate();
-        while (!today.isEmpty()&&date.equals(LocalDate.now())) {  //checks and removes first object if the time has passed, breaks after
-            if(today.getFirst().timeEnd().isBefore(ZonedDateTime.now())) {
-                today.removeFirst();
-            }
-            else break;
+    static PriceSeries priceRealDay (PriceContext prices, LocalDate date, Duration resolution) {
+        //request next day in the background so both days are fetched concurrently
+        CompletableFuture<List<ElpriserAPI.Elpris>> nextDay = prices.prefetch(date.plusDays(1));
+        LivePriceSeries live = new LivePriceSeries();
+        live.append(atResolution(PriceSeries.of(prices.prices(date)), resolution));
+        Instant now = Instant.now(); //one reading decides both the day and the time of day
+        if (date.equals(LocalDate.ofInstant(now, PriceSeries.ZONE))) { //skips prices from the start until one hasn't passed yet
+            live.advance(now);
         }
-        //add future prices or empty list to the end of the trimmed list
-        List<ElpriserAPI.Elpris> tomorrow = priceOnNextDate();
-        today.addAll(tomorrow);
-        return  today;
+        //add future prices to the end of the trimmed series, rows already present are skipped
+        live.append(atResolution(PriceSeries.of(nextDay.join()), resolution));
+        return live.snapshot();
     }
 
     /**
-     * Combines a list with several {@link ElpriserAPI.Elpris} per hour into one with max 24 hours
+     * Orders provided series by price or time
      *
-     * @param prices list of {@link ElpriserAPI.Elpris} to be combined
-     * @return combined list
+     * @param prices {@link PriceSeries} to order
+     * @param key what the series should be ordered by {@code PRICE} or {@code TIME}
+     * @return a new ordered series, or the same series for an invalid key
      */
-    private static List<ElpriserAPI.Elpris> combineSameHour(List<ElpriserAPI.Elpris> prices) {
-        if (prices.isEmpty()) return prices; //if the list is empty return it
+    static PriceSeries sortedPrices(PriceSeries prices, String key ) {
+        Comparator<Integer> order;
+        switch (key.toUpperCase()) {
+            case "PRICE" -> order = Comparator.comparingDouble(prices::sekPerKWh).reversed();
+            case "TIME" -> order = Comparator.comparingLong(prices::startEpochSecond);
 
-        else {
-            Map<Integer, List<ElpriserAPI.Elpris>> groups = new TreeMap<>();
-            for (ElpriserAPI.Elpris p : prices) {
-                groups.computeIfAbsent(p.timeStart().getHour(), k -> new ArrayList<>()).add(p);
-            }
-            List<ElpriserAPI.Elpris> combined = new ArrayList<>();
-            for (List<ElpriserAPI.Elpris> group : groups.values()) {
-                combined.add(combine(group));
+            default -> {
+                System.out.println("Invalid key");
+                return prices;
             }
-            return combined;
         }
+        return prices.select(IntStream.range(0, prices.size()).boxed().sorted(order).mapToInt(Integer::intValue).toArray());
     }
 
     /**
-     * Combines a list of {@link ElpriserAPI.Elpris} into a single element
-     *
-     * @param temp list to combine
-     * @return a single element with the price averaged from the list and the same start/end as the first object
-     */
-    private static ElpriserAPI.Elpris combine(List<ElpriserAPI.Elpris> temp) {
-        return new ElpriserAPI.Elpris(
-                meanPrice(temp),
-                meanPriceEur(temp),
-                meanEXR(temp),
-                temp.getFirst().timeStart(),
-                temp.getLast().timeEnd()
-        );
-    }
-
-    /**
-     * Sorts provided list by price or time
+     * Finds the cheapest window of a specified length
      *
-     * @param elpriser List of {@link ElpriserAPI.Elpris}
-     * @param key what the list should be sorted by {@code PRICE} or {@code TIME}
+     * @param prices {@link PriceSeries} to find the cheapest window in
+     * @param duration window length, rounded up to whole rows of the series
+     * @return series containing the prices in the cheapest window, the whole series if it is not longer than the window
      */
-    private static void sortedPrices(List<ElpriserAPI.Elpris> elpriser, String key ) {
-        switch (key.toUpperCase()) {
-            case "PRICE" -> elpriser.sort(Comparator.comparingDouble(ElpriserAPI.Elpris::sekPerKWh).reversed());
-            case "TIME" -> elpriser.sort(Comparator.comparing(ElpriserAPI.Elpris::timeStart));
-
-            default -> System.out.println("Invalid key");
+    static PriceSeries optimalWindow (PriceSeries prices, Duration duration) {
+        ChargingWindows windows = ChargingWindows.of(prices);
+        ChargingWindows.Window cheapest = windows.cheapest(windows.slotsFor(duration));
+        if (cheapest != null && prices.size() > cheapest.length()) {
+            return prices.slice(cheapest.start(), cheapest.end());
         }
-    }
-
-    /**
-     * Calculates the mean price for a list of {@link ElpriserAPI.Elpris} in SEK
-     *
-     * @param elpriser List of {@link ElpriserAPI.Elpris}
-     * @return The mean price in SEK for the provided list
-     */
-    private static double meanPrice(List<ElpriserAPI.Elpris> elpriser) {
-        if(!elpriser.isEmpty()) {
-            double sum = 0.0;
-            for (int i = 0; i < elpriser.size(); i++) {
-                sum += elpriser.get(i).sekPerKWh();
-            }
-            return sum / elpriser.size();
+        else  {
+            return prices;
         }
-        return 0.0;
     }
 
     /**
-     * Calculates the mean price for a list of {@link ElpriserAPI.Elpris} in EUR
+     * Whether times in a series are printed with minutes, "HH" for whole hours and "HH:mm" for shorter intervals
      *
-     * @param elpriser List of {@link ElpriserAPI.Elpris}
-     * @return The mean price in EUR for the provided list
+     * @param prices series to be printed
+     * @return {@code TRUE} to print minutes, see {@link ReportWriter#time(long, boolean)}
      */
-    private static double meanPriceEur(List<ElpriserAPI.Elpris> elpriser) {
-        if(!elpriser.isEmpty()) {
-            double sum = 0.0;
-            for (int i = 0; i < elpriser.size(); i++) {
-                sum += elpriser.get(i).eurPerKWh();
-            }
-            return sum / elpriser.size();
-        }
-        return 0.0;
+    private static boolean withMinutes(PriceSeries prices) {
+        return prices.intervalSeconds() % 3600 != 0;
     }
 
     /**
-     * Calculates the mean exr for a list of {@link ElpriserAPI.Elpris} in SEK
+     * Adds a row of a {@link PriceSeries} formatted to "HH-HH 0,00 öre" to the report
      *
-     * @param elpriser List of {@link ElpriserAPI.Elpris}
-     * @return The mean exr for the provided list
+     * @param prices series to print from
+     * @param i row to print
+     * @param minutes {@code TRUE} to print minutes, see {@link #withMinutes(PriceSeries)}
      */
-    private static double meanEXR(List<ElpriserAPI.Elpris> elpriser) {
-        if(!elpriser.isEmpty()) {
-            double sum = 0.0;
-            for (int i = 0; i < elpriser.size(); i++) {
-                sum += elpriser.get(i).exr();
-            }
-            return sum / elpriser.size();
-        }
-        return 0.0;
+    private static void printRow(PriceSeries prices, int i, boolean minutes) {
+        report.time(prices.startEpochSecond(i), minutes).text('-')
+                .time(prices.endEpochSecond(i), minutes).text(' ')
+                .ore(prices.sekPerKWh(i)).text(" öre");
     }
 
     /**
-     * Find the lowest price of a provided list
+     * Prints a provided {@link PriceSeries} formatted to "HH-HH" "0,00 öre"
      *
-     * @param elpriser List of {@link ElpriserAPI.Elpris} to find the lowest in
-     * @return The {@link ElpriserAPI.Elpris} with the lowest price, if multiple have the same price only the first of them is returned
+     * @param prices series to be printed
      */
-    private static ElpriserAPI.Elpris minPrice(List<ElpriserAPI.Elpris> elpriser) {
-        if(!elpriser.isEmpty()) {
-            ElpriserAPI.Elpris min = elpriser.getFirst(); //set first elements as lowest before comparing to the rest
-            for (int i = 1; i < elpriser.size(); i++) {
-                if (elpriser.get(i).sekPerKWh() < min.sekPerKWh()) {
-                    min = elpriser.get(i);
-                }
-            }
-            return min;
+    static void printList (PriceSeries prices) {
+
+        if(query.sorted()){prices = sortedPrices(prices, "PRICE");}
+
+        boolean minutes = withMinutes(prices);
+        for (int i = 0; i < prices.size(); i++) {
+            printRow(prices, i, minutes);
+            report.newLine();
         }
-        return null;
     }
 
     /**
-     * Find the highest price of a provided list
+     * Prints the mean of a provided {@link PriceSeries} formatted to "Medelpris: 0.00 öre"
      *
-     * @param elpriser List of {@link ElpriserAPI.Elpris} to find the highest in
-     * @return the {@link ElpriserAPI.Elpris} with the highest price, if multiple have the same price only the first of them is returned
+     * @param prices series to print mean from
+     * @param chargingWindow {@code TRUE} if the series is representing a charging window, changing the formatting to "Medelpris för fönster: 0.00 öre"
      */
-    private static ElpriserAPI.Elpris maxPrice (List<ElpriserAPI.Elpris> elpriser) {
-        if(!elpriser.isEmpty()) {
-            ElpriserAPI.Elpris max = elpriser.getFirst();
-            for (int i = 1; i < elpriser.size(); i++) {
-                if (elpriser.get(i).sekPerKWh() > max.sekPerKWh()) {
-                    max = elpriser.get(i);
-                }
-            }
-            return max;
-        }
-        return null;
+    static void printMean (PriceSeries prices, boolean chargingWindow) {
+        printMean(PriceStatistics.of(prices), chargingWindow);
     }
 
     /**
-     * Finds the cheapest window {@link ElpriserAPI.Elpris} of a specified length
+     * Prints the mean from already computed {@link PriceStatistics} formatted to "Medelpris: 0.00 öre"
      *
-     * @param elpriser list of {@link ElpriserAPI.Elpris} to find the cheapest window in
-     * @param duration window length
-     * @return list containing the {@link ElpriserAPI.Elpris} in the cheapest window
+     * @param stats statistics to print mean from
+     * @param chargingWindow {@code TRUE} if the statistics are for a charging window, changing the formatting to "Medelpris för fönster: 0.00 öre"
      */
-    private static List<ElpriserAPI.Elpris> optimalWindow (List<ElpriserAPI.Elpris> elpriser, int duration) {
-        if(!elpriser.isEmpty() && elpriser.size() > duration) {
-            List<ElpriserAPI.Elpris> window = elpriser.subList(0, duration);//create a new list and fill with the desired number of values
-
-            double minValue = 0; for(int k = 0; k < duration; k++) { minValue += elpriser.get(k).sekPerKWh();} //create and set value of first window to compare
-            double sliding = minValue; //value that will change with every window
+    private static void printMean (PriceStatistics stats, boolean chargingWindow) {
 
-            for (int i = duration; i < elpriser.size(); i++) { //iterate all possible windows, stop when the first value is the last available for the desired window
-                sliding += elpriser.get(i).sekPerKWh() - elpriser.get(i-duration).sekPerKWh();
-
-                if (minValue > sliding) {   //if the checked window is lesser set it as the return value
-                    minValue = sliding;
-                    window = elpriser.subList(i-duration+1, i+1);
-                }
-            }
-            return window;
+        if (chargingWindow) {
+            report.text("Medelpris för fönster: ");
         }
-        else  {
-            return elpriser;
+        else {
+            report.text("Medelpris: ");
         }
+        report.ore(stats.sek().mean()).text(" öre").newLine();
     }
 
-    /**
-     * Formats a double to a string 100x the value with the pattern "0.00"
-     *
-     * @param price {@link Double} value to be formatted
-     * @return formatted value as a {@link String}
-     */
-    private static String formatPrice(double price) {
-        DecimalFormatSymbols dfs = new DecimalFormatSymbols(new Locale("sv", "SE"));
-        DecimalFormat df = new DecimalFormat("0.00", dfs);
-
-        return df.format(price*100);
-    }
 
     /**
-     * Formats a ZoneDateTime to a string with pattern "HH"
+     * Prints stats, time and cost for a provided {@link PriceSeries}
      *
-     * @param time {@link ZonedDateTime} to be formatted
-     * @return formatted value as a {@link String}
+     * @param prices series to print from
      */
-    private static String formatTime(ZonedDateTime time) {
-        DateTimeFormatter dtf = DateTimeFormatter.ofPattern("HH");
+    static void printStats (PriceSeries prices) {
 
-        return dtf.format(time);
-    }
+        if (prices.isEmpty()) { //all prices may have passed with none available for tomorrow
+            report.text("No data").newLine();
+            return;
+        }
 
-    /**
-     * Prints a provided list of {@link ElpriserAPI.Elpris} formatted to "HH-HH" "0,00 öre"
-     *
-     * @param elpriser list to be printed
-     */
-    static void printList (List<ElpriserAPI.Elpris> elpriser) {
+        PriceStatistics stats = PriceStatistics.of(prices); //min, max and mean in a single pass
 
-        if(sorted){sortedPrices(elpriser, "PRICE");}
+        printList(prices);
 
-        for (ElpriserAPI.Elpris elpris : elpriser) {
-            System.out.println(formatTime(elpris.timeStart()) + "-"
-                    + formatTime(elpris.timeEnd()) + " "
-                    +  formatPrice(elpris.sekPerKWh()) + " öre");
-        }
-    }
+        boolean minutes = withMinutes(prices);
 
-    /**
-     * Prints a provided list of {@link ElpriserAPI.Elpris} formatted to "Medelpris: 0.00 öre"
-     *
-     * @param elpriser list to print mean from
-     * @param chargingWindow {@code TRUE} if the list is representing a charging window, changing the formatting to "Medelpris för fönster: 0.00 öre"
-     */
-    static void printMean (List<ElpriserAPI.Elpris> elpriser, boolean chargingWindow) {
+        report.text("\nLägsta pris: ");
+        printRow(prices, stats.sek().minIndex(), minutes);
+        report.newLine();
 
-        if (chargingWindow) {
-            System.out.println("Medelpris för fönster: " + formatPrice(meanPrice(elpriser)) + " öre");
-        }
-        else {
-            System.out.println("Medelpris: " + formatPrice(meanPrice(elpriser)) + " öre");
-        }
-    }
+        report.text("Högsta pris: ");
+        printRow(prices, stats.sek().maxIndex(), minutes);
+        report.newLine();
 
+        printMean(stats, false);
+    }
 
     /**
-     * Prints stats, time and cost for a provided list of {@link ElpriserAPI.Elpris}
+     * Prints info about a {@link PriceSeries} as a charging window
      *
-     * @param elpriser list of {@link ElpriserAPI.Elpris} to print from
+     * @param prices charging window as a series
      */
-    static void printStats (List<ElpriserAPI.Elpris> elpriser) {
-
-        ElpriserAPI.Elpris min = minPrice(elpriser); //call once instead of checking for every output
-        ElpriserAPI.Elpris max = maxPrice(elpriser);
+    private static void printChargeStat (PriceSeries prices) {
 
-        printList(elpriser);
-
-        System.out.println("\nLägsta pris: " + formatTime(min.timeStart()) + "-"
-                + formatTime(min.timeEnd()) + " "
-                +  formatPrice(min.sekPerKWh()) + " öre");
-
-        System.out.println("Högsta pris: " + formatTime(max.timeStart()) + "-"
-                + formatTime(max.timeEnd()) + " "
-                +  formatPrice(max.sekPerKWh()) + " öre");
-
-        printMean(elpriser, false);
+        if(!prices.isEmpty()) {
+            report.text("Påbörja laddning: kl ").time(prices.startEpochSecond(0), true).newLine();
+            printMean(prices, true);
+            report.newLine();//For formatting
+            printList(prices);
+        }
     }
 
     /**
-     * Prints info about a list {@link ElpriserAPI.Elpris} as a charging window
+     * Prints the cheapest schedule delivering the energy of the {@link #query} within the constraints given as arguments
      *
-     * @param elpriser charging window as a list
+     * @param prices {@link PriceSeries} to schedule in
      */
-    private static void printChargeStat (List<ElpriserAPI.Elpris> elpriser) {
+    private static void printSchedule (PriceSeries prices) {
+        if (prices.isEmpty()) {
+            report.text("No data").newLine();
+            return;
+        }
+        Instant until = query.until(Instant.ofEpochSecond(prices.startEpochSecond(0)));
+        LoadScheduler.Schedule schedule = LoadScheduler.schedule(prices,
+                new LoadScheduler.Request(query.energy(), query.power(), until, query.minRun()));
+        if (schedule == null) {
+            report.text("Not enough time to deliver ").decimal(query.energy()).text(" kWh before the deadline").newLine();
+            return;
+        }
 
-        if(!elpriser.isEmpty()) {
-            System.out.println("Påbörja laddning: kl " + formatTime(elpriser.getFirst().timeStart()) + ":00");
-            printMean(elpriser, true);
-            System.out.println();//For formatting
-            printList(elpriser);
+        boolean minutes = withMinutes(prices);
+        report.text("Laddschema för ").decimal(query.energy()).text(" kWh:").newLine();
+        for (LoadScheduler.Allocation allocation : schedule.allocations()) {
+            printRow(prices, allocation.row(), minutes);
+            report.text(' ').decimal(allocation.energyKWh()).text(" kWh").newLine();
         }
+        report.text("Medelpris för schema: ").ore(schedule.meanPrice()).text(" öre").newLine();
+        report.text("Kostnad: ").decimal(schedule.costSek()).text(" kr").newLine();
     }
 
     /**
@@ -385,87 +306,189 @@ public class Main {
             }
         }
 
-        for (Map.Entry entry :argMap.entrySet()){
-            switch (entry.getKey().toString()) {
-                case "--zone", "--charging", "--date", "--sorted", "--help" -> {}
-
-                default -> {
-                    System.out.println("Invalid argument: " + entry.getKey());
-                    return false;
-                }
+        //the same query as the server answers, the rest only applies to the command line
+        try {
+            query = Query.parse(argMap, "--", Set.of("help", "verbose", "format"));
+        } catch (IllegalArgumentException e) {
+            System.out.println(e.getMessage());
+            return false;
+        }
+        if (argMap.containsKey("--help")) {
+            help();
+            return false;
+        }
+        if (argMap.containsKey("--format")) {
+            format = RecordWriter.Format.parse(argMap.get("--format"));
+            if (format == null) {
+                System.out.println("Invalid format: " + argMap.get("--format"));
+                return false;
             }
         }
-
-        if (argMap.containsKey("--zone") && Pattern.matches("^SE[1-4]$", argMap.get("--zone"))) {
-                zon = ElpriserAPI.Prisklass.valueOf(argMap.get("--zone"));
-
-            for (Map.Entry entry : argMap.entrySet()) {
-                switch ((String) entry.getKey()) {
-                    case "--date" -> {
-                        try {
-                            date = LocalDate.parse(argMap.get("--date")); //Checks if it a valid date and saves it if possible
-                        } catch (DateTimeParseException e) {
-                            System.out.println("Invalid date");
-                            date = LocalDate.now();
-                            return false;
-                        }
-
-                        if (elpriserAPI.getPriser(date, zon).isEmpty()) { //if data for the desired date is unavailable we fall back to today
-                            date = LocalDate.now();
-                            System.out.println("No data found for " + argMap.get("--date") + " defaulting to " + date);
-                        }
-                    }
-
-                    case "--charging" -> {
-                        if(Pattern.matches("^[248]h$", argMap.get("--charging"))) {
-                            window = Integer.parseInt(String.valueOf(argMap.get("--charging").charAt(0)));
-                        }
-                        else {
-                            System.out.println("Invalid charging window: " + argMap.get("--charging"));
-                            return false;
-                        }
-                    }
-
-                    case "--sorted" -> {
-                        sorted = true;
-                    }
-
-                    case "--help" -> {
-                        help();
-                        return false;
-                    }
-                }
+        verbose = argMap.containsKey("--verbose");
+        context = new PriceContext(elpriserAPI, query.zone());
+        date = query.date();
+
+        if (argMap.containsKey("--date")) {
+            //the day after will be needed for the output, fetch it while checking the date
+            context.prefetch(date.plusDays(1));
+            if (context.prices(date).isEmpty()) { //if data for the desired date is unavailable we fall back to today
+                date = LocalDate.now(PriceSeries.ZONE);
+                System.out.println("No data found for " + argMap.get("--date") + " defaulting to " + date);
             }
         }
+        return true;
+    }
+
+    /**
+     * Prints stats based on flags set with {@link #parseArgs(String[])}
+     */
+    private static void outputResult (){
+        //both days are fetched concurrently, and only once for the whole run
+        context.prefetch(date);
+        context.prefetch(date.plusDays(1));
+        if (format != RecordWriter.Format.TEXT) {
+            writeRecords();
+        }
+        else if(context.prices(date).isEmpty()) { //ensure there is data
+            report.text("No data").newLine();
+        }
         else {
-                System.out.println("Invalid zone");
-                return false;
+            if (query.energy() != null) {
+                printSchedule(priceRealDay());
+            }
+            else if (query.charging() == null) {
+                printStats(priceRealDay());
             }
+            else {
+                printChargeStat(optimalWindow(priceRealDay(), query.charging()));
+            }
+        }
+        if (verbose && format != RecordWriter.Format.TEXT) { //keep the records parseable
+            System.err.println("Fetched " + context.fetchedDays() + " days in " + context.elapsedMillis() + " ms");
+        }
+        else if (verbose) {
+            report.text("Fetched " + context.fetchedDays() + " days in " + context.elapsedMillis() + " ms").newLine();
+        }
+        report.writeTo(System.out);
+    }
 
-        if (zon == null) {
-            System.out.println("Zone required");
-            //disabled interactive prompt to pass tests
-            //zon = ElpriserAPI.Prisklass.valueOf(System.console().readLine("Zone: "));
-            return false;
+    /**
+     * Writes the result as records in {@link #format} straight to System.out, messages go to System.err
+     */
+    private static void writeRecords() {
+        try (RecordWriter out = RecordWriter.of(format, System.out)) {
+            if (context.prices(date).isEmpty()) {
+                System.err.println("No data");
+            }
+            else if (query.energy() != null) {
+                writeSchedule(out, priceRealDay());
+            }
+            else if (query.charging() == null) {
+                writeStats(out, priceRealDay());
+            }
+            else {
+                writeWindow(out, optimalWindow(priceRealDay(), query.charging()));
+            }
+        } catch (IOException e) {
+            System.err.println("Could not write output: " + e.getMessage());
         }
+    }
 
-        else {
-            return true;
+    /**
+     * Writes every price followed by min, max and mean records
+     *
+     * @param out writer for the records
+     * @param prices series to write
+     */
+    private static void writeStats(RecordWriter out, PriceSeries prices) throws IOException {
+        if (prices.isEmpty()) {
+            System.err.println("No data");
+            return;
+        }
+        PriceSeries rows = query.sorted() ? sortedPrices(prices, "PRICE") : prices;
+        for (int i = 0; i < rows.size(); i++) {
+            out.price(RecordWriter.Type.PRICE, rows, i);
         }
+        PriceStatistics stats = PriceStatistics.of(prices);
+        out.price(RecordWriter.Type.MIN, prices, stats.sek().minIndex());
+        out.price(RecordWriter.Type.MAX, prices, stats.sek().maxIndex());
+        out.write(RecordWriter.Type.MEAN, prices.startEpochSecond(0), prices.endEpochSecond(prices.size() - 1),
+                stats.sek().mean(), stats.eur().mean(), stats.exr().mean(), Double.NaN, Double.NaN);
     }
 
     /**
-     * Prints stats based on flags set with {@link #parseArgs(String[])}
+     * Writes a window record with the mean price followed by the prices in the window
+     *
+     * @param out writer for the records
+     * @param window charging window as a series
      */
-    private static void outputResult (){
-        if(elpriserAPI.getPriser(date,zon).isEmpty()) { //ensure there is data
-            System.out.println("No data");
+    private static void writeWindow(RecordWriter out, PriceSeries window) throws IOException {
+        if (window.isEmpty()) {
+            return;
         }
-        else {
-            switch (window) {
-                case 24 -> printStats(priceRealDay());
-                default -> printChargeStat(optimalWindow(priceRealDay(), window));
+        out.write(RecordWriter.Type.WINDOW, window.startEpochSecond(0), window.endEpochSecond(window.size() - 1),
+                PriceStatistics.of(window).sek().mean(), Double.NaN, Double.NaN, Double.NaN, Double.NaN);
+        PriceSeries rows = query.sorted() ? sortedPrices(window, "PRICE") : window;
+        for (int i = 0; i < rows.size(); i++) {
+            out.price(RecordWriter.Type.PRICE, rows, i);
+        }
+    }
+
+    /**
+     * Writes an allocation record per scheduled interval followed by a schedule record with the totals
+     *
+     * @param out writer for the records
+     * @param prices {@link PriceSeries} to schedule in
+     */
+    private static void writeSchedule(RecordWriter out, PriceSeries prices) throws IOException {
+        if (prices.isEmpty()) {
+            System.err.println("No data");
+            return;
+        }
+        Instant until = query.until(Instant.ofEpochSecond(prices.startEpochSecond(0)));
+        LoadScheduler.Schedule schedule = LoadScheduler.schedule(prices,
+                new LoadScheduler.Request(query.energy(), query.power(), until, query.minRun()));
+        if (schedule == null) {
+            System.err.println("Not enough time to deliver " + query.energy() + " kWh before the deadline");
+            return;
+        }
+        for (LoadScheduler.Allocation allocation : schedule.allocations()) {
+            int row = allocation.row();
+            out.write(RecordWriter.Type.ALLOCATION, prices.startEpochSecond(row), prices.endEpochSecond(row),
+                    prices.sekPerKWh(row), Double.NaN, Double.NaN,
+                    allocation.energyKWh(), allocation.energyKWh() * prices.sekPerKWh(row));
+        }
+        int first = schedule.allocations().getFirst().row();
+        int last = schedule.allocations().getLast().row();
+        out.write(RecordWriter.Type.SCHEDULE, prices.startEpochSecond(first), prices.endEpochSecond(last),
+                schedule.meanPrice(), Double.NaN, Double.NaN, schedule.energyKWh(), schedule.costSek());
+    }
+
+    /**
+     * Starts a {@link PriceServer} sharing one {@link ElpriserAPI}, and with it the caches, between all queries
+     *
+     * @param args "--serve" optionally followed by a port, 8080 if not given
+     */
+    private static void serve(String[] args) {
+        int port = PriceServer.DEFAULT_PORT;
+        if (args.length > 1) {
+            try {
+                port = Integer.parseInt(args[1]);
+            } catch (NumberFormatException e) {
+                port = -1;
             }
+            if (port < 0 || port > 65535 || args.length > 2) {
+                System.out.println("Invalid port: " + String.join(" ", Arrays.copyOfRange(args, 1, args.length)));
+                return;
+            }
+        }
+        try {
+            PriceServer server = PriceServer.start(port, elpriserAPI);
+            elpriserAPI.startPrefetch(); //fetch tomorrow's prices as soon as they are published, outside of the queries
+            elpriserAPI.getMetrics().register(); //cache, HTTP and parse metrics for JConsole and friends
+            System.out.println("Serving prices on http://localhost:" + server.port() + PriceServer.PATH);
+        } catch (IOException e) {
+            System.out.println("Could not start server: " + e.getMessage());
         }
     }
 
@@ -477,7 +500,14 @@ public class Main {
                             "--zone SE1|SE2|SE3|SE4 (required)\n" +
                             "--date YYYY-MM-DD\n" +
                             "--sorted\n" +
-                            "--charging 2h|4h|8h\n" +
+                            "--verbose (shows how long fetching the prices took)\n" +
+                            "--format text|csv|ndjson|binary (default text)\n" +
+                            "--resolution native|15m|30m|60m|DURATION (default 60m)\n" +
+                            "--charging DURATION, e.g. 2h|4h|8h|90m|1h30m (15 minute steps)\n" +
+                            "--energy KWH --power KW [--deadline HH:MM|YYYY-MM-DDTHH:MM] [--minrun DURATION]\n" +
+                            "    cheapest hours, not necessarily in a row, to deliver the energy\n" +
+                            "--serve [PORT]\n" +
+                            "    answer the same queries as JSON, e.g. http://localhost:8080/prices?zone=SE3&charging=2h\n" +
                             "--help");
     }
 }
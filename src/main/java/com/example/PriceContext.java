@@ -0,0 +1,72 @@
+package com.example;
+
+import com.example.api.ElpriserAPI;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The prices needed by one query, fetched at most once per day.
+ * <p>
+ * Every stage of a query, from validating the date to printing, reads the days through the same
+ * context instead of asking {@link ElpriserAPI} again, so a day without data or with caching turned off
+ * still costs a single request. Days are fetched in the background as soon as they are known to be
+ * needed, so independent days load concurrently.
+ */
+final class PriceContext {
+
+    private final ElpriserAPI api;
+    private final ElpriserAPI.Prisklass zone;
+    private final Map<LocalDate, CompletableFuture<List<ElpriserAPI.Elpris>>> days = new ConcurrentHashMap<>();
+    private final long created = System.nanoTime();
+
+    /**
+     * @param api {@link ElpriserAPI} to fetch from
+     * @param zone zone all days are fetched for
+     */
+    PriceContext(ElpriserAPI api, ElpriserAPI.Prisklass zone) {
+        this.api = api;
+        this.zone = zone;
+    }
+
+    ElpriserAPI.Prisklass zone() {
+        return zone;
+    }
+
+    /**
+     * Starts fetching a day in the background unless it has already been requested
+     *
+     * @param date day to fetch
+     * @return pending prices for the day, see {@link ElpriserAPI#getPriserAsync}
+     */
+    CompletableFuture<List<ElpriserAPI.Elpris>> prefetch(LocalDate date) {
+        return days.computeIfAbsent(date, d -> api.getPriserAsync(d, zone));
+    }
+
+    /**
+     * Gets the prices for a day, waiting for it to be fetched if needed
+     *
+     * @param date day to get
+     * @return prices for the day, empty if not available
+     */
+    List<ElpriserAPI.Elpris> prices(LocalDate date) {
+        return prefetch(date).join();
+    }
+
+    /**
+     * @return number of distinct days requested so far
+     */
+    int fetchedDays() {
+        return days.size();
+    }
+
+    /**
+     * @return milliseconds since the context was created
+     */
+    long elapsedMillis() {
+        return (System.nanoTime() - created) / 1_000_000;
+    }
+}
@@ -0,0 +1,268 @@
+package com.example;
+
+import com.example.api.ElpriserAPI;
+import com.example.api.LoadScheduler;
+import com.example.api.PriceSeries;
+import com.example.api.PriceStatistics;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Answers the same queries as the command line over http on the loopback interface, as JSON.
+ * <p>
+ * One {@link ElpriserAPI} is shared between all requests so the caches stay warm, and every request
+ * runs on its own virtual thread. Query parameters are named as the arguments without the leading
+ * dashes, e.g. {@code /prices?zone=SE3&date=2025-09-04&charging=2h} or
+ * {@code /prices?zone=SE3&energy=10&power=2.5&deadline=07:00}.
+ */
+final class PriceServer {
+
+    static final int DEFAULT_PORT = 8080;
+    static final String PATH = "/prices";
+
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ISO_OFFSET_DATE_TIME;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final ElpriserAPI api;
+
+    private PriceServer(HttpServer server, ExecutorService executor, ElpriserAPI api) {
+        this.server = server;
+        this.executor = executor;
+        this.api = api;
+    }
+
+    /**
+     * Starts a server answering on {@link #PATH}
+     *
+     * @param port port to listen on, 0 for any free port
+     * @param api {@link ElpriserAPI} shared by all requests
+     * @return the running server
+     * @throws IOException if the port could not be bound
+     */
+    static PriceServer start(int port, ElpriserAPI api) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        PriceServer priceServer = new PriceServer(server, executor, api);
+        server.createContext(PATH, priceServer::handle);
+        server.setExecutor(executor);
+        server.start();
+        return priceServer;
+    }
+
+    /**
+     * @return the port the server is listening on
+     */
+    int port() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Stops accepting requests and waits for the ones in progress
+     */
+    void stop() {
+        server.stop(0);
+        executor.close();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            Response response;
+            if (!exchange.getRequestMethod().equals("GET")) {
+                response = Response.error(405, "Only GET is supported");
+            }
+            else {
+                try {
+                    response = query(parseQuery(exchange.getRequestURI().getRawQuery()));
+                } catch (RuntimeException e) { //keep serving even if a single query fails
+                    response = Response.error(500, "Query failed: " + e.getMessage());
+                }
+            }
+            byte[] body = response.json().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            exchange.sendResponseHeaders(response.status(), body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    /**
+     * Status code and JSON body of a response
+     */
+    private record Response(int status, String json) {
+        static Response error(int status, String message) {
+            return new Response(status, "{\"error\":" + quote(message) + "}");
+        }
+    }
+
+    /**
+     * Validates the parameters with {@link Query#parse} like the command line and answers the query
+     *
+     * @param params decoded query parameters
+     * @return the response to send
+     */
+    private Response query(Map<String, String> params) {
+        Query query;
+        try {
+            query = Query.parse(params, "", Set.of());
+        } catch (IllegalArgumentException e) {
+            return Response.error(400, e.getMessage());
+        }
+
+        PriceSeries prices = Main.priceRealDay(new PriceContext(api, query.zone()), query.date(), query.resolution());
+        if (prices.isEmpty()) {
+            return Response.error(404, "No data for " + query.date());
+        }
+
+        StringBuilder json = new StringBuilder(256 + prices.size() * 128);
+        json.append("{\"zone\":").append(quote(query.zone().name()))
+                .append(",\"date\":").append(quote(query.date().toString()));
+        if (query.energy() != null) {
+            Instant until = query.until(Instant.ofEpochSecond(prices.startEpochSecond(0)));
+            LoadScheduler.Schedule schedule = LoadScheduler.schedule(prices,
+                    new LoadScheduler.Request(query.energy(), query.power(), until, query.minRun()));
+            if (schedule == null) {
+                return Response.error(422, "Not enough time to deliver " + query.energy() + " kWh before the deadline");
+            }
+            appendSchedule(json, prices, schedule);
+        }
+        else if (query.charging() != null) {
+            appendWindow(json, Main.optimalWindow(prices, query.charging()), query.charging());
+        }
+        else {
+            appendStats(json, query.sorted() ? Main.sortedPrices(prices, "PRICE") : prices);
+        }
+        return new Response(200, json.append('}').toString());
+    }
+
+    private static void appendStats(StringBuilder json, PriceSeries prices) {
+        PriceStatistics stats = PriceStatistics.of(prices);
+        json.append(",\"prices\":");
+        appendRows(json, prices);
+        json.append(",\"min\":");
+        appendRow(json, prices, stats.sek().minIndex());
+        json.append(",\"max\":");
+        appendRow(json, prices, stats.sek().maxIndex());
+        json.append(",\"mean\":").append(stats.sek().mean());
+    }
+
+    private static void appendWindow(StringBuilder json, PriceSeries window, Duration charging) {
+        json.append(",\"charging\":").append(quote(charging.toString()))
+                .append(",\"start\":").append(quote(formatTime(window.startEpochSecond(0))))
+                .append(",\"mean\":").append(PriceStatistics.of(window).sek().mean())
+                .append(",\"prices\":");
+        appendRows(json, window);
+    }
+
+    private static void appendSchedule(StringBuilder json, PriceSeries prices, LoadScheduler.Schedule schedule) {
+        json.append(",\"energyKWh\":").append(schedule.energyKWh())
+                .append(",\"costSek\":").append(schedule.costSek())
+                .append(",\"meanPrice\":").append(schedule.meanPrice())
+                .append(",\"allocations\":[");
+        for (int i = 0; i < schedule.allocations().size(); i++) {
+            LoadScheduler.Allocation allocation = schedule.allocations().get(i);
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append('{');
+            appendFields(json, prices, allocation.row());
+            json.append(",\"energyKWh\":").append(allocation.energyKWh()).append('}');
+        }
+        json.append(']');
+    }
+
+    private static void appendRows(StringBuilder json, PriceSeries prices) {
+        json.append('[');
+        for (int i = 0; i < prices.size(); i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            appendRow(json, prices, i);
+        }
+        json.append(']');
+    }
+
+    private static void appendRow(StringBuilder json, PriceSeries prices, int i) {
+        json.append('{');
+        appendFields(json, prices, i);
+        json.append('}');
+    }
+
+    private static void appendFields(StringBuilder json, PriceSeries prices, int i) {
+        json.append("\"start\":").append(quote(formatTime(prices.startEpochSecond(i))))
+                .append(",\"end\":").append(quote(formatTime(prices.endEpochSecond(i))))
+                .append(",\"sekPerKWh\":").append(prices.sekPerKWh(i))
+                .append(",\"eurPerKWh\":").append(prices.eurPerKWh(i))
+                .append(",\"exr\":").append(prices.exr(i));
+    }
+
+    private static String formatTime(long epochSecond) {
+        return TIME_FORMAT.format(ZonedDateTime.ofInstant(Instant.ofEpochSecond(epochSecond), PriceSeries.ZONE));
+    }
+
+    /**
+     * Decodes a query string such as "zone=SE3&sorted", where a parameter without value means "true"
+     *
+     * @param rawQuery query string as sent, may be {@code null}
+     * @return parameters by name, the last value wins for repeated names
+     */
+    static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> params = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return params;
+        }
+        for (String pair : rawQuery.split("&")) {
+            if (pair.isEmpty()) {
+                continue;
+            }
+            int eq = pair.indexOf('=');
+            String key = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), StandardCharsets.UTF_8);
+            String value = eq < 0 ? "true" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            params.put(key, value);
+        }
+        return params;
+    }
+
+    /**
+     * Quotes and escapes a string for JSON
+     */
+    static String quote(String value) {
+        StringBuilder quoted = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> quoted.append("\\\"");
+                case '\\' -> quoted.append("\\\\");
+                case '\n' -> quoted.append("\\n");
+                case '\r' -> quoted.append("\\r");
+                case '\t' -> quoted.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        quoted.append(String.format("\\u%04x", (int) c));
+                    }
+                    else {
+                        quoted.append(c);
+                    }
+                }
+            }
+        }
+        return quoted.append('"').toString();
+    }
+}
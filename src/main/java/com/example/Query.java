@@ -0,0 +1,192 @@
+package com.example;
+
+import com.example.api.ChargingWindows;
+import com.example.api.ElpriserAPI;
+import com.example.api.PriceSeries;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A price query as given on the command line or to the {@link PriceServer}, parsed and validated in one place.
+ * <p>
+ * Both name the parameters the same way, the command line with two leading dashes and the server without,
+ * so the prefix is given when parsing and used in the error messages.
+ *
+ * @param zone price zone to query
+ * @param date first day of the prices, today if not given
+ * @param sorted whether the prices are ordered by price
+ * @param charging length of the cheapest charging window, {@code null} if not requested
+ * @param resolution interval length, {@code null} for the native resolution of the data
+ * @param energy energy to schedule in kWh, {@code null} unless a schedule is requested
+ * @param power charging power in kW, given together with energy
+ * @param deadline deadline as given, see {@link #resolveDeadline(String, Instant)}, may be {@code null}
+ * @param minRun shortest run for the schedule, may be {@code null}
+ */
+record Query(ElpriserAPI.Prisklass zone, LocalDate date, boolean sorted, Duration charging, Duration resolution,
+             Double energy, Double power, String deadline, Duration minRun) {
+
+    private static final Set<String> NAMES =
+            Set.of("zone", "date", "sorted", "charging", "resolution", "energy", "power", "deadline", "minrun");
+
+    //charging durations like 2h, 45m or 1h30m
+    private static final Pattern CHARGING_PATTERN = Pattern.compile("^(?:(\\d{1,4})h)?(?:(\\d{1,5})m)?$");
+
+    /**
+     * Parses and validates the parameters of a query
+     *
+     * @param params values by parameter name, a flag without value is given as "true"
+     * @param prefix prefix of the names, "--" on the command line and "" for the server
+     * @param ownNames names without prefix the caller handles itself, such as "help"
+     * @return the validated query
+     * @throws IllegalArgumentException with a message naming the first invalid parameter
+     */
+    static Query parse(Map<String, String> params, String prefix, Set<String> ownNames) {
+        for (String key : params.keySet()) {
+            String name = key.startsWith(prefix) ? key.substring(prefix.length()) : key;
+            if (!key.startsWith(prefix) || !(NAMES.contains(name) || ownNames.contains(name))) {
+                throw new IllegalArgumentException("Invalid argument: " + key);
+            }
+        }
+
+        String zoneValue = params.get(prefix + "zone");
+        if (zoneValue == null || !Pattern.matches("^SE[1-4]$", zoneValue)) {
+            throw new IllegalArgumentException("Invalid zone");
+        }
+        ElpriserAPI.Prisklass zone = ElpriserAPI.Prisklass.valueOf(zoneValue);
+
+        LocalDate date = LocalDate.now(PriceSeries.ZONE);
+        String dateValue = params.get(prefix + "date");
+        if (dateValue != null) {
+            try {
+                date = LocalDate.parse(dateValue);
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Invalid date");
+            }
+        }
+
+        Duration resolution = Duration.ofHours(1);
+        String resolutionValue = params.get(prefix + "resolution");
+        if (resolutionValue != null) {
+            resolution = resolutionValue.equals("native") ? null : parseCharging(resolutionValue);
+            if (resolution == null && !resolutionValue.equals("native")) {
+                throw new IllegalArgumentException("Invalid resolution: " + resolutionValue);
+            }
+        }
+
+        String chargingValue = params.get(prefix + "charging");
+        Duration charging = chargingValue == null ? null : parseCharging(chargingValue);
+        if (chargingValue != null && charging == null) {
+            throw new IllegalArgumentException("Invalid charging window: " + chargingValue);
+        }
+
+        String energyValue = params.get(prefix + "energy");
+        Double energy = energyValue == null ? null : parsePositive(energyValue);
+        if (energyValue != null && energy == null) {
+            throw new IllegalArgumentException("Invalid energy: " + energyValue);
+        }
+        String powerValue = params.get(prefix + "power");
+        Double power = powerValue == null ? null : parsePositive(powerValue);
+        if (powerValue != null && power == null) {
+            throw new IllegalArgumentException("Invalid power: " + powerValue);
+        }
+        String minRunValue = params.get(prefix + "minrun");
+        Duration minRun = minRunValue == null ? null : parseCharging(minRunValue);
+        if (minRunValue != null && minRun == null) {
+            throw new IllegalArgumentException("Invalid minimum run: " + minRunValue);
+        }
+        String deadline = params.get(prefix + "deadline");
+        if (deadline != null && resolveDeadline(deadline, Instant.EPOCH) == null) {
+            throw new IllegalArgumentException("Invalid deadline: " + deadline);
+        }
+
+        if (energy == null && (power != null || deadline != null || minRun != null)) {
+            throw new IllegalArgumentException(prefix + "energy required with " + prefix + "power, "
+                    + prefix + "deadline and " + prefix + "minrun");
+        }
+        if (energy != null && power == null) {
+            throw new IllegalArgumentException(prefix + "power required with " + prefix + "energy");
+        }
+        if (energy != null && charging != null) {
+            throw new IllegalArgumentException("Use either " + prefix + "charging or " + prefix + "energy");
+        }
+
+        String sortedValue = params.get(prefix + "sorted");
+        boolean sorted = sortedValue != null && !sortedValue.equals("false");
+        return new Query(zone, date, sorted, charging, resolution, energy, power, deadline, minRun);
+    }
+
+    /**
+     * Parses a charging duration such as "2h", "90m" or "1h30m"
+     *
+     * @param value duration to parse
+     * @return the parsed {@link Duration}, or {@code null} if it is not a positive multiple of 15 minutes
+     */
+    static Duration parseCharging(String value) {
+        Matcher m = CHARGING_PATTERN.matcher(value);
+        if (!m.matches() || (m.group(1) == null && m.group(2) == null)) {
+            return null;
+        }
+        try {
+            Duration duration = Duration.ofHours(m.group(1) == null ? 0 : Long.parseLong(m.group(1)))
+                    .plusMinutes(m.group(2) == null ? 0 : Long.parseLong(m.group(2)));
+            return ChargingWindows.requireValid(duration);
+        } catch (ArithmeticException | IllegalArgumentException e) { //too large or not in 15 minute steps
+            return null;
+        }
+    }
+
+    /**
+     * Parses a positive decimal number, with either "." or "," as decimal separator
+     *
+     * @param value number to parse
+     * @return the number, or {@code null} if it is not a positive number
+     */
+    static Double parsePositive(String value) {
+        try {
+            double parsed = Double.parseDouble(value.replace(',', '.'));
+            return parsed > 0 && Double.isFinite(parsed) ? parsed : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Resolves a deadline given as a date and time, or as a time of day meaning the first such time after {@code after}
+     *
+     * @param value deadline as "YYYY-MM-DDTHH:MM" or "HH:MM", in {@link PriceSeries#ZONE}
+     * @param after start of the prices the deadline applies to
+     * @return the deadline, or {@code null} if it could not be parsed
+     */
+    static Instant resolveDeadline(String value, Instant after) {
+        try {
+            if (value.contains("T")) {
+                return LocalDateTime.parse(value).atZone(PriceSeries.ZONE).toInstant();
+            }
+            LocalTime time = LocalTime.parse(value);
+            ZonedDateTime start = after.atZone(PriceSeries.ZONE);
+            ZonedDateTime candidate = start.with(time);
+            return (candidate.isAfter(start) ? candidate : candidate.plusDays(1)).toInstant();
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Resolves {@link #deadline} for prices starting at {@code after}
+     *
+     * @return the deadline, or {@code null} if none was given
+     */
+    Instant until(Instant after) {
+        return deadline == null ? null : resolveDeadline(deadline, after);
+    }
+}
@@ -0,0 +1,255 @@
+package com.example;
+
+import com.example.api.PriceSeries;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
+/**
+ * Writes the result of a query as machine readable records, streamed as they are produced.
+ * <p>
+ * Every record has the same fields, so the formats can share one schema:
+ * <pre>
+ * type         price, min, max, mean, window, allocation or schedule
+ * start, end   interval the record covers
+ * sek_per_kwh  price, or mean price for mean, window and schedule
+ * eur_per_kwh  price in EUR, for price, min, max and mean
+ * exr          exchange rate, for price, min, max and mean
+ * energy_kwh   energy delivered, for allocation and schedule
+ * cost_sek     cost of the energy, for allocation and schedule
+ * </pre>
+ * Fields that do not apply are left empty in CSV, left out in NDJSON and NaN in the binary format.
+ * Times are ISO-8601 with offset in {@link PriceSeries#ZONE} in the text formats and epoch seconds in
+ * the binary format.
+ * <p>
+ * {@link #close()} flushes the records and ends the stream, without closing the underlying stream.
+ */
+abstract class RecordWriter implements Closeable {
+
+    /**
+     * Output formats selected with --format
+     */
+    enum Format {
+        TEXT, CSV, NDJSON, BINARY;
+
+        /**
+         * @return the format for a name such as "csv", or {@code null} if there is none
+         */
+        static Format parse(String value) {
+            for (Format format : values()) {
+                if (format.name().equalsIgnoreCase(value)) {
+                    return format;
+                }
+            }
+            return null;
+        }
+    }
+
+    enum Type {
+        PRICE, MIN, MAX, MEAN, WINDOW, ALLOCATION, SCHEDULE;
+
+        final String label = name().toLowerCase(Locale.ROOT);
+    }
+
+    private static final int BUFFER_BYTES = 1 << 16;
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ISO_OFFSET_DATE_TIME;
+
+    /**
+     * @param format {@link Format#CSV}, {@link Format#NDJSON} or {@link Format#BINARY}
+     * @param out stream to write to, stays open when the writer is closed
+     * @return a writer for the format
+     */
+    static RecordWriter of(Format format, OutputStream out) throws IOException {
+        return switch (format) {
+            case CSV -> new Csv(out);
+            case NDJSON -> new Ndjson(out);
+            case BINARY -> new Binary(out);
+            case TEXT -> throw new IllegalArgumentException("Text is written by Main, not as records");
+        };
+    }
+
+    /**
+     * Writes one record, see the class description for the fields
+     */
+    abstract void write(Type type, long start, long end, double sekPerKWh, double eurPerKWh, double exr,
+                        double energyKWh, double costSek) throws IOException;
+
+    /**
+     * Writes a row of a series as a price, or as the min or max of the series
+     */
+    void price(Type type, PriceSeries prices, int i) throws IOException {
+        write(type, prices.startEpochSecond(i), prices.endEpochSecond(i),
+                prices.sekPerKWh(i), prices.eurPerKWh(i), prices.exr(i), Double.NaN, Double.NaN);
+    }
+
+    static String formatTime(long epochSecond) {
+        return TIME_FORMAT.format(ZonedDateTime.ofInstant(Instant.ofEpochSecond(epochSecond), PriceSeries.ZONE));
+    }
+
+    /**
+     * Comma separated values with a header line
+     */
+    private static final class Csv extends RecordWriter {
+        private final Writer out;
+
+        Csv(OutputStream out) throws IOException {
+            this.out = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_BYTES);
+            this.out.write("type,start,end,sek_per_kwh,eur_per_kwh,exr,energy_kwh,cost_sek\n");
+        }
+
+        @Override
+        void write(Type type, long start, long end, double sekPerKWh, double eurPerKWh, double exr,
+                   double energyKWh, double costSek) throws IOException {
+            out.write(type.label);
+            out.write(',');
+            out.write(formatTime(start));
+            out.write(',');
+            out.write(formatTime(end));
+            field(sekPerKWh);
+            field(eurPerKWh);
+            field(exr);
+            field(energyKWh);
+            field(costSek);
+            out.write('\n');
+        }
+
+        private void field(double value) throws IOException {
+            out.write(',');
+            if (!Double.isNaN(value)) {
+                out.write(Double.toString(value));
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.flush();
+        }
+    }
+
+    /**
+     * One JSON object per line
+     */
+    private static final class Ndjson extends RecordWriter {
+        private final Writer out;
+
+        Ndjson(OutputStream out) {
+            this.out = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_BYTES);
+        }
+
+        @Override
+        void write(Type type, long start, long end, double sekPerKWh, double eurPerKWh, double exr,
+                   double energyKWh, double costSek) throws IOException {
+            out.write("{\"type\":\"");
+            out.write(type.label);
+            out.write("\",\"start\":\"");
+            out.write(formatTime(start));
+            out.write("\",\"end\":\"");
+            out.write(formatTime(end));
+            out.write('"');
+            field("sek_per_kwh", sekPerKWh);
+            field("eur_per_kwh", eurPerKWh);
+            field("exr", exr);
+            field("energy_kwh", energyKWh);
+            field("cost_sek", costSek);
+            out.write("}\n");
+        }
+
+        private void field(String name, double value) throws IOException {
+            if (!Double.isNaN(value)) {
+                out.write(",\"");
+                out.write(name);
+                out.write("\":");
+                out.write(Double.toString(value));
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.flush();
+        }
+    }
+
+    /**
+     * Columnar record batches in big-endian byte order, similar in spirit to an Arrow stream.
+     * <pre>
+     * Header:  int MAGIC ("ELPR"), int VERSION
+     * Batch:   int n (1-{@value #BATCH_ROWS}), byte[n] type (ordinal of {@link Type}),
+     *          long[n] start, long[n] end (epoch seconds),
+     *          double[n] sek_per_kwh, eur_per_kwh, exr, energy_kwh, cost_sek
+     * End:     int 0
+     * </pre>
+     * At most one batch is kept in memory.
+     */
+    private static final class Binary extends RecordWriter {
+        static final int MAGIC = 0x454C5052;
+        static final int VERSION = 1;
+        static final int BATCH_ROWS = 1024;
+
+        private final DataOutputStream out;
+        private final byte[] types = new byte[BATCH_ROWS];
+        private final long[] starts = new long[BATCH_ROWS];
+        private final long[] ends = new long[BATCH_ROWS];
+        // sek, eur, exr, energy and cost, one column after the other
+        private final double[] values = new double[BATCH_ROWS * 5];
+        private int rows;
+
+        Binary(OutputStream out) throws IOException {
+            this.out = new DataOutputStream(new BufferedOutputStream(out, BUFFER_BYTES));
+            this.out.writeInt(MAGIC);
+            this.out.writeInt(VERSION);
+        }
+
+        @Override
+        void write(Type type, long start, long end, double sekPerKWh, double eurPerKWh, double exr,
+                   double energyKWh, double costSek) throws IOException {
+            types[rows] = (byte) type.ordinal();
+            starts[rows] = start;
+            ends[rows] = end;
+            values[rows] = sekPerKWh;
+            values[BATCH_ROWS + rows] = eurPerKWh;
+            values[2 * BATCH_ROWS + rows] = exr;
+            values[3 * BATCH_ROWS + rows] = energyKWh;
+            values[4 * BATCH_ROWS + rows] = costSek;
+            if (++rows == BATCH_ROWS) {
+                writeBatch();
+            }
+        }
+
+        private void writeBatch() throws IOException {
+            out.writeInt(rows);
+            out.write(types, 0, rows);
+            for (int i = 0; i < rows; i++) {
+                out.writeLong(starts[i]);
+            }
+            for (int i = 0; i < rows; i++) {
+                out.writeLong(ends[i]);
+            }
+            for (int column = 0; column < 5; column++) {
+                for (int i = 0; i < rows; i++) {
+                    out.writeDouble(values[column * BATCH_ROWS + i]);
+                }
+            }
+            rows = 0;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (rows > 0) {
+                writeBatch();
+            }
+            out.writeInt(0);
+            out.flush();
+        }
+    }
+}
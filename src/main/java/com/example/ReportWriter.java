@@ -0,0 +1,147 @@
+package com.example;
+
+import com.example.api.PriceSeries;
+
+import java.io.PrintStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.time.Instant;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.Locale;
+
+/**
+ * Collects a report in one buffer and writes it with a single call, instead of one println per line.
+ * <p>
+ * Prices and times are written straight into the buffer as fixed-point digits. The output is the same
+ * as {@link DecimalFormat} with the pattern "0.00" and Swedish symbols, including half-even rounding of
+ * the exact binary value, "−0,00" for negative values that round to zero and the Swedish minus sign.
+ * Values too large or too close to a rounding tie for the fast path fall back to exact decimal arithmetic.
+ * Times are written as "HH" or "HH:mm" in {@link PriceSeries#ZONE}, with the UTC offset cached until the
+ * next daylight saving transition.
+ * <p>
+ * Not thread safe, create one writer per report.
+ */
+final class ReportWriter {
+
+    private static final DecimalFormatSymbols SYMBOLS = DecimalFormatSymbols.getInstance(Locale.of("sv", "SE"));
+    private static final char MINUS = SYMBOLS.getMinusSign();
+    private static final char DECIMAL_SEPARATOR = SYMBOLS.getDecimalSeparator();
+    private static final ZoneRules RULES = PriceSeries.ZONE.getRules();
+    // Above this the value times 100 can no longer be rounded exactly with a double
+    private static final double FAST_PATH_LIMIT = 1e13;
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    private final StringBuilder buffer = new StringBuilder(4096);
+    private DecimalFormat fallback;
+
+    // UTC offset valid for epoch seconds from offsetFrom, inclusive, to offsetUntil, exclusive
+    private long offsetFrom = 1;
+    private long offsetUntil = 0;
+    private int offsetSeconds;
+
+    ReportWriter text(String text) {
+        buffer.append(text);
+        return this;
+    }
+
+    ReportWriter text(char c) {
+        buffer.append(c);
+        return this;
+    }
+
+    ReportWriter newLine() {
+        buffer.append(LINE_SEPARATOR);
+        return this;
+    }
+
+    /**
+     * Writes a price in SEK/kWh as öre, e.g. 0.12345 as "12,35"
+     */
+    ReportWriter ore(double sekPerKWh) {
+        return decimal(sekPerKWh * 100);
+    }
+
+    /**
+     * Writes a value with two decimals, e.g. kWh or SEK
+     */
+    ReportWriter decimal(double value) {
+        if (!Double.isFinite(value) || Math.abs(value) >= FAST_PATH_LIMIT) {
+            buffer.append(fallback().format(value));
+            return this;
+        }
+        double rounded = Math.rint(value * 100);
+        // fma gives the exact remainder, so only values within a hair of ,5 need the slow path
+        double remainder = Math.abs(Math.fma(value, 100, -rounded));
+        long hundredths = remainder < 0.5 - 1e-6
+                ? (long) Math.abs(rounded)
+                : new BigDecimal(value).abs().setScale(2, RoundingMode.HALF_EVEN).unscaledValue().longValueExact();
+
+        if (Double.doubleToRawLongBits(value) < 0) { //also -0.0
+            buffer.append(MINUS);
+        }
+        buffer.append(hundredths / 100).append(DECIMAL_SEPARATOR);
+        twoDigits((int) (hundredths % 100));
+        return this;
+    }
+
+    /**
+     * Writes a time as "HH" or "HH:mm"
+     *
+     * @param epochSecond time to write
+     * @param minutes {@code TRUE} to include minutes
+     */
+    ReportWriter time(long epochSecond, boolean minutes) {
+        long local = epochSecond + offset(epochSecond);
+        int secondOfDay = (int) Math.floorMod(local, 86_400L);
+        twoDigits(secondOfDay / 3600);
+        if (minutes) {
+            buffer.append(':');
+            twoDigits(secondOfDay / 60 % 60);
+        }
+        return this;
+    }
+
+    /**
+     * Writes the report and empties the buffer
+     *
+     * @param out stream to write to
+     */
+    void writeTo(PrintStream out) {
+        if (!buffer.isEmpty()) {
+            out.print(buffer);
+            out.flush();
+            buffer.setLength(0);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return buffer.toString();
+    }
+
+    private void twoDigits(int value) {
+        buffer.append((char) ('0' + value / 10)).append((char) ('0' + value % 10));
+    }
+
+    private int offset(long epochSecond) {
+        if (epochSecond < offsetFrom || epochSecond >= offsetUntil) {
+            Instant instant = Instant.ofEpochSecond(epochSecond);
+            offsetSeconds = RULES.getOffset(instant).getTotalSeconds();
+            ZoneOffsetTransition previous = RULES.previousTransition(instant.plusSeconds(1));
+            ZoneOffsetTransition next = RULES.nextTransition(instant);
+            offsetFrom = previous == null ? Long.MIN_VALUE : previous.toEpochSecond();
+            offsetUntil = next == null ? Long.MAX_VALUE : next.toEpochSecond();
+        }
+        return offsetSeconds;
+    }
+
+    private DecimalFormat fallback() {
+        if (fallback == null) {
+            fallback = new DecimalFormat("0.00", SYMBOLS);
+        }
+        return fallback;
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.api;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * En källa för passerade dagar ur de binära prisarkiven, ett {@link PriceArchive} per prisklass.
+ * <p>
+ * Passerade dagars priser kan inte längre ändras, så som första nivå i en {@link TieredPriceSource}
+ * arkiveras de när en senare nivå har hämtat dem. Dagar som inte har passerat sparas inte.
+ */
+final class ArchivePriceSource implements PriceSource {
+
+    private final Map<ElpriserAPI.Prisklass, PriceArchive> archives = new EnumMap<>(ElpriserAPI.Prisklass.class);
+    private final ElpriserMetrics metrics;
+
+    /**
+     * @param directory katalog för arkiven, eller null för en källa utan arkiv som aldrig har någon dag.
+     */
+    ArchivePriceSource(Path directory, ElpriserMetrics metrics) {
+        if (directory != null) {
+            for (ElpriserAPI.Prisklass p : ElpriserAPI.Prisklass.values()) {
+                archives.put(p, new PriceArchive(directory.resolve(p.name() + ".elpa")));
+            }
+        }
+        this.metrics = metrics;
+    }
+
+    /**
+     * @return arkivet för prisklassen, eller null om källan saknar arkiv.
+     */
+    PriceArchive archive(ElpriserAPI.Prisklass prisklass) {
+        return archives.get(prisklass);
+    }
+
+    /**
+     * Läser alla arkiverade dagar från och med {@code from} till och med {@code to}.
+     *
+     * @return priserna i datumordning, tomt om arkivet saknas eller inte kunde läsas.
+     */
+    PriceSeries read(LocalDate from, LocalDate to, ElpriserAPI.Prisklass prisklass) {
+        PriceArchive archive = archives.get(prisklass);
+        if (archive == null) {
+            return PriceSeries.empty();
+        }
+        try {
+            return archive.read(from, to);
+        } catch (IOException e) {
+            Log.warning("Kunde inte läsa prisarkivet för " + prisklass + ": " + e.getMessage());
+            return PriceSeries.empty();
+        }
+    }
+
+    @Override
+    public List<ElpriserAPI.Elpris> fetch(LocalDate datum, ElpriserAPI.Prisklass prisklass) {
+        if (!archives.containsKey(prisklass)) {
+            return null;
+        }
+        FetchEvent event = FetchEvent.begin(datum, prisklass, FetchEvent.ARCHIVE);
+        PriceSeries arkiverade = read(datum, datum, prisklass);
+        if (arkiverade.isEmpty()) {
+            return null;
+        }
+        metrics.archiveHit();
+        return event.end(arkiverade.toList());
+    }
+
+    @Override
+    public void store(LocalDate datum, ElpriserAPI.Prisklass prisklass, List<ElpriserAPI.Elpris> priser) {
+        PriceArchive archive = archives.get(prisklass);
+        if (archive == null || !datum.isBefore(LocalDate.now(PriceSeries.ZONE))) {
+            return;
+        }
+        try {
+            archive.append(datum, priser);
+        } catch (IOException e) {
+            Log.warning("Kunde inte arkivera " + datum + "_" + prisklass.name() + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.api;
+
+/**
+ * Räknare för minnes-cachen i {@link ElpriserAPI}.
+ *
+ * @param hits antal uppslag som besvarades av cachen, inklusive anrop som väntade på en pågående laddning
+ * @param misses antal uppslag som startade en ny laddning
+ * @param evictions antal poster som tagits bort för att de gått ut eller för att cachen var full
+ * @param size antal poster i cachen just nu
+ * @param staleHits antal av träffarna som gav ett utgånget resultat medan det hämtades på nytt
+ */
+public record CacheStats(long hits, long misses, long evictions, int size, long staleHits) {
+
+    /**
+     * @return andelen träffar av alla uppslag, 0 om inga uppslag gjorts.
+     */
+    public double hitRate() {
+        long total = hits + misses;
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+}
@@ -0,0 +1,185 @@
+package com.example.api;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Sökning efter billigaste sammanhängande laddfönster i en {@link PriceSeries}.
+ * <p>
+ * Vid skapandet byggs en prefixsumma över SEK-priserna, varefter summan för varje fönster är en
+ * differens. Ett fönsters kostnad för en viss längd tas därmed fram i konstant tid, och flera längder
+ * kan besvaras i samma genomläsning med {@link #cheapest(int...)}. Priserna summeras i fast punkt
+ * (nano-SEK) så att lika dyra fönster jämförs exakt och det tidigaste alltid vinner, oberoende av
+ * avrundningsfel i flyttal.
+ * <p>
+ * Längder anges i antal rader. {@link #slotsFor(Duration)} räknar om en tidslängd till rader utifrån
+ * seriens intervall, se {@link PriceSeries#intervalSeconds()}, t.ex. 15 eller 60 minuter.
+ */
+public final class ChargingWindows {
+
+    /** Minsta steg för laddtider. */
+    public static final Duration GRANULARITY = Duration.ofMinutes(15);
+
+    private static final double SCALE = 1e9;
+
+    private final PriceSeries series;
+    // prefix[i] = summan av de i första priserna i nano-SEK
+    private final long[] prefix;
+    private final long intervalSeconds;
+
+    private ChargingWindows(PriceSeries series, long[] prefix, long intervalSeconds) {
+        this.series = series;
+        this.prefix = prefix;
+        this.intervalSeconds = intervalSeconds;
+    }
+
+    /**
+     * Ett fönster med {@code length} rader från och med rad {@code start}.
+     *
+     * @param mean medelpriset i SEK per kWh, summerat i radordning.
+     */
+    public record Window(int start, int length, double mean) {
+        /**
+         * @return första raden efter fönstret.
+         */
+        public int end() {
+            return start + length;
+        }
+    }
+
+    public static ChargingWindows of(PriceSeries series) {
+        double[] sek = series.sekColumn();
+        long[] prefix = new long[sek.length + 1];
+        for (int i = 0; i < sek.length; i++) {
+            prefix[i + 1] = prefix[i] + Math.round(sek[i] * SCALE);
+        }
+        return new ChargingWindows(series, prefix, series.intervalSeconds());
+    }
+
+    public PriceSeries series() {
+        return series;
+    }
+
+    public Duration interval() {
+        return Duration.ofSeconds(intervalSeconds);
+    }
+
+    /**
+     * Räknar om en laddtid till antal rader i serien. Tider som inte går jämnt ut avrundas uppåt
+     * så att fönstret alltid räcker för hela laddningen.
+     *
+     * @throws IllegalArgumentException om tiden inte är positiv eller inte är en multipel av {@link #GRANULARITY}.
+     */
+    public int slotsFor(Duration duration) {
+        requireValid(duration);
+        return (int) Math.ceilDiv(duration.toSeconds(), intervalSeconds);
+    }
+
+    /**
+     * Kontrollerar att en laddtid är positiv och anges i steg om {@link #GRANULARITY}.
+     */
+    public static Duration requireValid(Duration duration) {
+        if (duration.isNegative() || duration.isZero() || duration.toSeconds() % GRANULARITY.toSeconds() != 0) {
+            throw new IllegalArgumentException("Laddtiden måste vara en positiv multipel av 15 minuter: " + duration);
+        }
+        return duration;
+    }
+
+    /**
+     * @return det billigaste fönstret med {@code length} rader, det tidigaste om flera är lika billiga,
+     *         eller null om serien är kortare än fönstret.
+     */
+    public Window cheapest(int length) {
+        return cheapest(new int[]{length})[0];
+    }
+
+    /**
+     * Besvarar flera längder i en genomläsning av serien.
+     *
+     * @return det billigaste fönstret per längd i samma ordning som {@code lengths}, null för längder
+     *         som är längre än serien.
+     */
+    public Window[] cheapest(int... lengths) {
+        int n = series.size();
+        int[] best = new int[lengths.length];
+        long[] bestSum = new long[lengths.length];
+        Arrays.fill(best, -1);
+        Arrays.fill(bestSum, Long.MAX_VALUE);
+        for (int length : lengths) {
+            requirePositive(length);
+        }
+        for (int start = 0; start < n; start++) {
+            for (int k = 0; k < lengths.length; k++) {
+                int end = start + lengths[k];
+                if (end > n) {
+                    continue;
+                }
+                long sum = prefix[end] - prefix[start];
+                if (sum < bestSum[k]) {
+                    bestSum[k] = sum;
+                    best[k] = start;
+                }
+            }
+        }
+        Window[] result = new Window[lengths.length];
+        for (int k = 0; k < lengths.length; k++) {
+            result[k] = best[k] < 0 ? null : window(best[k], lengths[k]);
+        }
+        return result;
+    }
+
+    /**
+     * Hittar upp till {@code k} fönster med {@code length} rader som inte överlappar varandra.
+     * Fönstren väljs girigt: det billigaste först, sedan det billigaste som inte överlappar något
+     * redan valt, osv. Vid lika pris väljs det tidigaste.
+     *
+     * @return fönstren i valordning, dvs. billigast först.
+     */
+    public List<Window> cheapestNonOverlapping(int length, int k) {
+        requirePositive(length);
+        int candidates = series.size() - length + 1;
+        List<Window> result = new ArrayList<>();
+        if (candidates <= 0 || k <= 0) {
+            return result;
+        }
+        // Startraderna sorterade på fönstrets summa och därefter på start
+        Integer[] order = new Integer[candidates];
+        for (int start = 0; start < candidates; start++) {
+            order[start] = start;
+        }
+        Arrays.sort(order, Comparator.<Integer>comparingLong(start -> prefix[start + length] - prefix[start])
+                .thenComparingInt(start -> start));
+
+        boolean[] taken = new boolean[series.size()];
+        for (int start : order) {
+            // Ett fönster överlappar ett valt fönster om dess första eller sista rad är tagen,
+            // eftersom alla fönster är lika långa
+            if (taken[start] || taken[start + length - 1]) {
+                continue;
+            }
+            Arrays.fill(taken, start, start + length, true);
+            result.add(window(start, length));
+            if (result.size() == k) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    private Window window(int start, int length) {
+        double sum = 0.0;
+        for (int i = start; i < start + length; i++) {
+            sum += series.sekPerKWh(i);
+        }
+        return new Window(start, length, sum / length);
+    }
+
+    private static void requirePositive(int length) {
+        if (length < 1) {
+            throw new IllegalArgumentException("Fönstret måste vara minst en rad: " + length);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.api;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * En kretsbrytare för anrop till API:t.
+ * <p>
+ * Efter {@code failureThreshold} misslyckade anrop i rad öppnas brytaren och alla anrop avvisas direkt
+ * under {@code openDuration}, i stället för att vänta ut timeouts mot en server som inte svarar. Därefter
+ * släpps ett enda provanrop igenom: lyckas det stängs brytaren, annars öppnas den igen.
+ */
+final class CircuitBreaker {
+
+    enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openNanos;
+    private final LongSupplier nanoClock;
+
+    private State state = State.CLOSED;
+    private int failures;
+    private long openedAt;
+    private boolean probing;
+
+    CircuitBreaker(int failureThreshold, Duration openDuration) {
+        this(failureThreshold, openDuration, System::nanoTime);
+    }
+
+    CircuitBreaker(int failureThreshold, Duration openDuration, LongSupplier nanoClock) {
+        this.failureThreshold = failureThreshold;
+        this.openNanos = openDuration.toNanos();
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * @return true om ett anrop får göras. Varje godkänt anrop ska följas av {@link #onSuccess()}
+     *         eller {@link #onFailure()}.
+     */
+    synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (nanoClock.getAsLong() - openedAt < openNanos) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+            probing = false;
+        }
+        if (state == State.HALF_OPEN) {
+            if (probing) {
+                return false;
+            }
+            probing = true;
+        }
+        return true;
+    }
+
+    synchronized void onSuccess() {
+        state = State.CLOSED;
+        failures = 0;
+        probing = false;
+    }
+
+    synchronized void onFailure() {
+        if (state == State.HALF_OPEN || ++failures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = nanoClock.getAsLong();
+            failures = 0;
+            probing = false;
+        }
+    }
+
+    /**
+     * Anropas i stället för {@link #onSuccess()} och {@link #onFailure()} när ett anrop avbröts innan det
+     * gav något svar, så att ett nytt provanrop kan göras.
+     */
+    synchronized void onCancel() {
+        probing = false;
+    }
+
+    synchronized State state() {
+        return state;
+    }
+}
@@ -0,0 +1,255 @@
+package com.example.api;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Ett enkelt disk-cache för rå JSON-data, en fil per cachenyckel (t.ex. "2025-08-30_SE3.json").
+ * <p>
+ * Varje fil inleds med en rubrikrad som innehåller längd och CRC32-kontrollsumma för innehållet,
+ * så att halvskrivna eller korrupta filer upptäcks och tas bort i stället för att tolkas. Rubrikraden
+ * innehåller också svarets {@link HttpValidators}, så att posten kan förnyas med en villkorlig hämtning.
+ * Filer från den äldre rubrikversionen utan validerare går fortfarande att läsa. Filens ändringstid
+ * är postens sparad-tid, som {@link HttpPriceSource} använder för att avgöra om priser för idag och
+ * imorgon behöver förnyas; {@link #touch} flyttar fram den när servern svarat att inget ändrats.
+ * Skrivningar sker atomiskt via en temporär fil som flyttas på plats. Filer som är äldre än
+ * {@code maxAge} eller som gör att katalogen överstiger {@code maxBytes} rensas, äldst först.
+ */
+final class DiskCache {
+
+    private static final String SUFFIX = ".json";
+    private static final String HEADER_PREFIX = "#elpriser-v2 ";
+    private static final String HEADER_PREFIX_V1 = "#elpriser-v1 ";
+
+    private final Path directory;
+    private final long maxBytes;
+    private final Duration maxAge;
+
+    /**
+     * En läst post: rå JSON i UTF-8, validerarna från svaret den kom från och när den sparades,
+     * eller null om det inte är känt.
+     */
+    record Entry(byte[] body, HttpValidators validators, Instant savedAt) {
+
+        String json() {
+            return new String(body, StandardCharsets.UTF_8);
+        }
+    }
+
+    DiskCache(Path directory, long maxBytes, Duration maxAge) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        this.maxAge = maxAge;
+    }
+
+    /**
+     * Skapar ett disk-cache med standardinställningar. Katalog, maxstorlek och maxålder kan
+     * styras med systemegenskaperna {@code elpriser.cache.dir}, {@code elpriser.cache.maxBytes}
+     * och {@code elpriser.cache.maxAgeDays}.
+     */
+    static DiskCache defaultCache() {
+        String dir = System.getProperty("elpriser.cache.dir");
+        Path path = dir != null ? Paths.get(dir) : Paths.get(System.getProperty("user.home"), ".elpriser_cache");
+        long maxBytes = Long.getLong("elpriser.cache.maxBytes", 64L * 1024 * 1024);
+        long maxAgeDays = Long.getLong("elpriser.cache.maxAgeDays", 400);
+        return new DiskCache(path, maxBytes, Duration.ofDays(maxAgeDays));
+    }
+
+    Path directory() {
+        return directory;
+    }
+
+    /**
+     * Läser JSON-data för en nyckel.
+     * @return innehållet, eller null om filen saknas, är för gammal eller är korrupt.
+     */
+    String load(String cacheKey) {
+        Entry entry = loadEntry(cacheKey);
+        return entry == null ? null : entry.json();
+    }
+
+    /**
+     * Läser JSON-data och validerare för en nyckel.
+     * @return posten, eller null om filen saknas, är för gammal eller är korrupt.
+     */
+    Entry loadEntry(String cacheKey) {
+        Path file = directory.resolve(cacheKey + SUFFIX);
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try {
+            FileTime modified = Files.getLastModifiedTime(file);
+            if (isExpired(modified, Instant.now())) {
+                Files.deleteIfExists(file);
+                return null;
+            }
+            Entry content = decode(Files.readAllBytes(file), modified.toInstant());
+            if (content == null) {
+                Log.warning("Korrupt cachefil togs bort: " + file);
+                Files.deleteIfExists(file);
+            }
+            return content;
+        } catch (IOException e) {
+            Log.warning("Kunde inte läsa disk-cache för " + cacheKey + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Sparar JSON-data för en nyckel atomiskt och rensar därefter cachen enligt storleks- och åldersgränserna.
+     */
+    void save(String cacheKey, String jsonData) {
+        save(cacheKey, jsonData.getBytes(StandardCharsets.UTF_8), HttpValidators.NONE);
+    }
+
+    /**
+     * Som {@link #save(String, String)} för ett svar i UTF-8 tillsammans med dess validerare.
+     */
+    void save(String cacheKey, byte[] body, HttpValidators validators) {
+        try {
+            Files.createDirectories(directory);
+            Path tmp = Files.createTempFile(directory, cacheKey, ".tmp");
+            try {
+                Files.write(tmp, encode(body, validators));
+                moveAtomically(tmp, directory.resolve(cacheKey + SUFFIX));
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+            evict();
+        } catch (IOException e) {
+            Log.warning("Kunde inte spara disk-cache för " + cacheKey + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Markerar en post som nyss sparad utan att skriva om den, t.ex. efter ett 304-svar.
+     */
+    void touch(String cacheKey) {
+        try {
+            Files.setLastModifiedTime(directory.resolve(cacheKey + SUFFIX), FileTime.from(Instant.now()));
+        } catch (IOException e) {
+            Log.warning("Kunde inte uppdatera disk-cache för " + cacheKey + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Tar bort utgångna filer och därefter de äldsta filerna tills katalogen ryms inom {@code maxBytes}.
+     */
+    void evict() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        record Entry(Path path, FileTime modified, long size) {}
+        List<Entry> entries = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+            for (Path p : stream) {
+                entries.add(new Entry(p, Files.getLastModifiedTime(p), Files.size(p)));
+            }
+        }
+        entries.sort(Comparator.comparing(Entry::modified));
+
+        Instant now = Instant.now();
+        long total = 0;
+        for (Entry e : entries) total += e.size();
+
+        for (Entry e : entries) {
+            if (isExpired(e.modified(), now) || total > maxBytes) {
+                Files.deleteIfExists(e.path());
+                total -= e.size();
+            }
+        }
+    }
+
+    private boolean isExpired(FileTime modified, Instant now) {
+        return modified.toInstant().plus(maxAge).isBefore(now);
+    }
+
+    static void moveAtomically(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    static byte[] encode(String jsonData) {
+        return encode(jsonData.getBytes(StandardCharsets.UTF_8), HttpValidators.NONE);
+    }
+
+    static byte[] encode(byte[] body, HttpValidators validators) {
+        String header = HEADER_PREFIX + body.length + " " + Long.toHexString(crc32(body, 0, body.length))
+                + " " + validators.format() + "\n";
+        byte[] head = header.getBytes(StandardCharsets.US_ASCII);
+        byte[] out = new byte[head.length + body.length];
+        System.arraycopy(head, 0, out, 0, head.length);
+        System.arraycopy(body, 0, out, head.length, body.length);
+        return out;
+    }
+
+    /**
+     * @return posten, utan sparad-tid, om rubrik, längd och kontrollsumma stämmer, annars null.
+     */
+    static Entry decode(byte[] data) {
+        return decode(data, null);
+    }
+
+    static Entry decode(byte[] data, Instant savedAt) {
+        int newline = -1;
+        for (int i = 0; i < data.length; i++) {
+            if (data[i] == '\n') {
+                newline = i;
+                break;
+            }
+        }
+        if (newline < 0) {
+            return null;
+        }
+        String header = new String(data, 0, newline, StandardCharsets.US_ASCII);
+        String[] parts;
+        if (header.startsWith(HEADER_PREFIX)) {
+            parts = header.substring(HEADER_PREFIX.length()).split(" ");
+            if (parts.length != 4) {
+                return null;
+            }
+        } else if (header.startsWith(HEADER_PREFIX_V1)) {
+            parts = header.substring(HEADER_PREFIX_V1.length()).split(" ");
+            if (parts.length != 2) {
+                return null;
+            }
+        } else {
+            return null;
+        }
+        try {
+            int length = Integer.parseInt(parts[0]);
+            long crc = Long.parseLong(parts[1], 16);
+            int start = newline + 1;
+            if (data.length - start != length || crc32(data, start, length) != crc) {
+                return null;
+            }
+            HttpValidators validators = parts.length == 4 ? HttpValidators.parse(parts[2], parts[3]) : HttpValidators.NONE;
+            return new Entry(Arrays.copyOfRange(data, start, data.length), validators, savedAt);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static long crc32(byte[] data, int offset, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(data, offset, length);
+        return crc.getValue();
+    }
+}
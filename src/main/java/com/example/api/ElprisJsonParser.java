@@ -0,0 +1,419 @@
+package com.example.api;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * En strömmande JSON-parser för API:ts svarsformat, en array av objekt med fälten
+ * {@code SEK_per_kWh}, {@code EUR_per_kWh}, {@code EXR}, {@code time_start} och {@code time_end}.
+ * <p>
+ * Svaret läses i ett enda pass direkt från bytes. Fälten får komma i valfri ordning, okända fält
+ * hoppas över och blanksteg tolereras överallt där JSON tillåter det. Tal och tidsstämplar tolkas
+ * utan att skapa mellanliggande strängar, och varje rad lämnas till en {@link RowSink} som
+ * primitiva värden. Objekt som saknar fält eller inte kan tolkas hoppas över, precis som tidigare.
+ */
+final class ElprisJsonParser {
+
+    /**
+     * Tar emot en tolkad rad. Tider anges som epoch-sekunder tillsammans med tidsstämpelns UTC-offset i sekunder.
+     */
+    interface RowSink {
+        void row(double sek, double eur, double exr, long start, int startOffset, long end, int endOffset);
+    }
+
+    private static final byte[] SEK = "SEK_per_kWh".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] EUR = "EUR_per_kWh".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] EXR = "EXR".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] TIME_START = "time_start".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] TIME_END = "time_end".getBytes(StandardCharsets.US_ASCII);
+
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final byte[] data;
+    private final int end;
+    private int pos;
+
+    // Värden för objektet som tolkas just nu
+    private double sek, eur, exr;
+    private long start, stop;
+    private int startOffset, stopOffset;
+    private int seen;
+
+    // UTC-offset i sekunder för den senast tolkade tidsstämpeln
+    private int lastOffset;
+
+    private ElprisJsonParser(byte[] data, int offset, int length) {
+        this.data = data;
+        this.pos = offset;
+        this.end = offset + length;
+    }
+
+    /**
+     * Tolkar ett svar till en lista av {@link ElpriserAPI.Elpris}.
+     */
+    static List<ElpriserAPI.Elpris> parse(String json) {
+        return parse(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Tolkar ett UTF-8-kodat svar till en lista av {@link ElpriserAPI.Elpris}.
+     */
+    static List<ElpriserAPI.Elpris> parse(byte[] json) {
+        List<ElpriserAPI.Elpris> priser = new ArrayList<>(96);
+        parse(json, 0, json.length, (s, e, x, start, startOffset, end, endOffset) ->
+                priser.add(new ElpriserAPI.Elpris(s, e, x, toZoned(start, startOffset), toZoned(end, endOffset))));
+        return priser;
+    }
+
+    /**
+     * Tolkar ett UTF-8-kodat svar direkt till kolumner, utan att skapa några objekt per rad.
+     */
+    static PriceSeries parseSeries(byte[] json) {
+        PriceSeries.Builder builder = new PriceSeries.Builder(96);
+        parse(json, 0, json.length, (s, e, x, start, startOffset, end, endOffset) -> builder.add(start, end, s, e, x));
+        return builder.build();
+    }
+
+    /**
+     * Tolkar ett UTF-8-kodat svar och lämnar varje rad till {@code sink}.
+     *
+     * @return antal tolkade rader, 0 om indata inte är en JSON-array.
+     */
+    static int parse(byte[] json, int offset, int length, RowSink sink) {
+        return new ElprisJsonParser(json, offset, length).parseArray(sink);
+    }
+
+    private static ZonedDateTime toZoned(long epochSecond, int offsetSeconds) {
+        ZoneOffset offset = ZoneOffset.ofTotalSeconds(offsetSeconds);
+        return ZonedDateTime.of(LocalDateTime.ofEpochSecond(epochSecond, 0, offset), offset);
+    }
+
+    private int parseArray(RowSink sink) {
+        skipWhitespace();
+        if (pos >= end || data[pos] != '[') {
+            return 0;
+        }
+        pos++;
+        int rows = 0;
+        skipWhitespace();
+        if (pos < end && data[pos] == ']') {
+            return 0;
+        }
+        while (pos < end) {
+            skipWhitespace();
+            int objectStart = pos;
+            try {
+                if (parseObject()) {
+                    sink.row(sek, eur, exr, start, startOffset, stop, stopOffset);
+                    rows++;
+                } else {
+                    Log.warning("Kunde inte tolka ett elpris-objekt, fält saknas: " + text(objectStart, pos));
+                }
+            } catch (IllegalStateException e) {
+                Log.warning("Kunde inte tolka ett elpris-objekt: " + text(objectStart, Math.min(end, pos + 1)) + " - Fel: " + e.getMessage());
+                pos = objectStart;
+                if (!skipValue()) {
+                    return rows;
+                }
+            }
+            skipWhitespace();
+            if (pos >= end) {
+                break;
+            }
+            byte b = data[pos++];
+            if (b == ']') {
+                break;
+            }
+            if (b != ',') {
+                Log.warning("Oväntat tecken i JSON-svaret: " + (char) b);
+                break;
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Tolkar ett objekt till fälten i parsern.
+     * @return true om alla obligatoriska fält fanns.
+     */
+    private boolean parseObject() {
+        expect('{');
+        seen = 0;
+        skipWhitespace();
+        if (peek() == '}') {
+            pos++;
+            return false;
+        }
+        while (true) {
+            skipWhitespace();
+            expect('"');
+            int keyStart = pos;
+            while (pos < end && data[pos] != '"') {
+                if (data[pos] == '\\') pos++;
+                pos++;
+            }
+            int keyEnd = pos;
+            expect('"');
+            skipWhitespace();
+            expect(':');
+            skipWhitespace();
+
+            if (keyEquals(keyStart, keyEnd, SEK)) {
+                sek = parseNumber();
+                seen |= 1;
+            } else if (keyEquals(keyStart, keyEnd, EUR)) {
+                eur = parseNumber();
+                seen |= 2;
+            } else if (keyEquals(keyStart, keyEnd, EXR)) {
+                exr = parseNumber();
+                seen |= 4;
+            } else if (keyEquals(keyStart, keyEnd, TIME_START)) {
+                start = parseTimestamp();
+                startOffset = lastOffset;
+                seen |= 8;
+            } else if (keyEquals(keyStart, keyEnd, TIME_END)) {
+                stop = parseTimestamp();
+                stopOffset = lastOffset;
+                seen |= 16;
+            } else if (!skipValue()) {
+                throw new IllegalStateException("oväntat slut på indata");
+            }
+
+            skipWhitespace();
+            byte b = next();
+            if (b == '}') {
+                return seen == 31;
+            }
+            if (b != ',') {
+                throw new IllegalStateException("förväntade ',' eller '}' men fick '" + (char) b + "'");
+            }
+        }
+    }
+
+    private boolean keyEquals(int from, int to, byte[] key) {
+        if (to - from != key.length) {
+            return false;
+        }
+        for (int i = 0; i < key.length; i++) {
+            if (data[from + i] != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Tolkar ett JSON-tal. Tal med högst 15 signifikanta siffror och en liten exponent räknas
+     * fram exakt utan allokering; övriga tal tolkas med {@link Double#parseDouble(String)}.
+     */
+    private double parseNumber() {
+        int numberStart = pos;
+        boolean negative = false;
+        if (peek() == '-') {
+            negative = true;
+            pos++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean any = false;
+        while (pos < end && isDigit(data[pos])) {
+            if (digits < 18) {
+                mantissa = mantissa * 10 + (data[pos] - '0');
+                if (mantissa != 0) digits++;
+            } else {
+                scale--;
+                digits++;
+            }
+            pos++;
+            any = true;
+        }
+        if (pos < end && data[pos] == '.') {
+            pos++;
+            while (pos < end && isDigit(data[pos])) {
+                if (digits < 18) {
+                    mantissa = mantissa * 10 + (data[pos] - '0');
+                    if (mantissa != 0) digits++;
+                    scale++;
+                }
+                pos++;
+                any = true;
+            }
+        }
+        int exponent = 0;
+        if (pos < end && (data[pos] == 'e' || data[pos] == 'E')) {
+            pos++;
+            boolean negativeExponent = false;
+            if (peek() == '+' || peek() == '-') {
+                negativeExponent = data[pos] == '-';
+                pos++;
+            }
+            while (pos < end && isDigit(data[pos])) {
+                exponent = Math.min(exponent * 10 + (data[pos] - '0'), 10_000);
+                pos++;
+            }
+            if (negativeExponent) exponent = -exponent;
+        }
+        if (!any) {
+            throw new IllegalStateException("förväntade ett tal");
+        }
+
+        int power = scale - exponent;
+        double value;
+        if (digits <= 15 && power >= 0 && power < POWERS_OF_TEN.length) {
+            value = mantissa / POWERS_OF_TEN[power];
+        } else if (digits <= 15 && power < 0 && -power < POWERS_OF_TEN.length) {
+            value = mantissa * POWERS_OF_TEN[-power];
+        } else {
+            return Double.parseDouble(text(numberStart, pos));
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Tolkar en ISO-8601-tidsstämpel med offset, t.ex. "2025-09-04T00:00:00+02:00".
+     * @return tidpunkten som epoch-sekunder, offseten sparas i {@link #lastOffset}.
+     */
+    private long parseTimestamp() {
+        expect('"');
+        int year = digits(4);
+        expect('-');
+        int month = digits(2);
+        expect('-');
+        int day = digits(2);
+        byte t = next();
+        if (t != 'T' && t != 't' && t != ' ') {
+            throw new IllegalStateException("ogiltig tidsstämpel");
+        }
+        int hour = digits(2);
+        expect(':');
+        int minute = digits(2);
+        int second = 0;
+        if (peek() == ':') {
+            pos++;
+            second = digits(2);
+            if (peek() == '.') {
+                pos++;
+                while (pos < end && isDigit(data[pos])) pos++;
+            }
+        }
+        byte sign = next();
+        int offset;
+        if (sign == 'Z' || sign == 'z') {
+            offset = 0;
+        } else if (sign == '+' || sign == '-') {
+            int offsetHours = digits(2);
+            if (peek() == ':') pos++;
+            int offsetMinutes = digits(2);
+            offset = (offsetHours * 3600 + offsetMinutes * 60) * (sign == '-' ? -1 : 1);
+        } else {
+            throw new IllegalStateException("tidsstämpel saknar offset");
+        }
+        expect('"');
+        if (month < 1 || month > 12 || day < 1 || day > 31 || hour > 23 || minute > 59 || second > 59) {
+            throw new IllegalStateException("ogiltig tidsstämpel");
+        }
+        lastOffset = offset;
+        return epochDay(year, month, day) * 86_400L + hour * 3600L + minute * 60L + second - offset;
+    }
+
+    /**
+     * Antal dagar sedan 1970-01-01 för ett datum i den proleptiska gregorianska kalendern.
+     */
+    static long epochDay(int year, int month, int day) {
+        long y = month <= 2 ? year - 1 : year;
+        long era = Math.floorDiv(y, 400);
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153L * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146_097 + dayOfEra - 719_468;
+    }
+
+    private int digits(int count) {
+        int value = 0;
+        for (int i = 0; i < count; i++) {
+            byte b = next();
+            if (!isDigit(b)) {
+                throw new IllegalStateException("förväntade en siffra");
+            }
+            value = value * 10 + (b - '0');
+        }
+        return value;
+    }
+
+    /**
+     * Hoppar över ett godtyckligt JSON-värde.
+     * @return false om indata tog slut.
+     */
+    private boolean skipValue() {
+        int depth = 0;
+        boolean inString = false;
+        while (pos < end) {
+            byte b = data[pos++];
+            if (inString) {
+                if (b == '\\') pos++;
+                else if (b == '"') {
+                    inString = false;
+                    if (depth == 0) return true;
+                }
+            } else if (b == '"') {
+                inString = true;
+            } else if (b == '{' || b == '[') {
+                depth++;
+            } else if (b == '}' || b == ']') {
+                if (depth == 0) {
+                    pos--;
+                    return true;
+                }
+                if (--depth == 0) return true;
+            } else if (b == ',' && depth == 0) {
+                pos--;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void skipWhitespace() {
+        while (pos < end) {
+            byte b = data[pos];
+            if (b != ' ' && b != '\n' && b != '\r' && b != '\t') {
+                return;
+            }
+            pos++;
+        }
+    }
+
+    private byte peek() {
+        return pos < end ? data[pos] : 0;
+    }
+
+    private byte next() {
+        if (pos >= end) {
+            throw new IllegalStateException("oväntat slut på indata");
+        }
+        return data[pos++];
+    }
+
+    private void expect(char c) {
+        byte b = next();
+        if (b != c) {
+            throw new IllegalStateException("förväntade '" + c + "' men fick '" + (char) b + "'");
+        }
+    }
+
+    private static boolean isDigit(byte b) {
+        return b >= '0' && b <= '9';
+    }
+
+    private String text(int from, int to) {
+        return new String(data, from, Math.max(0, to - from), StandardCharsets.UTF_8);
+    }
+}
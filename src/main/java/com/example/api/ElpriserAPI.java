@@ -1,38 +1,53 @@
 package com.example.api;
 
 import java.io.IOException;
-import java.net.URI;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
 import java.util.function.Supplier;
 
 /**
  * Ett enkelt API för att hämta elpriser från elprisetjustnu.se.
  * Klassen använder endast standardbibliotek från Java 21+ (HttpClient, Records, etc.).
+ * <p>
+ * Priser sparas i ett minnes-cache och laddas vid en miss från en {@link PriceSource}. Som standard är
+ * det arkivet med passerade dagar, disk-cachen och nätverket, men en egen källa kan anges med
+ * {@link #ElpriserAPI(boolean, PriceSource)}.
  */
 public final class ElpriserAPI {
 
-    // Baskonstanter för API-anrop
-    private static final String API_BASE_URL = "https://www.elprisetjustnu.se/api/v1/prices";
-    private static final DateTimeFormatter URL_DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy/MM-dd");
+    /** Standardvärde för antal samtidiga hämtningar vid hämtning av flera dagar och prisklasser. */
+    public static final int DEFAULT_MAX_CONCURRENCY = 8;
 
-    // En återanvändbar HttpClient-instans
-    private final HttpClient httpClient;
-    
-    // Flagga för att styra cachlagring
-    private final boolean cachingEnabled;
-    
-    // Ett enkelt minnes-cache. Nyckeln är en kombination av datum och prisklass, t.ex. "2025-08-30_SE3"
-    private final Map<String, List<Elpris>> inMemoryCache;
+    // Källan som laddar priser vid en miss i minnes-cachen, se PriceSource
+    private final PriceSource source;
+
+    // Ett genomläsande minnes-cache med en laddning åt gången per nyckel. Nyckeln är datum och
+    // prisklass packade i en long, se PriceCache.key. Sparar inga resultat om cachning är avstängd.
+    private final PriceCache inMemoryCache;
+
+    // Binära arkiv med passerade dagar, ett per prisklass. Utan arkiv om en egen källa används
+    private final ArchivePriceSource archive;
+
+    // Minnesmappade vyer av arkiven, mappas om när filen har vuxit
+    private final Map<Prisklass, MappedPriceArchive> mappedArchives = new EnumMap<>(Prisklass.class);
+
+    // Räknare och tider per nivå, se getMetrics
+    private final ElpriserMetrics metrics;
 
     /**
      * En record som representerar ett enskilt elpris för en given tidsperiod.
@@ -58,10 +73,10 @@ public final class ElpriserAPI {
      * This supplier is used ONLY for testing. If it's not null, the class will
      * use the String it provides instead of making a real HTTP call.
      */
-    private static Supplier<String> mockResponseSupplier = null;
+    private static volatile Supplier<String> mockResponseSupplier = null;
     
     // New: map mock responses per date, so tests can provide different JSON per day
-    private static java.util.Map<LocalDate, String> datedMockResponses = new java.util.HashMap<>();
+    private static final Map<LocalDate, String> datedMockResponses = new ConcurrentHashMap<>();
 
     /**
      * FOR TESTS ONLY: Sets a mock JSON response to be returned by the next API call.
@@ -92,6 +107,39 @@ public final class ElpriserAPI {
         mockResponseSupplier = null;
         datedMockResponses.clear();
     }
+
+    /**
+     * The test hooks above as the first tier of the default source. The static fields are only read
+     * on a miss in the memory cache. While any mock response is set, every day is answered from the
+     * mocks, so that real prices saved on disk never shadow test data.
+     */
+    private static final class MockHooks implements PriceSource {
+
+        private final ElpriserMetrics metrics;
+
+        MockHooks(ElpriserMetrics metrics) {
+            this.metrics = metrics;
+        }
+
+        @Override
+        public List<Elpris> fetch(LocalDate datum, Prisklass prisklass) {
+            Supplier<String> supplier = mockResponseSupplier;
+            if (supplier == null && datedMockResponses.isEmpty()) {
+                return null;
+            }
+            FetchEvent event = FetchEvent.begin(datum, prisklass, FetchEvent.MOCK);
+            Log.debug(() -> "!!! ANVÄNDER MOCK-DATA FÖR TEST !!!");
+            metrics.mockResponse();
+            String mockJson = datedMockResponses.get(datum);
+            if (mockJson == null && supplier != null) {
+                mockJson = supplier.get();
+            }
+            if (mockJson == null || mockJson.isBlank()) {
+                return event.end(Collections.emptyList());
+            }
+            return event.end(metrics.parse(mockJson.getBytes(StandardCharsets.UTF_8)));
+        }
+    }
     // --- End of test fields ---
 
     /**
@@ -106,13 +154,65 @@ public final class ElpriserAPI {
      * @param enableCaching Sätt till true för att aktivera minnes-cachning, annars false.
      */
     public ElpriserAPI(boolean enableCaching) {
-        this.httpClient = HttpClient.newBuilder()
-                .followRedirects(HttpClient.Redirect.NORMAL)
-                .build();
-        this.cachingEnabled = enableCaching;
-        // ConcurrentHashMap är trådsäker om klassen skulle användas i flera trådar
-        this.inMemoryCache = new ConcurrentHashMap<>();
-        System.out.println("ElpriserAPI initialiserat. Cachning: " + (enableCaching ? "På" : "Av"));
+        this(enableCaching, enableCaching ? DiskCache.defaultCache() : null);
+    }
+
+    /**
+     * Konstruktor med ett explicit disk-cache, t.ex. en temporär katalog i tester.
+     */
+    ElpriserAPI(boolean enableCaching, DiskCache diskCache) {
+        this(enableCaching, diskCache, diskCache == null ? null : diskCache.directory().resolve("arkiv"));
+    }
+
+    /**
+     * Konstruktor med explicit disk-cache och arkivkatalog.
+     * @param archiveDirectory katalog för de binära prisarkiven, eller null för att inte arkivera.
+     */
+    ElpriserAPI(boolean enableCaching, DiskCache diskCache, Path archiveDirectory) {
+        this(enableCaching, diskCache, archiveDirectory, HttpSettings.defaults());
+    }
+
+    /**
+     * Konstruktor med explicit disk-cache, arkivkatalog och nätverksinställningar, t.ex. en lokal testserver.
+     */
+    ElpriserAPI(boolean enableCaching, DiskCache diskCache, Path archiveDirectory, HttpSettings httpSettings) {
+        this.inMemoryCache = newMemoryCache(enableCaching);
+        CircuitBreaker breaker = new CircuitBreaker(httpSettings.failureThreshold(), httpSettings.openDuration());
+        this.metrics = new ElpriserMetrics(inMemoryCache::stats, breaker::state);
+        this.archive = new ArchivePriceSource(archiveDirectory, metrics);
+        // Disk-cache och arkiv används bara när cachning är på
+        HttpPriceSource http = new HttpPriceSource(new HttpFetcher(httpSettings, breaker, metrics), httpSettings.baseUrl(),
+                enableCaching ? diskCache : null, enableCaching && archiveDirectory != null, PriceCache.DEFAULT_FRESH_TTL, metrics);
+        this.source = enableCaching
+                ? TieredPriceSource.of(new MockHooks(metrics), archive, http)
+                : TieredPriceSource.of(new MockHooks(metrics), http);
+        Log.debug(() -> "ElpriserAPI initialiserat. Cachning: " + (enableCaching ? "På" : "Av"));
+    }
+
+    /**
+     * Konstruktor som laddar priser från en egen källa i stället för arkivet, disk-cachen och nätverket,
+     * t.ex. en {@link InMemoryPriceSource} i last- och prestandatester. Varken nätverket eller mock-data
+     * från {@link #setMockResponse(String)} används.
+     *
+     * @param enableCaching Sätt till true för att aktivera minnes-cachning, annars false.
+     * @param source Källan som frågas vid en miss i minnes-cachen.
+     */
+    public ElpriserAPI(boolean enableCaching, PriceSource source) {
+        if (source == null) {
+            throw new IllegalArgumentException("source saknas");
+        }
+        this.inMemoryCache = newMemoryCache(enableCaching);
+        this.metrics = new ElpriserMetrics(inMemoryCache::stats, () -> CircuitBreaker.State.CLOSED);
+        this.archive = new ArchivePriceSource(null, metrics);
+        this.source = source;
+        Log.debug(() -> "ElpriserAPI initialiserat med " + source.getClass().getSimpleName() + ". Cachning: " + (enableCaching ? "På" : "Av"));
+    }
+
+    // Samtidiga anrop för samma nyckel slås ihop även när cachning är avstängd
+    private static PriceCache newMemoryCache(boolean enableCaching) {
+        return new PriceCache(enableCaching,
+                Integer.getInteger("elpriser.cache.maxEntries", PriceCache.DEFAULT_MAX_ENTRIES),
+                PriceCache.DEFAULT_FRESH_TTL, PriceCache.DEFAULT_NEGATIVE_TTL);
     }
 
     /**
@@ -128,7 +228,7 @@ public final class ElpriserAPI {
             LocalDate datum = LocalDate.parse(datumStr, DateTimeFormatter.ISO_LOCAL_DATE);
             return getPriser(datum, prisklass);
         } catch (Exception e) {
-            System.err.println("Ogiltigt datumformat. Använd YYYY-MM-DD. Fel: " + e.getMessage());
+            Log.warning("Ogiltigt datumformat. Använd YYYY-MM-DD. Fel: " + e.getMessage());
             return Collections.emptyList();
         }
     }
@@ -141,163 +241,212 @@ public final class ElpriserAPI {
      * @return En lista av {@link Elpris}-objekt, eller en tom lista om data inte kunde hämtas.
      */
     public List<Elpris> getPriser(LocalDate datum, Prisklass prisklass) {
-        String cacheKey = getCacheKey(datum, prisklass);
+        long cacheKey = PriceCache.key(datum, prisklass);
 
-        // Steg 1: Kolla minnes-cachen
-        if (cachingEnabled && inMemoryCache.containsKey(cacheKey)) {
-            System.out.println("Hämtar från minnes-cache för " + cacheKey);
-            return inMemoryCache.get(cacheKey);
+        // Steg 1: Kolla minnes-cachen. En träff skapar inga objekt
+        List<Elpris> cached = inMemoryCache.getIfPresent(cacheKey);
+        if (cached != null) {
+            return cached;
         }
 
-        // Steg 2: Försök ladda från disk-cache (framtida implementation)
-        var priserFrånDisk = loadFromDiskCache(cacheKey);
-        if (cachingEnabled && priserFrånDisk != null && !priserFrånDisk.isEmpty()) {
-             System.out.println("Hämtar från disk-cache för " + cacheKey);
-             inMemoryCache.put(cacheKey, priserFrånDisk); // Lägg i minnes-cachen för snabbare åtkomst nästa gång
-             return priserFrånDisk;
-        }
+        // Steg 2-3: Ladda från disk eller nätverket i den här tråden, eller vänta på en pågående laddning
+        return inMemoryCache.get(cacheKey, () -> CompletableFuture.completedFuture(load(datum, prisklass)),
+                stale -> revalidate(datum, prisklass, stale)).join();
+    }
 
-        // Check for a mock response before making a network call ---
-        if (mockResponseSupplier != null || !datedMockResponses.isEmpty()) {
-            System.out.println("!!! ANVÄNDER MOCK-DATA FÖR TEST !!!");
-            String mockJson = datedMockResponses.getOrDefault(datum, mockResponseSupplier == null ? null : mockResponseSupplier.get());
-            if (mockJson == null || mockJson.isBlank()) {
-                return Collections.emptyList();
-            }
-            List<Elpris> priser = parseSimpleJson(mockJson);
-            if (cachingEnabled && !priser.isEmpty()) {
-                inMemoryCache.put(cacheKey, priser);
-            }
-            return priser;
+    /**
+     * Hämtar elpriser asynkront för ett specifikt datum och prisklass utan att blockera anropande tråd.
+     * Använder samma minnes-cache som {@link #getPriser(LocalDate, Prisklass)}. Samtidiga anrop för
+     * samma datum och prisklass delar på en och samma nätverkshämtning.
+     *
+     * @param datum Ett {@link LocalDate}-objekt som representerar dagen att hämta priser för.
+     * @param prisklass Elprisområdet (SE1, SE2, SE3 eller SE4).
+     * @return En framtid som fullbordas med en lista av {@link Elpris}-objekt, eller en tom lista om
+     *         data inte kunde hämtas. Framtiden fullbordas aldrig med ett undantag.
+     */
+    public CompletableFuture<List<Elpris>> getPriserAsync(LocalDate datum, Prisklass prisklass) {
+        long cacheKey = PriceCache.key(datum, prisklass);
+
+        List<Elpris> cached = inMemoryCache.getIfPresent(cacheKey);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
         }
-        // --- End of mock check ---
+        return inMemoryCache.get(cacheKey, () -> loadAsync(datum, prisklass), stale -> revalidate(datum, prisklass, stale));
+    }
 
-        // Steg 3: Hämta från nätverket om det inte finns i cachen
-        System.out.println("Hämtar från nätverket för " + cacheKey);
-        String url = buildUrl(datum, prisklass);
-        try {
-            HttpRequest request = HttpRequest.newBuilder().uri(URI.create(url)).GET().build();
-            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+    /**
+     * Hämtar elpriser för alla dagar från och med {@code from} till och med {@code to} för flera prisklasser.
+     * Dagarna hämtas parallellt med den asynkrona klienten, med högst {@value #DEFAULT_MAX_CONCURRENCY}
+     * samtidiga hämtningar.
+     *
+     * @param from Första dagen att hämta priser för.
+     * @param to Sista dagen att hämta priser för.
+     * @param prisklasser Elprisområdena att hämta priser för.
+     * @return En lista per prisklass med alla priser i intervallet sorterade på starttid. Dagar som
+     *         saknar priser hoppas över.
+     * @throws CancellationException om tråden avbryts innan alla hämtningar har startats, se
+     *         {@link #getPriser(LocalDate, LocalDate, Set, int)}.
+     */
+    public Map<Prisklass, List<Elpris>> getPriser(LocalDate from, LocalDate to, Set<Prisklass> prisklasser) {
+        return getPriser(from, to, prisklasser, DEFAULT_MAX_CONCURRENCY);
+    }
 
-            // Om sidan inte finns (t.ex. priser för morgondagen) returneras 404
-            if (response.statusCode() == 404) {
-                System.out.println("Inga priser hittades för " + cacheKey + " (HTTP 404).");
-                return Collections.emptyList();
-            }
-            if (response.statusCode() != 200) {
-                 System.err.println("Misslyckades med att hämta priser. Statuskod: " + response.statusCode());
-                 return Collections.emptyList();
+    /**
+     * Hämtar elpriser för alla dagar från och med {@code from} till och med {@code to} för flera prisklasser,
+     * med högst {@code maxConcurrency} samtidiga hämtningar.
+     * <p>
+     * Avbryts tråden medan den väntar på en ledig hämtning returneras inget resultat alls, eftersom
+     * det skulle sakna hela prisklasser. Hämtningar som redan har startats avbryts inte, de kan delas
+     * med andra anrop och sparas i minnes-cachen när de blir klara.
+     *
+     * @throws CancellationException om tråden avbryts innan alla hämtningar har startats. Trådens
+     *         avbrottsflagga är då satt.
+     * @see #getPriser(LocalDate, LocalDate, Set)
+     */
+    public Map<Prisklass, List<Elpris>> getPriser(LocalDate from, LocalDate to, Set<Prisklass> prisklasser, int maxConcurrency) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("maxConcurrency måste vara minst 1");
+        }
+        Map<Prisklass, List<CompletableFuture<List<Elpris>>>> pending = new EnumMap<>(Prisklass.class);
+        Semaphore permits = new Semaphore(maxConcurrency);
+        try {
+            for (Prisklass prisklass : prisklasser) {
+                List<CompletableFuture<List<Elpris>>> days = new ArrayList<>();
+                for (LocalDate datum = from; !datum.isAfter(to); datum = datum.plusDays(1)) {
+                    permits.acquire();
+                    CompletableFuture<List<Elpris>> day = getPriserAsync(datum, prisklass);
+                    day.whenComplete((priser, e) -> permits.release());
+                    days.add(day);
+                }
+                pending.put(prisklass, days);
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            CancellationException avbruten = new CancellationException("Hämtningen av elpriser avbröts");
+            avbruten.initCause(e);
+            throw avbruten;
+        }
 
-            List<Elpris> priser = parseSimpleJson(response.body());
-
-            // Steg 4: Spara i cache om cachning är på
-            if (cachingEnabled && !priser.isEmpty()) {
-                inMemoryCache.put(cacheKey, priser);
-                saveToDiskCache(cacheKey, response.body()); // Spara rådata till disk (framtida implementation)
+        Map<Prisklass, List<Elpris>> result = new EnumMap<>(Prisklass.class);
+        for (Map.Entry<Prisklass, List<CompletableFuture<List<Elpris>>>> entry : pending.entrySet()) {
+            List<Elpris> priser = new ArrayList<>();
+            for (CompletableFuture<List<Elpris>> day : entry.getValue()) {
+                priser.addAll(day.join());
             }
-            return priser;
-
-        } catch (IOException | InterruptedException e) {
-            System.err.println("Ett fel inträffade vid hämtning av elpriser: " + e.getMessage());
-            // I ett produktionssystem skulle man vilja logga detta fel mer utförligt
-            Thread.currentThread().interrupt(); // Bra praxis vid InterruptedException
-            return Collections.emptyList();
+            priser.sort(Comparator.comparing(Elpris::timeStart));
+            result.put(entry.getKey(), priser);
         }
+        return result;
     }
 
-    // --- Privata hjälpmetoder ---
-
-    private String buildUrl(LocalDate datum, Prisklass prisklass) {
-        String formattedDate = datum.format(URL_DATE_FORMATTER);
-        return String.format("%s/%s_%s.json", API_BASE_URL, formattedDate, prisklass.name());
-    }
-    
-    private String getCacheKey(LocalDate datum, Prisklass prisklass) {
-        return datum.format(DateTimeFormatter.ISO_LOCAL_DATE) + "_" + prisklass.name();
+    /**
+     * Startar en {@link PrefetchScheduler} som hämtar morgondagens priser för alla prisklasser så snart
+     * de publiceras och lägger dem i minnes- och disk-cachen.
+     *
+     * @return schemaläggaren, som stängs med {@link PrefetchScheduler#close()}.
+     */
+    public PrefetchScheduler startPrefetch() {
+        return PrefetchScheduler.start(this);
     }
 
     /**
-     * En mycket enkel JSON-parser som är skräddarsydd för just detta API:s svarsformat.
-     * Denna metod är inte en generell JSON-parser och är känslig för ändringar i formatet.
+     * Laddar priser förbi minnes-cachen, från källan, och sparar dem i minnes-cachen om
+     * några hittades. Ett tidigare tomt resultat i cachen ersätts alltså så snart priserna finns.
+     *
+     * @return priserna, eller en tom lista om de ännu inte finns eller inte kunde hämtas.
      */
-    private List<Elpris> parseSimpleJson(String json) {
-        List<Elpris> priser = new ArrayList<>();
-        // Ta bort yttre [ och ], samt eventuella blanksteg
-        String trimmedJson = json.trim();
-        if (!trimmedJson.startsWith("[") || !trimmedJson.endsWith("]")) {
+    List<Elpris> refresh(LocalDate datum, Prisklass prisklass) {
+        List<Elpris> priser;
+        try {
+            priser = load(datum, prisklass);
+        } catch (RuntimeException e) {
+            Log.warning("Ett fel inträffade vid hämtning av elpriser för " + datum + "_" + prisklass.name() + ": " + e.getMessage());
             return Collections.emptyList();
         }
-        String content = trimmedJson.substring(1, trimmedJson.length() - 1).trim();
-        if (content.isEmpty()) {
-            return Collections.emptyList();
+        if (!priser.isEmpty()) {
+            inMemoryCache.put(PriceCache.key(datum, prisklass), priser);
         }
+        return priser;
+    }
 
-        // Dela upp i enskilda JSON-objekt
-        String[] objects = content.split("}\\s*,\\s*\\{");
-
-        for (String objStr : objects) {
-            // Rensa bort resterande { och }
-            String cleanObjStr = objStr.replace("{", "").replace("}", "");
-            
-            try {
-                // Skapa en temporär map för att hålla värdena för ett objekt
-                Map<String, String> valueMap = new java.util.HashMap<>();
-                String[] pairs = cleanObjStr.split(",");
-                for (String pair : pairs) {
-                    String[] keyValue = pair.split(":", 2);
-                    String key = keyValue[0].trim().replace("\"", "");
-                    String value = keyValue[1].trim().replace("\"", "");
-                    valueMap.put(key, value);
-                }
+    /**
+     * @return räknare för träffar, missar och borttagningar i minnes-cachen.
+     */
+    public CacheStats getCacheStats() {
+        return inMemoryCache.stats();
+    }
 
-                // Skapa ett Elpris-objekt från värdena i mappen
-                priser.add(new Elpris(
-                    Double.parseDouble(valueMap.get("SEK_per_kWh")),
-                    Double.parseDouble(valueMap.get("EUR_per_kWh")),
-                    Double.parseDouble(valueMap.get("EXR")),
-                    ZonedDateTime.parse(valueMap.get("time_start")),
-                    ZonedDateTime.parse(valueMap.get("time_end"))
-                ));
-            } catch (Exception e) {
-                // Hoppa över objekt som inte kan parsas, logga ett fel
-                System.err.println("Kunde inte tolka ett elpris-objekt: " + cleanObjStr + " - Fel: " + e.getMessage());
-            }
-        }
-        return priser;
+    /**
+     * @return räknare och tider för alla nivåer, från minnes-cachen till nätverket.
+     */
+    public ElpriserMetrics getMetrics() {
+        return metrics;
     }
-    
-    // --- Stub-metoder för disk-cache ---
-    
+
     /**
-     * STUB: Spara data till en fil i en dold katalog i användarens hemkatalog.
-     * Oimplementerad tills vidare.
+     * Laddar priser från källan. Anropas av minnes-cachen vid en miss.
      */
-    private void saveToDiskCache(String cacheKey, String jsonData) {
-        // Framtida implementation:
-        // Path cacheDir = Paths.get(System.getProperty("user.home"), ".elpriser_cache");
-        // Files.createDirectories(cacheDir);
-        // Path cacheFile = cacheDir.resolve(cacheKey + ".json");
-        // Files.writeString(cacheFile, jsonData);
-        // System.out.println("Simulerar: Sparar " + cacheKey + " till disk.");
+    private List<Elpris> load(LocalDate datum, Prisklass prisklass) {
+        List<Elpris> priser = source.fetch(datum, prisklass);
+        return priser != null ? priser : Collections.emptyList();
     }
 
     /**
-     * STUB: Läs data från en fil i en dold katalog i användarens hemkatalog.
-     * Oimplementerad tills vidare.
-     * @return En lista av Elpris-objekt om filen finns och kan läsas, annars null.
+     * Som {@link #load} men laddar utan att blockera, t.ex. med den asynkrona klienten.
      */
-    private List<Elpris> loadFromDiskCache(String cacheKey) {
-        // Framtida implementation:
-        // Path cacheFile = Paths.get(System.getProperty("user.home"), ".elpriser_cache", cacheKey + ".json");
-        // if (Files.exists(cacheFile)) {
-        //     String jsonData = Files.readString(cacheFile);
-        //     return parseSimpleJson(jsonData);
-        // }
-        // System.out.println("Simulerar: Försöker läsa " + cacheKey + " från disk. Fanns ej.");
-        return null;
+    private CompletableFuture<List<Elpris>> loadAsync(LocalDate datum, Prisklass prisklass) {
+        return source.fetchAsync(datum, prisklass).thenApply(priser -> priser != null ? priser : Collections.emptyList());
     }
 
+    /**
+     * Förnyar utgångna priser för idag eller imorgon med {@link PriceSource#revalidate}. Standardkällan
+     * gör en villkorlig hämtning förbi disk-cachen, och ett 304-svar ger tillbaka {@code stale} utan att
+     * något behöver laddas ned, tolkas eller sparas. Anropas av minnes-cachen.
+     *
+     * @return nya priser eller {@code stale} om de inte har ändrats. Framtiden misslyckas vid fel.
+     */
+    CompletableFuture<List<Elpris>> revalidate(LocalDate datum, Prisklass prisklass, List<Elpris> stale) {
+        return source.revalidate(datum, prisklass, stale);
+    }
+
+    // --- Arkiv ---
+
+    /**
+     * Läser arkiverade priser för alla dagar från och med {@code from} till och med {@code to}
+     * direkt från det binära arkivet, utan nätverksanrop. Dagar som saknas i arkivet hoppas över.
+     *
+     * @return En {@link PriceSeries} i datumordning, tom om arkivet saknas eller inte kunde läsas.
+     */
+    public PriceSeries getArkiveradePriser(LocalDate from, LocalDate to, Prisklass prisklass) {
+        return archive.read(from, to, prisklass);
+    }
+
+    /**
+     * Returnerar en kopieringsfri vy över arkiverade priser från och med {@code from} till och med
+     * {@code to}. Vyn läser direkt ur en minnesmappad arkivfil och skapar inga {@link Elpris}-objekt,
+     * vilket gör den lämplig för analys av flera års historik.
+     *
+     * @return En vy i datumordning, eller null om arkivet saknas eller inte kunde läsas.
+     */
+    public MappedPriceArchive.View getArkivVy(LocalDate from, LocalDate to, Prisklass prisklass) {
+        PriceArchive arkiv = archive.archive(prisklass);
+        if (arkiv == null || !Files.isRegularFile(arkiv.file())) {
+            return null;
+        }
+        try {
+            synchronized (mappedArchives) {
+                MappedPriceArchive mapped = mappedArchives.get(prisklass);
+                if (mapped == null || mapped.mappedSize() != Files.size(arkiv.file())) {
+                    mapped = MappedPriceArchive.open(arkiv.file());
+                    mappedArchives.put(prisklass, mapped);
+                }
+                return mapped.range(from, to);
+            }
+        } catch (IOException e) {
+            Log.warning("Kunde inte mappa prisarkivet för " + prisklass + ": " + e.getMessage());
+            return null;
+        }
+    }
 
     // --- Exempel på användning ---
 
@@ -306,7 +455,7 @@ public final class ElpriserAPI {
         ElpriserAPI api = new ElpriserAPI(); // Cachning är på som standard
 
         // Hämta dagens priser för SE3 med LocalDate
-        LocalDate idag = LocalDate.now();
+        LocalDate idag = LocalDate.now(PriceSeries.ZONE);
         List<Elpris> dagensPriser = api.getPriser(idag, Prisklass.SE3);
 
         if (dagensPriser.isEmpty()) {
@@ -324,6 +473,7 @@ public final class ElpriserAPI {
         // Anropa igen för samma dag, bör nu komma från cachen
         System.out.println("\n--- Anropar igen för samma dag ---");
         api.getPriser(idag, Prisklass.SE3);
+        System.out.println("Träffar i minnes-cachen: " + api.getCacheStats().hits());
 
         // Hämta priser för en annan dag med sträng-metoden
         System.out.println("\n--- Hämtar priser för 2025-09-15 i SE4 ---");
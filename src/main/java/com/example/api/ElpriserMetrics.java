@@ -0,0 +1,286 @@
+package com.example.api;
+
+import javax.management.JMException;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Räknare och tider för en {@link ElpriserAPI}, från {@link ElpriserAPI#getMetrics()}.
+ * <p>
+ * Uppslagen räknas per nivå: minnes-cachen, arkivet med passerade dagar, disk-cachen, mock-data och
+ * nätverket. För nätverket räknas svar per statuskod, fel, nya försök, villkorliga förfrågningar
+ * och anrop som kretsbrytaren avvisat, och tiden för varje försök sparas i ett
+ * {@link LatencyHistogram}, liksom tiden för att tolka varje svar. Alla räknare är trådsäkra och
+ * uppdateras utan lås.
+ * <p>
+ * Mätvärdena kan läsas direkt, över JMX efter {@link #register()} och som JFR-händelserna
+ * {@code com.example.api.Fetch} och {@code com.example.api.Parse} under en inspelning.
+ */
+public final class ElpriserMetrics implements ElpriserMetricsMXBean {
+
+    private static final AtomicInteger INSTANCES = new AtomicInteger();
+
+    private final Supplier<CacheStats> cacheStats;
+    private final Supplier<CircuitBreaker.State> circuitState;
+    private final ObjectName name;
+
+    private final LongAdder archiveHits = new LongAdder();
+    private final LongAdder diskHits = new LongAdder();
+    private final LongAdder diskMisses = new LongAdder();
+    private final LongAdder mockResponses = new LongAdder();
+    private final LongAdder httpErrors = new LongAdder();
+    private final LongAdder httpRetries = new LongAdder();
+    private final LongAdder conditionalRequests = new LongAdder();
+    private final LongAdder circuitRejections = new LongAdder();
+    private final AtomicLongArray httpStatus = new AtomicLongArray(600);
+    private final LongAdder rowsParsed = new LongAdder();
+    private final LatencyHistogram fetchLatency = new LatencyHistogram();
+    private final LatencyHistogram parseTime = new LatencyHistogram();
+
+    ElpriserMetrics(Supplier<CacheStats> cacheStats, Supplier<CircuitBreaker.State> circuitState) {
+        this.cacheStats = cacheStats;
+        this.circuitState = circuitState;
+        try {
+            this.name = new ObjectName("com.example.api:type=ElpriserAPI,id=" + INSTANCES.incrementAndGet());
+        } catch (MalformedObjectNameException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // --- Uppdateras av ElpriserAPI ---
+
+    void archiveHit() {
+        archiveHits.increment();
+    }
+
+    void diskHit() {
+        diskHits.increment();
+    }
+
+    void diskMiss() {
+        diskMisses.increment();
+    }
+
+    void mockResponse() {
+        mockResponses.increment();
+    }
+
+    void httpResponse(int status, long nanos) {
+        if (status >= 0 && status < httpStatus.length()) {
+            httpStatus.incrementAndGet(status);
+        }
+        fetchLatency.record(nanos);
+    }
+
+    void httpError(long nanos) {
+        httpErrors.increment();
+        fetchLatency.record(nanos);
+    }
+
+    void retry() {
+        httpRetries.increment();
+    }
+
+    void conditionalRequest() {
+        conditionalRequests.increment();
+    }
+
+    void circuitOpen() {
+        circuitRejections.increment();
+    }
+
+    /**
+     * Tolkar API:ts svarsformat i UTF-8 med den strömmande {@link ElprisJsonParser} och räknar tid och
+     * rader, även som en JFR-händelse. Objekt som inte kan tolkas hoppas över.
+     */
+    List<ElpriserAPI.Elpris> parse(byte[] json) {
+        ParseEvent event = new ParseEvent();
+        event.begin();
+        long start = System.nanoTime();
+        List<ElpriserAPI.Elpris> priser = ElprisJsonParser.parse(json);
+        rowsParsed.add(priser.size());
+        parseTime.record(System.nanoTime() - start);
+        event.end();
+        if (event.shouldCommit()) {
+            event.bytes = json.length;
+            event.rows = priser.size();
+            event.commit();
+        }
+        return priser;
+    }
+
+    // --- JMX ---
+
+    /**
+     * Registrerar mätvärdena i plattformens MBean-server som {@code com.example.api:type=ElpriserAPI,id=N}.
+     *
+     * @return namnet, eller null om registreringen misslyckades, t.ex. för att den redan är gjord.
+     */
+    public ObjectName register() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+            return name;
+        } catch (JMException e) {
+            Log.warning("Kunde inte registrera mätvärden i JMX: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Tar bort registreringen från {@link #register()}, om den finns.
+     */
+    public void unregister() {
+        try {
+            if (ManagementFactory.getPlatformMBeanServer().isRegistered(name)) {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+            }
+        } catch (JMException e) {
+            Log.warning("Kunde inte avregistrera mätvärden i JMX: " + e.getMessage());
+        }
+    }
+
+    // --- Avläsning ---
+
+    /**
+     * @return tiden för varje försök mot nätverket, från anrop till mottaget svar eller fel.
+     */
+    public LatencyHistogram fetchLatency() {
+        return fetchLatency;
+    }
+
+    /**
+     * @return tiden för att tolka varje JSON-svar, från nätverket eller disk-cachen.
+     */
+    public LatencyHistogram parseTime() {
+        return parseTime;
+    }
+
+    @Override
+    public long getMemoryHits() {
+        return cacheStats.get().hits();
+    }
+
+    @Override
+    public long getMemoryMisses() {
+        return cacheStats.get().misses();
+    }
+
+    @Override
+    public long getStaleHits() {
+        return cacheStats.get().staleHits();
+    }
+
+    @Override
+    public long getArchiveHits() {
+        return archiveHits.sum();
+    }
+
+    @Override
+    public long getDiskHits() {
+        return diskHits.sum();
+    }
+
+    @Override
+    public long getDiskMisses() {
+        return diskMisses.sum();
+    }
+
+    @Override
+    public long getMockResponses() {
+        return mockResponses.sum();
+    }
+
+    @Override
+    public long getHttpRequests() {
+        long requests = httpErrors.sum();
+        for (int i = 0; i < httpStatus.length(); i++) {
+            requests += httpStatus.get(i);
+        }
+        return requests;
+    }
+
+    @Override
+    public long getHttpErrors() {
+        return httpErrors.sum();
+    }
+
+    @Override
+    public long getHttpRetries() {
+        return httpRetries.sum();
+    }
+
+    @Override
+    public long getConditionalRequests() {
+        return conditionalRequests.sum();
+    }
+
+    @Override
+    public long getCircuitBreakerRejections() {
+        return circuitRejections.sum();
+    }
+
+    @Override
+    public String getCircuitBreakerState() {
+        return circuitState.get().name();
+    }
+
+    @Override
+    public Map<Integer, Long> getHttpStatusCounts() {
+        Map<Integer, Long> counts = new TreeMap<>();
+        for (int i = 0; i < httpStatus.length(); i++) {
+            long count = httpStatus.get(i);
+            if (count > 0) {
+                counts.put(i, count);
+            }
+        }
+        return counts;
+    }
+
+    @Override
+    public double getFetchLatencyMeanMillis() {
+        return fetchLatency.mean() / 1e6;
+    }
+
+    @Override
+    public double getFetchLatencyP50Millis() {
+        return fetchLatency.percentile(50) / 1e6;
+    }
+
+    @Override
+    public double getFetchLatencyP99Millis() {
+        return fetchLatency.percentile(99) / 1e6;
+    }
+
+    @Override
+    public double getFetchLatencyMaxMillis() {
+        return fetchLatency.max() / 1e6;
+    }
+
+    @Override
+    public long getParseCount() {
+        return parseTime.count();
+    }
+
+    @Override
+    public long getRowsParsed() {
+        return rowsParsed.sum();
+    }
+
+    @Override
+    public double getParseTimeMeanMicros() {
+        return parseTime.mean() / 1e3;
+    }
+
+    @Override
+    public double getParseTimeP99Micros() {
+        return parseTime.percentile(99) / 1e3;
+    }
+}
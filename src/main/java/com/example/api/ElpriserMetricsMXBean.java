@@ -0,0 +1,67 @@
+package com.example.api;
+
+import java.util.Map;
+
+/**
+ * JMX-vyn av {@link ElpriserMetrics}. Tider anges i millisekunder för hämtningar och i mikrosekunder
+ * för tolkning.
+ */
+public interface ElpriserMetricsMXBean {
+
+    long getMemoryHits();
+
+    long getMemoryMisses();
+
+    /**
+     * @return antal träffar som gav ett utgånget resultat medan det hämtades på nytt
+     */
+    long getStaleHits();
+
+    long getArchiveHits();
+
+    long getDiskHits();
+
+    long getDiskMisses();
+
+    long getMockResponses();
+
+    long getHttpRequests();
+
+    long getHttpErrors();
+
+    long getHttpRetries();
+
+    /**
+     * @return antal förfrågningar som skickades med validerare, se statuskod 304 för hur många som inte
+     *         behövde hämta om svaret
+     */
+    long getConditionalRequests();
+
+    long getCircuitBreakerRejections();
+
+    /**
+     * @return CLOSED, OPEN eller HALF_OPEN
+     */
+    String getCircuitBreakerState();
+
+    /**
+     * @return antal svar per HTTP-statuskod
+     */
+    Map<Integer, Long> getHttpStatusCounts();
+
+    double getFetchLatencyMeanMillis();
+
+    double getFetchLatencyP50Millis();
+
+    double getFetchLatencyP99Millis();
+
+    double getFetchLatencyMaxMillis();
+
+    long getParseCount();
+
+    long getRowsParsed();
+
+    double getParseTimeMeanMicros();
+
+    double getParseTimeP99Micros();
+}
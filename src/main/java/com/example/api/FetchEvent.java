@@ -0,0 +1,72 @@
+package com.example.api;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * JFR-händelse för en laddning förbi minnes-cachen, från arkivet, disk-cachen, mock-data eller nätverket.
+ * Skickas av de inbyggda {@link PriceSource}-implementationerna för varje laddning de besvarar.
+ * Kostar nästan ingenting när ingen inspelning pågår.
+ */
+@Name("com.example.api.Fetch")
+@Label("Elpriser: hämtning")
+@Category("Elpriser")
+@Description("Laddning av en dags priser för en prisklass vid en miss i minnes-cachen")
+@StackTrace(false)
+final class FetchEvent extends jdk.jfr.Event {
+
+    static final String ARCHIVE = "arkiv";
+    static final String DISK = "disk";
+    static final String MOCK = "mock";
+    static final String NETWORK = "nätverk";
+
+    @Label("Datum")
+    String date;
+
+    @Label("Prisklass")
+    String zone;
+
+    @Label("Källa")
+    String source;
+
+    @Label("HTTP-status")
+    @Description("0 om priserna inte hämtades från nätverket eller om anropet misslyckades")
+    int status;
+
+    @Label("Rader")
+    int rows;
+
+    /**
+     * Startar en händelse för en laddning från {@code source}.
+     */
+    static FetchEvent begin(LocalDate datum, ElpriserAPI.Prisklass prisklass, String source) {
+        FetchEvent event = new FetchEvent();
+        if (event.isEnabled()) {
+            event.date = datum.toString();
+            event.zone = prisklass.name();
+            event.source = source;
+        }
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Avslutar och skickar händelsen med antalet rader.
+     *
+     * @return {@code priser}, så att anropet kan avsluta en laddning
+     */
+    List<ElpriserAPI.Elpris> end(List<ElpriserAPI.Elpris> priser) {
+        end();
+        if (shouldCommit()) {
+            rows = priser == null ? 0 : priser.size();
+            commit();
+        }
+        return priser;
+    }
+}
@@ -0,0 +1,227 @@
+package com.example.api;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Hämtar från API:t med timeouts, ett begränsat antal nya försök och en {@link CircuitBreaker}.
+ * <p>
+ * Fel, timeouts och svar med status 5xx eller 429 räknas som misslyckade och görs om upp till
+ * {@link HttpSettings#maxRetries()} gånger. Före varje nytt försök väntar hämtaren en slumpad tid mellan
+ * 0 och en gräns som fördubblas för varje försök ("full jitter"), så att många klienter inte försöker
+ * igen i takt. Andra svar, t.ex. 404 för priser som inte publicerats, returneras direkt. När
+ * kretsbrytaren är öppen misslyckas anrop direkt med ett {@link IOException}.
+ * <p>
+ * Svar begärs komprimerade med gzip eller deflate och lämnas som en ström, som {@link #readBody} packar
+ * upp medan den läses. Med {@link HttpValidators} blir förfrågan villkorlig och servern kan svara 304.
+ */
+final class HttpFetcher {
+
+    // Komprimeringar som readBody kan packa upp. Brotli saknas i JDK:n och begärs därför inte
+    private static final String ACCEPT_ENCODING = "gzip, deflate";
+
+    private final HttpClient client;
+    private final HttpSettings settings;
+    private final CircuitBreaker breaker;
+    private final ElpriserMetrics metrics;
+
+    HttpFetcher(HttpSettings settings, CircuitBreaker breaker, ElpriserMetrics metrics) {
+        // HTTP/2 så att parallella hämtningar av flera dagar delar på en anslutning
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .connectTimeout(settings.connectTimeout())
+                .build();
+        this.settings = settings;
+        this.breaker = breaker;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Hämtar en adress och gör om misslyckade försök.
+     *
+     * @return det sista svaret, som kan ha status 5xx om alla försök misslyckades. Anroparen ska läsa
+     *         kroppen med {@link #readBody} eller stänga den med {@link #discard}.
+     * @throws IOException om det sista försöket misslyckades eller kretsbrytaren är öppen.
+     */
+    HttpResponse<InputStream> send(URI uri) throws IOException, InterruptedException {
+        return send(uri, HttpValidators.NONE);
+    }
+
+    /**
+     * Som {@link #send(URI)} men villkorlig: har innehållet inte ändrats sedan {@code validators} svarar
+     * servern 304 utan kropp.
+     */
+    HttpResponse<InputStream> send(URI uri, HttpValidators validators) throws IOException, InterruptedException {
+        for (int attempt = 0; ; attempt++) {
+            acquire(uri);
+            long sent = System.nanoTime();
+            try {
+                HttpResponse<InputStream> response = client.send(request(uri, validators), HttpResponse.BodyHandlers.ofInputStream());
+                if (!completed(response, sent) && attempt < settings.maxRetries()) {
+                    discard(response);
+                    retryAfter(attempt);
+                    continue;
+                }
+                return response;
+            } catch (IOException e) {
+                failed(sent);
+                if (attempt >= settings.maxRetries()) {
+                    throw e;
+                }
+            } catch (InterruptedException e) {
+                breaker.onCancel();
+                throw e;
+            }
+            retryAfter(attempt);
+        }
+    }
+
+    /**
+     * Som {@link #send(URI)} utan att blockera. Väntan före nya försök sker utan att hålla någon tråd.
+     */
+    CompletableFuture<HttpResponse<InputStream>> sendAsync(URI uri) {
+        return sendAsync(uri, HttpValidators.NONE);
+    }
+
+    /**
+     * Som {@link #send(URI, HttpValidators)} utan att blockera.
+     */
+    CompletableFuture<HttpResponse<InputStream>> sendAsync(URI uri, HttpValidators validators) {
+        return sendAsync(uri, validators, 0);
+    }
+
+    private CompletableFuture<HttpResponse<InputStream>> sendAsync(URI uri, HttpValidators validators, int attempt) {
+        try {
+            acquire(uri);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        long sent = System.nanoTime();
+        return client.sendAsync(request(uri, validators), HttpResponse.BodyHandlers.ofInputStream())
+                .handle((response, e) -> {
+                    boolean ok;
+                    if (e != null) {
+                        failed(sent);
+                        ok = false;
+                    } else {
+                        ok = completed(response, sent);
+                    }
+                    if (ok || attempt >= settings.maxRetries()) {
+                        return e != null
+                                ? CompletableFuture.<HttpResponse<InputStream>>failedFuture(unwrap(e))
+                                : CompletableFuture.completedFuture(response);
+                    }
+                    if (response != null) {
+                        discard(response);
+                    }
+                    metrics.retry();
+                    return CompletableFuture.supplyAsync(() -> sendAsync(uri, validators, attempt + 1),
+                                    CompletableFuture.delayedExecutor(backoffNanos(attempt), TimeUnit.NANOSECONDS))
+                            .thenCompose(next -> next);
+                })
+                .thenCompose(result -> result);
+    }
+
+    /**
+     * Läser hela kroppen och packar upp den enligt {@code Content-Encoding} medan den läses. Strömmen
+     * stängs alltid.
+     *
+     * @throws IOException om kroppen inte kunde läsas eller har en okänd komprimering.
+     */
+    static byte[] readBody(HttpResponse<InputStream> response) throws IOException {
+        InputStream body = response.body();
+        try (InputStream in = decoding(response, body)) {
+            return in.readAllBytes();
+        } finally {
+            body.close();
+        }
+    }
+
+    /**
+     * Stänger kroppen på ett svar som inte ska läsas, så att anslutningen kan återanvändas.
+     */
+    static void discard(HttpResponse<InputStream> response) {
+        try {
+            response.body().close();
+        } catch (IOException e) {
+            Log.debug(() -> "Kunde inte stänga svaret från " + response.uri() + ": " + e.getMessage());
+        }
+    }
+
+    private static InputStream decoding(HttpResponse<InputStream> response, InputStream body) throws IOException {
+        String encoding = response.headers().firstValue("Content-Encoding").orElse("").trim().toLowerCase(Locale.ROOT);
+        return switch (encoding) {
+            case "", "identity" -> body;
+            case "gzip", "x-gzip" -> new GZIPInputStream(body, 8192);
+            case "deflate" -> new InflaterInputStream(body);
+            default -> throw new IOException("Okänd Content-Encoding: " + encoding);
+        };
+    }
+
+    private HttpRequest request(URI uri, HttpValidators validators) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri)
+                .timeout(settings.requestTimeout())
+                .header("Accept-Encoding", ACCEPT_ENCODING)
+                .GET();
+        if (!validators.isEmpty()) {
+            validators.addTo(request);
+            metrics.conditionalRequest();
+        }
+        return request.build();
+    }
+
+    private void acquire(URI uri) throws IOException {
+        if (!breaker.tryAcquire()) {
+            metrics.circuitOpen();
+            throw new IOException("Kretsbrytaren är öppen efter upprepade fel, hoppar över " + uri);
+        }
+    }
+
+    /**
+     * @return true om svaret är slutgiltigt, false om anropet ska göras om
+     */
+    private boolean completed(HttpResponse<?> response, long sent) {
+        metrics.httpResponse(response.statusCode(), System.nanoTime() - sent);
+        int status = response.statusCode();
+        if (status >= 500 || status == 429) {
+            breaker.onFailure();
+            return false;
+        }
+        breaker.onSuccess();
+        return true;
+    }
+
+    private void failed(long sent) {
+        metrics.httpError(System.nanoTime() - sent);
+        breaker.onFailure();
+    }
+
+    private void retryAfter(int attempt) throws InterruptedException {
+        metrics.retry();
+        TimeUnit.NANOSECONDS.sleep(backoffNanos(attempt));
+    }
+
+    private long backoffNanos(int attempt) {
+        long limit = settings.initialBackoff().toNanos() << Math.min(attempt, 30);
+        if (limit <= 0 || limit > settings.maxBackoff().toNanos()) {
+            limit = settings.maxBackoff().toNanos();
+        }
+        return ThreadLocalRandom.current().nextLong(limit + 1);
+    }
+
+    private static Throwable unwrap(Throwable e) {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+    }
+}
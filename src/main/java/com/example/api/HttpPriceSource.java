@@ -0,0 +1,243 @@
+package com.example.api;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * En källa som hämtar från API:t med en {@link HttpFetcher} och sparar svaren i ett {@link DiskCache}.
+ * <p>
+ * Disk-cachen frågas före nätverket och får varje svar med priser tillsammans med svarets validerare.
+ * Passerade dagar är slutgiltiga och läses från disk så länge filen finns, men sparas inte där när ett
+ * arkiv tar hand om dem. Idag och imorgon sparas också, så att en omstart inte behöver hämta dem igen,
+ * men räknas bara som färska under {@code freshTtl} efter att filen sparades, samma tid som i
+ * minnes-cachen. En äldre post förnyas med en villkorlig hämtning: ett 304-svar gör posten färsk igen
+ * utan att något laddas ned, och om API:t inte svarar används den sparade posten hellre än inga priser.
+ * <p>
+ * Bara ett 404-svar, t.ex. för morgondagens priser innan de publicerats, ger en tom lista. Nätverksfel,
+ * andra felkoder efter alla försök och svar som inte kan läsas kastas som {@link UncheckedIOException},
+ * eller ger en misslyckad framtid, så att de inte tas för saknade priser.
+ */
+final class HttpPriceSource implements PriceSource {
+
+    private static final DateTimeFormatter URL_DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy/MM-dd");
+
+    private final HttpFetcher fetcher;
+    private final URI baseUrl;
+    private final DiskCache diskCache;
+    private final boolean passedDaysArchived;
+    private final Duration freshTtl;
+    private final ElpriserMetrics metrics;
+
+    /**
+     * @param diskCache disk-cachen för svaren, eller null för att alltid hämta från nätverket.
+     * @param passedDaysArchived true om passerade dagar arkiveras av en annan källa och inte ska sparas här.
+     * @param freshTtl hur länge sparade priser för idag och imorgon används utan att förnyas.
+     */
+    HttpPriceSource(HttpFetcher fetcher, URI baseUrl, DiskCache diskCache, boolean passedDaysArchived, Duration freshTtl,
+                    ElpriserMetrics metrics) {
+        this.fetcher = fetcher;
+        this.baseUrl = baseUrl;
+        this.diskCache = diskCache;
+        this.passedDaysArchived = passedDaysArchived;
+        this.freshTtl = freshTtl;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public List<ElpriserAPI.Elpris> fetch(LocalDate datum, ElpriserAPI.Prisklass prisklass) {
+        String cacheKey = cacheKey(datum, prisklass);
+        DiskCache.Entry sparad = loadFromDisk(cacheKey);
+        if (sparad != null && isFresh(datum, sparad)) {
+            return fromDisk(datum, prisklass, cacheKey, sparad);
+        }
+
+        Log.debug(() -> "Hämtar från nätverket för " + cacheKey);
+        FetchEvent event = FetchEvent.begin(datum, prisklass, FetchEvent.NETWORK);
+        List<ElpriserAPI.Elpris> priser = null;
+        try {
+            HttpResponse<InputStream> response = fetcher.send(buildUri(datum, prisklass), validators(sparad));
+            priser = handleResponse(datum, cacheKey, response, sparad, event);
+            return priser;
+        } catch (IOException | UncheckedIOException e) {
+            UncheckedIOException failure = e instanceof IOException io ? failure(cacheKey, io) : (UncheckedIOException) e;
+            if (sparad == null) {
+                throw failure;
+            }
+            priser = fromStale(cacheKey, sparad, failure);
+            return priser;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); // Bra praxis vid InterruptedException
+            throw failure(cacheKey, new InterruptedIOException("Hämtningen avbröts"));
+        } finally {
+            event.end(priser);
+        }
+    }
+
+    /**
+     * Som {@link #fetch} men hämtar från nätverket med den asynkrona klienten.
+     */
+    @Override
+    public CompletableFuture<List<ElpriserAPI.Elpris>> fetchAsync(LocalDate datum, ElpriserAPI.Prisklass prisklass) {
+        String cacheKey = cacheKey(datum, prisklass);
+        DiskCache.Entry sparad = loadFromDisk(cacheKey);
+        if (sparad != null && isFresh(datum, sparad)) {
+            return CompletableFuture.completedFuture(fromDisk(datum, prisklass, cacheKey, sparad));
+        }
+
+        Log.debug(() -> "Hämtar asynkront från nätverket för " + cacheKey);
+        FetchEvent event = FetchEvent.begin(datum, prisklass, FetchEvent.NETWORK);
+        return fetcher.sendAsync(buildUri(datum, prisklass), validators(sparad))
+                .thenApply(response -> handleResponse(datum, cacheKey, response, sparad, event))
+                .exceptionally(e -> {
+                    if (sparad == null) {
+                        throw e instanceof CompletionException c ? c : new CompletionException(e);
+                    }
+                    return fromStale(cacheKey, sparad, e);
+                })
+                .whenComplete((priser, e) -> event.end(priser));
+    }
+
+    /**
+     * Förnyar priserna från nätverket, förbi disk-cachen. Finns validerare sparade med dagen i disk-cachen
+     * blir hämtningen villkorlig, och ett 304-svar ger tillbaka {@code stale} utan att något behöver
+     * laddas ned, tolkas eller sparas. Vid fel misslyckas framtiden och de gamla priserna får behållas.
+     */
+    @Override
+    public CompletableFuture<List<ElpriserAPI.Elpris>> revalidate(LocalDate datum, ElpriserAPI.Prisklass prisklass,
+                                                                  List<ElpriserAPI.Elpris> stale) {
+        String cacheKey = cacheKey(datum, prisklass);
+        DiskCache.Entry sparad = diskCache == null ? null : diskCache.loadEntry(cacheKey);
+        HttpValidators validators = validators(sparad);
+
+        Log.debug(() -> "Förnyar från nätverket för " + cacheKey + (validators.isEmpty() ? "" : " med " + validators));
+        FetchEvent event = FetchEvent.begin(datum, prisklass, FetchEvent.NETWORK);
+        return fetcher.sendAsync(buildUri(datum, prisklass), validators)
+                .thenApply(response -> {
+                    if (response.statusCode() != 304) {
+                        return handleResponse(datum, cacheKey, response, null, event);
+                    }
+                    notModified(cacheKey, response, event);
+                    return stale;
+                })
+                .whenComplete((priser, e) -> event.end(priser));
+    }
+
+    /**
+     * Läser en post från disk-cachen.
+     * @return posten om filen finns och är hel, annars null.
+     */
+    private DiskCache.Entry loadFromDisk(String cacheKey) {
+        if (diskCache == null) {
+            return null;
+        }
+        DiskCache.Entry sparad = diskCache.loadEntry(cacheKey);
+        if (sparad == null) {
+            metrics.diskMiss();
+        }
+        return sparad;
+    }
+
+    /**
+     * Passerade dagar ändras inte. Idag och imorgon är färska under {@code freshTtl} efter att de sparades.
+     */
+    private boolean isFresh(LocalDate datum, DiskCache.Entry sparad) {
+        return datum.isBefore(LocalDate.now(PriceSeries.ZONE))
+                || (sparad.savedAt() != null && sparad.savedAt().plus(freshTtl).isAfter(Instant.now()));
+    }
+
+    private List<ElpriserAPI.Elpris> fromDisk(LocalDate datum, ElpriserAPI.Prisklass prisklass, String cacheKey,
+                                              DiskCache.Entry sparad) {
+        FetchEvent event = FetchEvent.begin(datum, prisklass, FetchEvent.DISK);
+        metrics.diskHit();
+        Log.debug(() -> "Hämtar från disk-cache för " + cacheKey);
+        return event.end(metrics.parse(sparad.body()));
+    }
+
+    // Priser som har passerat freshTtl används hellre än inga alls när API:t inte svarar
+    private List<ElpriserAPI.Elpris> fromStale(String cacheKey, DiskCache.Entry sparad, Throwable e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        Log.warning("Använder sparade priser för " + cacheKey + " från " + sparad.savedAt() + ": " + cause.getMessage());
+        return metrics.parse(sparad.body());
+    }
+
+    private static HttpValidators validators(DiskCache.Entry sparad) {
+        return sparad == null ? HttpValidators.NONE : sparad.validators();
+    }
+
+    // Ett 304-svar: den sparade posten stämmer fortfarande och räknas som färsk från och med nu
+    private void notModified(String cacheKey, HttpResponse<InputStream> response, FetchEvent event) {
+        event.status = 304;
+        HttpFetcher.discard(response);
+        if (diskCache != null) {
+            diskCache.touch(cacheKey);
+        }
+        Log.debug(() -> "Priserna för " + cacheKey + " har inte ändrats (HTTP 304).");
+    }
+
+    /**
+     * Tolkar ett HTTP-svar och sparar resultatet på disk. Kroppen packas upp och läses direkt som bytes,
+     * utan att först göras om till en sträng.
+     *
+     * @param sparad posten vars validerare skickades med, eller null.
+     * @return priserna, de sparade priserna för ett 304-svar, eller en tom lista för ett 404-svar.
+     * @throws UncheckedIOException för andra felkoder och om kroppen inte kunde läsas.
+     */
+    private List<ElpriserAPI.Elpris> handleResponse(LocalDate datum, String cacheKey, HttpResponse<InputStream> response,
+                                                    DiskCache.Entry sparad, FetchEvent event) {
+        event.status = response.statusCode();
+        if (response.statusCode() == 304 && sparad != null) {
+            notModified(cacheKey, response, event);
+            return metrics.parse(sparad.body());
+        }
+        // Om sidan inte finns (t.ex. priser för morgondagen) returneras 404
+        if (response.statusCode() == 404) {
+            HttpFetcher.discard(response);
+            Log.debug(() -> "Inga priser hittades för " + cacheKey + " (HTTP 404).");
+            return Collections.emptyList();
+        }
+        if (response.statusCode() != 200) {
+            HttpFetcher.discard(response);
+            throw failure(cacheKey, new IOException("Statuskod " + response.statusCode()));
+        }
+
+        byte[] body;
+        try {
+            body = HttpFetcher.readBody(response);
+        } catch (IOException e) {
+            throw failure(cacheKey, e);
+        }
+        List<ElpriserAPI.Elpris> priser = metrics.parse(body);
+
+        // Passerade dagar, vars priser inte längre kan ändras, arkiveras av kedjan i stället
+        boolean archived = passedDaysArchived && datum.isBefore(LocalDate.now(PriceSeries.ZONE));
+        if (diskCache != null && !archived && !priser.isEmpty()) {
+            diskCache.save(cacheKey, body, HttpValidators.from(response.headers()));
+        }
+        return priser;
+    }
+
+    private URI buildUri(LocalDate datum, ElpriserAPI.Prisklass prisklass) {
+        return URI.create(baseUrl + "/" + datum.format(URL_DATE_FORMATTER) + "_" + prisklass.name() + ".json");
+    }
+
+    private static UncheckedIOException failure(String cacheKey, IOException e) {
+        return new UncheckedIOException("Kunde inte hämta elpriser för " + cacheKey + ": " + e.getMessage(), e);
+    }
+
+    // Nyckel för disk-cachen och loggning, t.ex. "2025-08-30_SE3". Skapas bara vid en miss
+    private static String cacheKey(LocalDate datum, ElpriserAPI.Prisklass prisklass) {
+        return datum + "_" + prisklass.name();
+    }
+}
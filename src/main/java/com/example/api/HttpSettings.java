@@ -0,0 +1,65 @@
+package com.example.api;
+
+import java.net.URI;
+import java.time.Duration;
+
+/**
+ * Inställningar för hämtningar från nätverket.
+ *
+ * @param baseUrl adressen som dag och prisklass läggs till, t.ex. {@code .../2025/09-04_SE3.json}
+ * @param connectTimeout längsta tid för att ansluta
+ * @param requestTimeout längsta tid för ett anrop, från skickad förfrågan till mottaget svar
+ * @param maxRetries antal nya försök efter ett fel, en timeout eller ett 5xx- eller 429-svar
+ * @param initialBackoff längsta väntan före första nya försöket, fördubblas för varje försök
+ * @param maxBackoff längsta väntan före ett nytt försök
+ * @param failureThreshold antal misslyckade anrop i rad som öppnar kretsbrytaren
+ * @param openDuration hur länge kretsbrytaren är öppen innan ett provanrop släpps igenom
+ */
+record HttpSettings(URI baseUrl, Duration connectTimeout, Duration requestTimeout, int maxRetries,
+                    Duration initialBackoff, Duration maxBackoff, int failureThreshold, Duration openDuration) {
+
+    static final URI DEFAULT_BASE_URL = URI.create("https://www.elprisetjustnu.se/api/v1/prices");
+
+    HttpSettings {
+        if (baseUrl == null) {
+            throw new IllegalArgumentException("baseUrl saknas");
+        }
+        requirePositive(connectTimeout, "connectTimeout");
+        requirePositive(requestTimeout, "requestTimeout");
+        requirePositive(initialBackoff, "initialBackoff");
+        requirePositive(maxBackoff, "maxBackoff");
+        requirePositive(openDuration, "openDuration");
+        if (maxRetries < 0) {
+            throw new IllegalArgumentException("maxRetries får inte vara negativt: " + maxRetries);
+        }
+        if (failureThreshold < 1) {
+            throw new IllegalArgumentException("failureThreshold måste vara minst 1: " + failureThreshold);
+        }
+    }
+
+    /**
+     * Skapar inställningar med standardvärden. Varje värde kan styras med en systemegenskap:
+     * {@code elpriser.http.baseUrl}, {@code elpriser.http.connectTimeoutMs} (5000),
+     * {@code elpriser.http.requestTimeoutMs} (10000), {@code elpriser.http.maxRetries} (2),
+     * {@code elpriser.http.backoffMs} (200), {@code elpriser.http.maxBackoffMs} (5000),
+     * {@code elpriser.http.failureThreshold} (5) och {@code elpriser.http.openMs} (30000).
+     */
+    static HttpSettings defaults() {
+        String baseUrl = System.getProperty("elpriser.http.baseUrl");
+        return new HttpSettings(
+                baseUrl != null ? URI.create(baseUrl) : DEFAULT_BASE_URL,
+                Duration.ofMillis(Long.getLong("elpriser.http.connectTimeoutMs", 5_000)),
+                Duration.ofMillis(Long.getLong("elpriser.http.requestTimeoutMs", 10_000)),
+                Integer.getInteger("elpriser.http.maxRetries", 2),
+                Duration.ofMillis(Long.getLong("elpriser.http.backoffMs", 200)),
+                Duration.ofMillis(Long.getLong("elpriser.http.maxBackoffMs", 5_000)),
+                Integer.getInteger("elpriser.http.failureThreshold", 5),
+                Duration.ofMillis(Long.getLong("elpriser.http.openMs", 30_000)));
+    }
+
+    private static void requirePositive(Duration duration, String name) {
+        if (duration == null || duration.isNegative() || duration.isZero()) {
+            throw new IllegalArgumentException(name + " måste vara positiv: " + duration);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.api;
+
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+
+/**
+ * Validerare från ett HTTP-svar. De skickas med nästa hämtning av samma adress som
+ * {@code If-None-Match} och {@code If-Modified-Since}, så att servern kan svara 304 Not Modified i
+ * stället för att skicka hela svaret igen.
+ *
+ * @param etag värdet från {@code ETag}, eller null
+ * @param lastModified tiden från {@code Last-Modified}, eller null
+ */
+record HttpValidators(String etag, Instant lastModified) {
+
+    static final HttpValidators NONE = new HttpValidators(null, null);
+
+    // IMF-fixdate enligt RFC 9110, till skillnad från RFC_1123_DATE_TIME alltid med två siffror för dagen
+    private static final DateTimeFormatter HTTP_DATE =
+            DateTimeFormatter.ofPattern("EEE, dd MMM yyyy HH:mm:ss 'GMT'", Locale.ENGLISH).withZone(ZoneOffset.UTC);
+
+    // Markerar ett saknat värde i disk-cachens rubrikrad
+    private static final String ABSENT = "-";
+
+    static HttpValidators from(HttpHeaders headers) {
+        String etag = headers.firstValue("ETag").filter(HttpValidators::isValidEtag).orElse(null);
+        Instant lastModified = headers.firstValue("Last-Modified").map(HttpValidators::parseDate).orElse(null);
+        return etag == null && lastModified == null ? NONE : new HttpValidators(etag, lastModified);
+    }
+
+    boolean isEmpty() {
+        return etag == null && lastModified == null;
+    }
+
+    void addTo(HttpRequest.Builder request) {
+        if (etag != null) {
+            request.header("If-None-Match", etag);
+        }
+        if (lastModified != null) {
+            request.header("If-Modified-Since", HTTP_DATE.format(lastModified));
+        }
+    }
+
+    /**
+     * @return validerarna som två fält utan blanksteg för disk-cachens rubrikrad, t.ex. {@code "abc" 1756936800}.
+     */
+    String format() {
+        return (etag == null ? ABSENT : etag) + " " + (lastModified == null ? ABSENT : lastModified.getEpochSecond());
+    }
+
+    /**
+     * Läser tillbaka fälten från {@link #format()}.
+     *
+     * @throws NumberFormatException om tiden inte kan tolkas
+     */
+    static HttpValidators parse(String etag, String lastModified) {
+        return new HttpValidators(
+                ABSENT.equals(etag) ? null : etag,
+                ABSENT.equals(lastModified) ? null : Instant.ofEpochSecond(Long.parseLong(lastModified)));
+    }
+
+    // En ETag är en citerad sträng utan blanksteg, se RFC 9110 avsnitt 8.8.3
+    private static boolean isValidEtag(String etag) {
+        if (etag.isEmpty() || ABSENT.equals(etag)) {
+            return false;
+        }
+        for (int i = 0; i < etag.length(); i++) {
+            char c = etag.charAt(i);
+            if (c <= ' ' || c > '~') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Instant parseDate(String value) {
+        try {
+            return ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
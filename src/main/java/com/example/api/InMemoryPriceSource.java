@@ -0,0 +1,63 @@
+package com.example.api;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * En källa som lämnar ut priser ur minnet, utan nätverk och utan att tolka något vid hämtningen.
+ * <p>
+ * Avsedd för tester, last- och prestandatester: varje instans har sin egen data, till skillnad från
+ * {@link ElpriserAPI#setMockResponse(String)}, och kan användas från flera trådar samtidigt. Som första
+ * nivå i en {@link TieredPriceSource} sparar den priser som senare nivåer hittar.
+ */
+public final class InMemoryPriceSource implements PriceSource {
+
+    // Nycklar som i minnes-cachen, se PriceCache.key
+    private final ConcurrentHashMap<Long, List<ElpriserAPI.Elpris>> priser = new ConcurrentHashMap<>();
+
+    /**
+     * Lägger till eller ersätter priserna för en dag och prisklass.
+     *
+     * @return källan, så att flera anrop kan kedjas
+     */
+    public InMemoryPriceSource put(LocalDate datum, ElpriserAPI.Prisklass prisklass, List<ElpriserAPI.Elpris> priser) {
+        this.priser.put(PriceCache.key(datum, prisklass), List.copyOf(priser));
+        return this;
+    }
+
+    /**
+     * Tolkar ett svar i API:ts format en gång och lägger till priserna för en dag och prisklass.
+     *
+     * @return källan, så att flera anrop kan kedjas
+     */
+    public InMemoryPriceSource putJson(LocalDate datum, ElpriserAPI.Prisklass prisklass, String json) {
+        return put(datum, prisklass, ElprisJsonParser.parse(json.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Tar bort priserna för en dag och prisklass, så att källan svarar null för dem igen.
+     */
+    public void remove(LocalDate datum, ElpriserAPI.Prisklass prisklass) {
+        priser.remove(PriceCache.key(datum, prisklass));
+    }
+
+    public void clear() {
+        priser.clear();
+    }
+
+    public int size() {
+        return priser.size();
+    }
+
+    @Override
+    public List<ElpriserAPI.Elpris> fetch(LocalDate datum, ElpriserAPI.Prisklass prisklass) {
+        return priser.get(PriceCache.key(datum, prisklass));
+    }
+
+    @Override
+    public void store(LocalDate datum, ElpriserAPI.Prisklass prisklass, List<ElpriserAPI.Elpris> priser) {
+        put(datum, prisklass, priser);
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.api;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Ett trådsäkert histogram över tider i nanosekunder, med log-linjära intervall som i HdrHistogram.
+ * <p>
+ * Värden under {@value #SUB_COUNT} ns räknas exakt. Större värden delas först in efter tvåpotens och
+ * sedan i {@value #HALF} lika stora delintervall, så att percentiler har högst ca 3 % relativt fel
+ * oavsett storlek. Histogrammet har en fast storlek och {@link #record(long)} skapar inga objekt.
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BITS = 6;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    private static final int HALF = SUB_COUNT / 2;
+
+    private final AtomicLongArray counts = new AtomicLongArray(SUB_COUNT + (63 - SUB_BITS) * HALF);
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * @param nanos uppmätt tid, negativa värden räknas som 0
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(index(value));
+        sum.add(value);
+        if (value > max.get()) {
+            max.accumulateAndGet(value, Math::max);
+        }
+    }
+
+    /**
+     * @return antal uppmätta tider
+     */
+    public long count() {
+        long count = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            count += counts.get(i);
+        }
+        return count;
+    }
+
+    /**
+     * @return medelvärdet i nanosekunder, 0 om inget har mätts
+     */
+    public double mean() {
+        long count = count();
+        return count == 0 ? 0.0 : (double) sum.sum() / count;
+    }
+
+    /**
+     * @return den längsta uppmätta tiden i nanosekunder
+     */
+    public long max() {
+        return max.get();
+    }
+
+    /**
+     * @param percentile mellan 0 och 100, t.ex. 99 för p99
+     * @return övre gränsen för intervallet som innehåller percentilen, högst {@link #max()}, 0 om inget har mätts
+     */
+    public long percentile(double percentile) {
+        if (!(percentile >= 0 && percentile <= 100)) {
+            throw new IllegalArgumentException("Percentilen måste vara mellan 0 och 100: " + percentile);
+        }
+        long count = count();
+        if (count == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            seen += counts.get(i);
+            if (seen >= target) {
+                return Math.min(highestValue(i), max());
+            }
+        }
+        return max();
+    }
+
+    static int index(long value) {
+        if (value < SUB_COUNT) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS + 1;
+        int sub = (int) (value >>> shift);
+        return SUB_COUNT + (shift - 1) * HALF + sub - HALF;
+    }
+
+    static long highestValue(int index) {
+        if (index < SUB_COUNT) {
+            return index;
+        }
+        int shift = (index - SUB_COUNT) / HALF + 1;
+        long sub = (index - SUB_COUNT) % HALF + HALF;
+        return ((sub + 1) << shift) - 1;
+    }
+}
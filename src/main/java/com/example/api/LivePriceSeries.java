@@ -0,0 +1,261 @@
+package com.example.api;
+
+import java.time.Instant;
+
+/**
+ * En löpande prisserie för styrningar som körs hela tiden, t.ex. en gång i minuten.
+ * <p>
+ * Raderna ligger i en ringbuffert. {@link #advance(Instant)} tar bort passerade rader från början och
+ * {@link #append(PriceSeries)} lägger till nya priser, t.ex. morgondagens när de publiceras, i slutet.
+ * Lägsta och högsta pris hålls aktuella med monotona köer och summan med en löpande prefixsumma, så
+ * att varje tillagd eller borttagen rad kostar amorterat O(1) och frågor om min, max, medelvärde och
+ * fönstersummor besvaras i O(1) utan att serien gås igenom på nytt.
+ * <p>
+ * Index räknas från den äldsta kvarvarande raden. Summor hålls i fast punkt (nano-SEK) så att de inte
+ * driver iväg när rader läggs till och tas bort under lång tid. Klassen är inte trådsäker.
+ */
+public final class LivePriceSeries {
+
+    private static final double SCALE = 1e9;
+
+    // Rad med sekvensnummer s ligger på position s & mask
+    private long[] start;
+    private long[] end;
+    private double[] sek;
+    private double[] eur;
+    private double[] exr;
+    // cumulative[s & mask] = summan av alla rader till och med s sedan serien skapades, i nano-SEK
+    private long[] cumulative;
+    private int mask;
+
+    private long head; // sekvensnummer för första raden
+    private long tail; // sekvensnummer för nästa rad som läggs till
+    private long headBase; // summan av alla rader före head
+
+    // Monotona köer med sekvensnummer: priserna stiger från början i minQueue och sjunker i maxQueue
+    private long[] minQueue;
+    private long minHead;
+    private long minTail;
+    private long[] maxQueue;
+    private long maxHead;
+    private long maxTail;
+
+    public LivePriceSeries() {
+        this(256);
+    }
+
+    public LivePriceSeries(int initialCapacity) {
+        allocate(Integer.highestOneBit(Math.max(initialCapacity, 2) * 2 - 1));
+    }
+
+    private void allocate(int capacity) {
+        start = new long[capacity];
+        end = new long[capacity];
+        sek = new double[capacity];
+        eur = new double[capacity];
+        exr = new double[capacity];
+        cumulative = new long[capacity];
+        minQueue = new long[capacity];
+        maxQueue = new long[capacity];
+        mask = capacity - 1;
+    }
+
+    /**
+     * Lägger till rader från {@code series} i slutet. Rader som inte startar efter den senast tillagda
+     * raden hoppas över, så att samma dag kan läggas till igen utan dubbletter.
+     *
+     * @return antal tillagda rader.
+     */
+    public int append(PriceSeries series) {
+        int added = 0;
+        for (int i = 0; i < series.size(); i++) {
+            if (tail > head && series.startEpochSecond(i) <= start[(int) ((tail - 1) & mask)]) {
+                continue;
+            }
+            add(series.startEpochSecond(i), series.endEpochSecond(i), series.sekPerKWh(i), series.eurPerKWh(i), series.exr(i));
+            added++;
+        }
+        return added;
+    }
+
+    private void add(long rowStart, long rowEnd, double rowSek, double rowEur, double rowExr) {
+        if (tail - head == start.length) {
+            grow();
+        }
+        int p = (int) (tail & mask);
+        start[p] = rowStart;
+        end[p] = rowEnd;
+        sek[p] = rowSek;
+        eur[p] = rowEur;
+        exr[p] = rowExr;
+        cumulative[p] = prefix(tail) + Math.round(rowSek * SCALE);
+
+        // Lika priser ligger kvar så att den tidigaste raden står först i kön
+        while (minTail > minHead && sek[(int) (minQueue[(int) ((minTail - 1) & mask)] & mask)] > rowSek) {
+            minTail--;
+        }
+        minQueue[(int) (minTail++ & mask)] = tail;
+        while (maxTail > maxHead && sek[(int) (maxQueue[(int) ((maxTail - 1) & mask)] & mask)] < rowSek) {
+            maxTail--;
+        }
+        maxQueue[(int) (maxTail++ & mask)] = tail;
+        tail++;
+    }
+
+    /**
+     * Tar bort rader från början som har slutat före {@code now}. Slutar vid första raden som inte
+     * har passerat, även om senare rader har det.
+     *
+     * @return antal borttagna rader.
+     */
+    public int advance(Instant now) {
+        int removed = 0;
+        while (head < tail && Instant.ofEpochSecond(end[(int) (head & mask)]).isBefore(now)) {
+            removeFirst();
+            removed++;
+        }
+        return removed;
+    }
+
+    private void removeFirst() {
+        headBase = cumulative[(int) (head & mask)];
+        if (minQueue[(int) (minHead & mask)] == head) {
+            minHead++;
+        }
+        if (maxQueue[(int) (maxHead & mask)] == head) {
+            maxHead++;
+        }
+        head++;
+    }
+
+    // Dubblar kapaciteten; alla sekvensnummer behålls så köerna kan flyttas som de är
+    private void grow() {
+        long[] oldStart = start, oldEnd = end, oldCumulative = cumulative, oldMin = minQueue, oldMax = maxQueue;
+        double[] oldSek = sek, oldEur = eur, oldExr = exr;
+        int oldMask = mask;
+        allocate(start.length * 2);
+        for (long s = head; s < tail; s++) {
+            int from = (int) (s & oldMask);
+            int to = (int) (s & mask);
+            start[to] = oldStart[from];
+            end[to] = oldEnd[from];
+            sek[to] = oldSek[from];
+            eur[to] = oldEur[from];
+            exr[to] = oldExr[from];
+            cumulative[to] = oldCumulative[from];
+        }
+        for (long q = minHead; q < minTail; q++) {
+            minQueue[(int) (q & mask)] = oldMin[(int) (q & oldMask)];
+        }
+        for (long q = maxHead; q < maxTail; q++) {
+            maxQueue[(int) (q & mask)] = oldMax[(int) (q & oldMask)];
+        }
+    }
+
+    public int size() {
+        return (int) (tail - head);
+    }
+
+    public boolean isEmpty() {
+        return tail == head;
+    }
+
+    public long startEpochSecond(int i) {
+        return start[position(i)];
+    }
+
+    public long endEpochSecond(int i) {
+        return end[position(i)];
+    }
+
+    public double sekPerKWh(int i) {
+        return sek[position(i)];
+    }
+
+    public double eurPerKWh(int i) {
+        return eur[position(i)];
+    }
+
+    public double exr(int i) {
+        return exr[position(i)];
+    }
+
+    /**
+     * @return index för lägsta priset, det tidigaste om flera är lika, eller -1 om serien är tom.
+     */
+    public int minIndex() {
+        return isEmpty() ? -1 : (int) (minQueue[(int) (minHead & mask)] - head);
+    }
+
+    /**
+     * @return index för högsta priset, det tidigaste om flera är lika, eller -1 om serien är tom.
+     */
+    public int maxIndex() {
+        return isEmpty() ? -1 : (int) (maxQueue[(int) (maxHead & mask)] - head);
+    }
+
+    /**
+     * @return medelpriset i SEK per kWh, 0 om serien är tom.
+     */
+    public double mean() {
+        return isEmpty() ? 0.0 : windowMean(0, size());
+    }
+
+    /**
+     * @return summan av SEK-priserna för {@code length} rader från och med index {@code from}.
+     */
+    public double windowSum(int from, int length) {
+        if (from < 0 || length < 0 || from + length > size()) {
+            throw new IndexOutOfBoundsException("Ogiltigt fönster " + from + "+" + length + " för " + size() + " rader");
+        }
+        return (prefix(head + from + length) - prefix(head + from)) / SCALE;
+    }
+
+    public double windowMean(int from, int length) {
+        return windowSum(from, length) / length;
+    }
+
+    /**
+     * @return index för första raden i det billigaste fönstret med {@code length} rader, det tidigaste
+     *         om flera är lika billiga, eller -1 om serien är kortare än fönstret.
+     */
+    public int cheapestWindow(int length) {
+        if (length < 1) {
+            throw new IllegalArgumentException("Fönstret måste vara minst en rad: " + length);
+        }
+        int best = -1;
+        long bestSum = Long.MAX_VALUE;
+        for (long s = head; s + length <= tail; s++) {
+            long sum = prefix(s + length) - prefix(s);
+            if (sum < bestSum) {
+                bestSum = sum;
+                best = (int) (s - head);
+            }
+        }
+        return best;
+    }
+
+    /**
+     * @return en kopia av de aktuella raderna.
+     */
+    public PriceSeries snapshot() {
+        PriceSeries.Builder builder = new PriceSeries.Builder(size());
+        for (long s = head; s < tail; s++) {
+            int p = (int) (s & mask);
+            builder.add(start[p], end[p], sek[p], eur[p], exr[p]);
+        }
+        return builder.build();
+    }
+
+    // Summan av alla rader före sekvensnummer s, för head <= s <= tail
+    private long prefix(long s) {
+        return s == head ? headBase : cumulative[(int) ((s - 1) & mask)];
+    }
+
+    private int position(int i) {
+        if (i < 0 || i >= size()) {
+            throw new IndexOutOfBoundsException(i);
+        }
+        return (int) ((head + i) & mask);
+    }
+}
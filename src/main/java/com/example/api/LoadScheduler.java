@@ -0,0 +1,289 @@
+package com.example.api;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Väljer de billigaste, inte nödvändigtvis sammanhängande, intervallen i en {@link PriceSeries}
+ * för att leverera en given mängd energi, t.ex. för en värmepump eller ett batteri.
+ * <p>
+ * Varje intervall kan leverera högst {@code maxPower × intervallets längd}. Det behövs alltså
+ * {@code k = ⌈energi / (effekt × längd)⌉} intervall, där det dyraste valda intervallet bara körs
+ * delvis om energin inte går jämnt ut. Intervall som slutar efter tidsgränsen används inte.
+ * <ul>
+ *     <li>Utan krav på minsta körtid väljs de {@code k} billigaste intervallen med en begränsad
+ *     max-heap, i tid {@code O(n log k)}.</li>
+ *     <li>Med en minsta körtid på {@code m} intervall måste varje sammanhängande körning vara minst
+ *     {@code m} intervall lång. Då väljs {@code max(k, m)} intervall med dynamisk programmering över
+ *     (intervall, antal valda, längd på pågående körning) i tid {@code O(n·k·m)}. Är {@code m} större
+ *     än {@code k} körs lasten hela körtiden med lägre effekt, energin fördelas jämnt på intervallen.</li>
+ * </ul>
+ * Priser jämförs i fast punkt (nano-SEK) och vid lika pris väljs de tidigaste intervallen.
+ * Serien förutsätts vara sorterad på starttid med ett jämnt intervall, se {@link PriceSeries#intervalSeconds()}.
+ */
+public final class LoadScheduler {
+
+    private static final double SCALE = 1e9;
+    // Tolerans så att t.ex. 10 kWh med 2,5 kW i timintervall blir exakt 4 intervall trots avrundning
+    private static final double EPSILON = 1e-9;
+    // Övre gräns för antal tillstånd i den dynamiska programmeringen, en byte per tillstånd
+    private static final long MAX_STATES = 20_000_000L;
+
+    private LoadScheduler() {
+    }
+
+    /**
+     * Vad som ska levereras och under vilka villkor.
+     *
+     * @param energyKWh energin som ska levereras.
+     * @param maxPowerKW högsta effekt per intervall.
+     * @param deadline senaste sluttid, eller null för att använda hela serien.
+     * @param minRun kortaste sammanhängande körtid, avrundas uppåt till hela intervall. Null eller noll för ingen gräns.
+     */
+    public record Request(double energyKWh, double maxPowerKW, Instant deadline, Duration minRun) {
+        public Request {
+            if (!(energyKWh > 0) || !(maxPowerKW > 0)) {
+                throw new IllegalArgumentException("Energi och effekt måste vara positiva");
+            }
+            if (minRun != null && minRun.isNegative()) {
+                throw new IllegalArgumentException("Minsta körtid kan inte vara negativ: " + minRun);
+            }
+        }
+    }
+
+    /**
+     * Energi som levereras i ett intervall.
+     *
+     * @param row raden i serien.
+     */
+    public record Allocation(int row, double energyKWh) {}
+
+    /**
+     * Ett schema i tidsordning.
+     *
+     * @param costSek total kostnad i SEK.
+     */
+    public record Schedule(List<Allocation> allocations, double energyKWh, double costSek) {
+        public Schedule {
+            allocations = List.copyOf(allocations);
+        }
+
+        /**
+         * @return genomsnittligt pris i SEK per kWh.
+         */
+        public double meanPrice() {
+            return costSek / energyKWh;
+        }
+    }
+
+    /**
+     * Tar fram det billigaste schemat.
+     *
+     * @return schemat, eller null om energin eller den minsta körtiden inte ryms före tidsgränsen.
+     * @throws IllegalArgumentException om problemet är för stort för den dynamiska programmeringen.
+     */
+    public static Schedule schedule(PriceSeries series, Request request) {
+        long interval = series.intervalSeconds();
+        double slotEnergy = request.maxPowerKW() * interval / 3600.0;
+        int slots = (int) Math.ceil(request.energyKWh() / slotEnergy - EPSILON);
+        int minRun = request.minRun() == null ? 1 : (int) Math.max(1, Math.ceilDiv(request.minRun().toSeconds(), interval));
+
+        // En minsta körtid är en nedre gräns för hur länge lasten körs, inte för hur mycket energi den tar
+        int rows = Math.max(slots, minRun);
+
+        int eligible = eligibleRows(series, request.deadline(), interval);
+        if (rows > eligible) {
+            return null;
+        }
+        long[] prices = new long[eligible];
+        for (int i = 0; i < eligible; i++) {
+            prices[i] = Math.round(series.sekPerKWh(i) * SCALE);
+        }
+        int[] chosen = minRun <= 1 ? cheapest(prices, slots) : cheapestRuns(prices, rows, minRun);
+        if (chosen == null) {
+            return null;
+        }
+        return chosen.length > slots ? spread(series, chosen, request.energyKWh())
+                : allocate(series, chosen, request.energyKWh(), slotEnergy);
+    }
+
+    // Antal rader från början av serien som slutar senast vid tidsgränsen
+    private static int eligibleRows(PriceSeries series, Instant deadline, long interval) {
+        if (deadline == null) {
+            return series.size();
+        }
+        long limit = deadline.getEpochSecond();
+        int rows = 0;
+        while (rows < series.size() && series.startEpochSecond(rows) + interval <= limit) {
+            rows++;
+        }
+        return rows;
+    }
+
+    /**
+     * Väljer de {@code k} billigaste raderna med en max-heap som håller de hittills billigaste.
+     * Heapens rot är den dyraste av de valda och byts ut när en billigare rad hittas.
+     *
+     * @return de valda raderna i stigande ordning.
+     */
+    static int[] cheapest(long[] prices, int k) {
+        int[] heap = new int[k];
+        int size = 0;
+        for (int i = 0; i < prices.length; i++) {
+            if (size < k) {
+                heap[size] = i;
+                siftUp(heap, size++, prices);
+            } else if (k > 0 && prices[i] < prices[heap[0]]) {
+                // Vid lika pris behålls den tidigare raden
+                heap[0] = i;
+                siftDown(heap, k, prices);
+            }
+        }
+        Arrays.sort(heap);
+        return heap;
+    }
+
+    // Dyrare först; vid lika pris ligger den senare raden högre så att den byts ut först
+    private static boolean above(int a, int b, long[] prices) {
+        return prices[a] > prices[b] || (prices[a] == prices[b] && a > b);
+    }
+
+    private static void siftUp(int[] heap, int i, long[] prices) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!above(heap[i], heap[parent], prices)) {
+                return;
+            }
+            swap(heap, i, parent);
+            i = parent;
+        }
+    }
+
+    private static void siftDown(int[] heap, int size, long[] prices) {
+        int i = 0;
+        while (true) {
+            int left = 2 * i + 1;
+            if (left >= size) {
+                return;
+            }
+            int largest = left + 1 < size && above(heap[left + 1], heap[left], prices) ? left + 1 : left;
+            if (!above(heap[largest], heap[i], prices)) {
+                return;
+            }
+            swap(heap, i, largest);
+            i = largest;
+        }
+    }
+
+    private static void swap(int[] heap, int a, int b) {
+        int t = heap[a];
+        heap[a] = heap[b];
+        heap[b] = t;
+    }
+
+    /**
+     * Väljer {@code k} rader så att varje sammanhängande körning är minst {@code m} rader lång och
+     * summan av priserna är minsta möjliga.
+     * <p>
+     * Räknas baklänges: {@code cost[j][r]} är lägsta kostnaden för att välja {@code j} rader från och
+     * med rad {@code i} när den pågående körningen har längden {@code r} (0 = ingen körning, {@code m} =
+     * minst {@code m}). Valet i varje tillstånd sparas så att schemat kan läsas ut framlänges, där en
+     * rad tas vid lika kostnad så att tidiga rader föredras.
+     *
+     * @return de valda raderna i stigande ordning, eller null om det inte går.
+     */
+    static int[] cheapestRuns(long[] prices, int k, int m) {
+        int n = prices.length;
+        int states = (k + 1) * (m + 1);
+        if ((long) n * states > MAX_STATES) {
+            throw new IllegalArgumentException("För många intervall för schemaläggning med minsta körtid: " + n + " × " + states);
+        }
+        long inf = Long.MAX_VALUE;
+        long[] next = new long[states];
+        long[] cost = new long[states];
+        // take[i][j * (m + 1) + r] = om rad i ska tas i tillståndet (j, r)
+        boolean[][] take = new boolean[n][states];
+
+        Arrays.fill(next, inf);
+        next[index(0, 0, m)] = 0;
+        next[index(0, m, m)] = 0;
+        for (int i = n - 1; i >= 0; i--) {
+            for (int j = 0; j <= k; j++) {
+                for (int r = 0; r <= m; r++) {
+                    long best = inf;
+                    boolean taken = false;
+                    if (r == 0 || r == m) {
+                        best = next[index(j, 0, m)];
+                    }
+                    if (j > 0) {
+                        long rest = next[index(j - 1, Math.min(r + 1, m), m)];
+                        if (rest != inf && rest + prices[i] <= best) {
+                            best = rest + prices[i];
+                            taken = true;
+                        }
+                    }
+                    cost[index(j, r, m)] = best;
+                    take[i][index(j, r, m)] = taken;
+                }
+            }
+            long[] t = next;
+            next = cost;
+            cost = t;
+        }
+        if (next[index(k, 0, m)] == inf) {
+            return null;
+        }
+
+        int[] chosen = new int[k];
+        int count = 0;
+        for (int i = 0, j = k, r = 0; i < n; i++) {
+            if (take[i][index(j, r, m)]) {
+                chosen[count++] = i;
+                j--;
+                r = Math.min(r + 1, m);
+            } else {
+                r = 0;
+            }
+        }
+        return chosen;
+    }
+
+    private static int index(int j, int r, int m) {
+        return j * (m + 1) + r;
+    }
+
+    // Alla valda rader körs med full effekt utom den dyraste, som får det som återstår
+    private static Schedule allocate(PriceSeries series, int[] chosen, double energyKWh, double slotEnergy) {
+        int partial = chosen[0];
+        for (int row : chosen) {
+            if (series.sekPerKWh(row) >= series.sekPerKWh(partial)) {
+                partial = row;
+            }
+        }
+        double remainder = energyKWh - (chosen.length - 1) * slotEnergy;
+
+        List<Allocation> allocations = new ArrayList<>(chosen.length);
+        double cost = 0.0;
+        for (int row : chosen) {
+            double energy = row == partial ? remainder : slotEnergy;
+            allocations.add(new Allocation(row, energy));
+            cost += energy * series.sekPerKWh(row);
+        }
+        return new Schedule(allocations, energyKWh, cost);
+    }
+
+    // Fler rader än energin kräver: alla körs med samma, lägre effekt under hela körtiden
+    private static Schedule spread(PriceSeries series, int[] chosen, double energyKWh) {
+        double energy = energyKWh / chosen.length;
+        List<Allocation> allocations = new ArrayList<>(chosen.length);
+        double cost = 0.0;
+        for (int row : chosen) {
+            allocations.add(new Allocation(row, energy));
+            cost += energy * series.sekPerKWh(row);
+        }
+        return new Schedule(allocations, energyKWh, cost);
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.api;
+
+import java.lang.System.Logger.Level;
+import java.util.Locale;
+import java.util.function.Supplier;
+
+/**
+ * Nivåindelad loggning för API:t, skriven till {@code System.err}.
+ * <p>
+ * Nivån sätts en gång med systemegenskapen {@code elpriser.log}: {@code debug}, {@code info},
+ * {@code warning}, {@code error} eller {@code off}, standard {@code info}. Meddelanden under nivån
+ * kostar bara en jämförelse; debug-meddelanden skickas som en {@link Supplier} så att strängen bara
+ * byggs när den ska skrivas.
+ */
+final class Log {
+
+    private static final int THRESHOLD = parse(System.getProperty("elpriser.log", "info")).getSeverity();
+
+    private Log() {
+    }
+
+    static boolean isEnabled(Level level) {
+        return level.getSeverity() >= THRESHOLD;
+    }
+
+    static void debug(Supplier<String> message) {
+        if (isEnabled(Level.DEBUG)) {
+            System.err.println(message.get());
+        }
+    }
+
+    static void warning(String message) {
+        if (isEnabled(Level.WARNING)) {
+            System.err.println(message);
+        }
+    }
+
+    static Level parse(String name) {
+        return switch (name.trim().toLowerCase(Locale.ROOT)) {
+            case "debug", "trace", "all" -> Level.DEBUG;
+            case "warning", "warn" -> Level.WARNING;
+            case "error" -> Level.ERROR;
+            case "off" -> Level.OFF;
+            default -> Level.INFO;
+        };
+    }
+}
@@ -0,0 +1,315 @@
+package com.example.api;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.zip.CRC32;
+
+/**
+ * En skrivskyddad, minnesmappad vy över en {@link PriceArchive}-fil.
+ * <p>
+ * Filen mappas som ett {@link MemorySegment} och läses direkt från sidcachen. Intervallfrågor
+ * returnerar en {@link View} som läser värden ur segmentet vid behov, utan att kopiera rader till
+ * heapen. Endast blockrubrikerna läses när arkivet öppnas; kontrollsummor verifieras på begäran med
+ * {@link #verify()}. Dagar som läggs till i filen efter att den mappats syns inte förrän arkivet
+ * öppnas på nytt.
+ * <p>
+ * Ett segment adresseras med {@code long}, så arkivet kan mappas i sin helhet även när det är större
+ * än de 2 GB en {@link java.nio.MappedByteBuffer} kan täcka. Mappningen hör till en automatisk
+ * {@link Arena} och släpps när varken arkivet eller någon vy används längre, eftersom
+ * {@link ElpriserAPI#getArkivVy} mappar om filen när den har vuxit medan äldre vyer fortfarande kan läsas.
+ */
+public final class MappedPriceArchive {
+
+    // Arkivet skrivs med ByteBuffer i big-endian, och blocken ligger inte på jämna adresser
+    private static final ValueLayout.OfInt INT = ValueLayout.JAVA_INT_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+    private static final ValueLayout.OfLong LONG = ValueLayout.JAVA_LONG_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+    private static final ValueLayout.OfDouble DOUBLE = ValueLayout.JAVA_DOUBLE_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+
+    private final Path file;
+    private final MemorySegment segment;
+    private final long mappedSize;
+
+    // Dagar i stigande ordning, med blockposition och antal rader för respektive dag
+    private final long[] days;
+    private final long[] blockOffsets;
+    private final int[] blockRows;
+
+    private MappedPriceArchive(Path file, MemorySegment segment, long mappedSize, long[] days, long[] blockOffsets, int[] blockRows) {
+        this.file = file;
+        this.segment = segment;
+        this.mappedSize = mappedSize;
+        this.days = days;
+        this.blockOffsets = blockOffsets;
+        this.blockRows = blockRows;
+    }
+
+    /**
+     * Mappar arkivfilen och läser in blockrubrikerna.
+     */
+    public static MappedPriceArchive open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            MemorySegment segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, size, Arena.ofAuto());
+            return index(file, segment, size);
+        }
+    }
+
+    private static MappedPriceArchive index(Path file, MemorySegment segment, long size) throws IOException {
+        if (size < PriceArchive.FILE_HEADER_BYTES) {
+            return new MappedPriceArchive(file, segment, size, new long[0], new long[0], new int[0]);
+        }
+        if (segment.get(INT, 0) != PriceArchive.MAGIC || segment.get(INT, 4) != PriceArchive.VERSION) {
+            throw new IOException("Okänt arkivformat: " + file);
+        }
+        int count = 0;
+        long[] days = new long[64];
+        long[] offsets = new long[64];
+        long pos = PriceArchive.FILE_HEADER_BYTES;
+        while (pos + PriceArchive.BLOCK_HEADER_BYTES <= size) {
+            int rows = segment.get(INT, pos + 4);
+            long blockEnd = pos + PriceArchive.BLOCK_HEADER_BYTES + (long) rows * PriceArchive.ROW_BYTES;
+            if (rows <= 0 || blockEnd > size) {
+                break;
+            }
+            if (count == days.length) {
+                days = Arrays.copyOf(days, count * 2);
+                offsets = Arrays.copyOf(offsets, count * 2);
+            }
+            days[count] = segment.get(INT, pos);
+            offsets[count] = pos;
+            count++;
+            pos = blockEnd;
+        }
+
+        // Blocken kan ligga i godtycklig ordning i filen, sortera på dag och behåll första förekomsten
+        Integer[] order = new Integer[count];
+        for (int i = 0; i < count; i++) order[i] = i;
+        long[] unsortedDays = days;
+        Arrays.sort(order, Comparator.<Integer>comparingLong(i -> unsortedDays[i]).thenComparingInt(i -> i));
+
+        long[] sortedDays = new long[count];
+        long[] sortedOffsets = new long[count];
+        int[] sortedRows = new int[count];
+        int n = 0;
+        for (int i : order) {
+            if (n > 0 && sortedDays[n - 1] == days[i]) {
+                continue;
+            }
+            sortedDays[n] = days[i];
+            sortedOffsets[n] = offsets[i];
+            sortedRows[n] = segment.get(INT, offsets[i] + 4);
+            n++;
+        }
+        return new MappedPriceArchive(file, segment, size,
+                Arrays.copyOf(sortedDays, n), Arrays.copyOf(sortedOffsets, n), Arrays.copyOf(sortedRows, n));
+    }
+
+    public Path file() {
+        return file;
+    }
+
+    /**
+     * @return filens storlek när den mappades.
+     */
+    public long mappedSize() {
+        return mappedSize;
+    }
+
+    public int dayCount() {
+        return days.length;
+    }
+
+    /**
+     * Verifierar kontrollsumman för alla block. Läser hela filen.
+     *
+     * @return true om alla block är hela.
+     */
+    public boolean verify() {
+        for (int b = 0; b < blockOffsets.length; b++) {
+            long pos = blockOffsets[b];
+            long length = (long) blockRows[b] * PriceArchive.ROW_BYTES;
+            CRC32 crc = new CRC32();
+            crc.update(segment.asSlice(pos, 16).asByteBuffer());
+            crc.update(segment.asSlice(pos + PriceArchive.BLOCK_HEADER_BYTES, length).asByteBuffer());
+            if ((int) crc.getValue() != segment.get(INT, pos + 16)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returnerar en vy över alla arkiverade dagar från och med {@code from} till och med {@code to}.
+     */
+    public View range(LocalDate from, LocalDate to) {
+        int first = lowerBound(from.toEpochDay());
+        int last = lowerBound(to.toEpochDay() + 1);
+        return new View(first, Math.max(first, last));
+    }
+
+    private int lowerBound(long day) {
+        int i = Arrays.binarySearch(days, day);
+        return i >= 0 ? i : -i - 1;
+    }
+
+    /**
+     * En kopieringsfri vy över ett intervall av dagar. Rader numreras från 0 till {@link #size()} - 1
+     * i datumordning och läses direkt ur den mappade filen.
+     */
+    public final class View {
+        private final int firstBlock;
+        private final int blockCount;
+        // rowStart[b] = index för första raden i block firstBlock + b, sista elementet är size()
+        private final int[] rowStart;
+
+        private View(int firstBlock, int endBlock) {
+            this.firstBlock = firstBlock;
+            this.blockCount = endBlock - firstBlock;
+            this.rowStart = new int[blockCount + 1];
+            for (int b = 0; b < blockCount; b++) {
+                rowStart[b + 1] = rowStart[b] + blockRows[firstBlock + b];
+            }
+        }
+
+        public int size() {
+            return rowStart[blockCount];
+        }
+
+        public boolean isEmpty() {
+            return size() == 0;
+        }
+
+        public long startEpochSecond(int row) {
+            int b = block(row);
+            return segment.get(LONG, startOffset(b) + (row - rowStart[b]) * 8L);
+        }
+
+        public long endEpochSecond(int row) {
+            int b = block(row);
+            return segment.get(LONG, startOffset(b) + blockRows(b) * 8L + (row - rowStart[b]) * 8L);
+        }
+
+        public double sekPerKWh(int row) {
+            int b = block(row);
+            return PriceArchive.fromFixed(segment.get(INT, startOffset(b) + blockRows(b) * 16L + (row - rowStart[b]) * 4L));
+        }
+
+        public double eurPerKWh(int row) {
+            int b = block(row);
+            return PriceArchive.fromFixed(segment.get(INT, startOffset(b) + blockRows(b) * 20L + (row - rowStart[b]) * 4L));
+        }
+
+        public double exr(int row) {
+            return segment.get(DOUBLE, blockOffsets[firstBlock + block(row)] + 8);
+        }
+
+        /**
+         * @return en markör för sekventiell genomläsning, som undviker sökningen efter block per rad.
+         */
+        public Cursor cursor() {
+            return new Cursor(this);
+        }
+
+        /**
+         * Kopierar vyn till en {@link PriceSeries} på heapen.
+         */
+        public PriceSeries toSeries() {
+            PriceSeries.Builder builder = new PriceSeries.Builder(size());
+            for (Cursor c = cursor(); c.next(); ) {
+                builder.add(c.startEpochSecond(), c.endEpochSecond(), c.sekPerKWh(), c.eurPerKWh(), c.exr());
+            }
+            return builder.build();
+        }
+
+        private int block(int row) {
+            if (row < 0 || row >= size()) {
+                throw new IndexOutOfBoundsException(row);
+            }
+            int i = Arrays.binarySearch(rowStart, 0, blockCount, row);
+            if (i >= 0) {
+                // Flera block kan inte ha samma start eftersom alla block har minst en rad
+                return i;
+            }
+            return -i - 2;
+        }
+
+        private MemorySegment segment() {
+            return segment;
+        }
+
+        private long startOffset(int b) {
+            return blockOffsets[firstBlock + b] + PriceArchive.BLOCK_HEADER_BYTES;
+        }
+
+        private int blockRows(int b) {
+            return blockRows[firstBlock + b];
+        }
+    }
+
+    /**
+     * Sekventiell markör över en {@link View}.
+     */
+    public static final class Cursor {
+        private final View view;
+        private final MemorySegment segment;
+        private int block = 0;
+        private int row = -1;
+        private int rows;
+        private long base;
+
+        private Cursor(View view) {
+            this.view = view;
+            this.segment = view.segment();
+            this.rows = view.blockCount > 0 ? view.blockRows(0) : 0;
+            this.base = view.blockCount > 0 ? view.startOffset(0) : 0;
+        }
+
+        /**
+         * Flyttar till nästa rad.
+         * @return false om det inte finns fler rader.
+         */
+        public boolean next() {
+            row++;
+            while (row >= rows) {
+                if (++block >= view.blockCount) {
+                    row = rows;
+                    block = view.blockCount;
+                    return false;
+                }
+                row = 0;
+                rows = view.blockRows(block);
+                base = view.startOffset(block);
+            }
+            return true;
+        }
+
+        public long startEpochSecond() {
+            return segment.get(LONG, base + row * 8L);
+        }
+
+        public long endEpochSecond() {
+            return segment.get(LONG, base + rows * 8L + row * 8L);
+        }
+
+        public double sekPerKWh() {
+            return PriceArchive.fromFixed(segment.get(INT, base + rows * 16L + row * 4L));
+        }
+
+        public double eurPerKWh() {
+            return PriceArchive.fromFixed(segment.get(INT, base + rows * 20L + row * 4L));
+        }
+
+        public double exr() {
+            return segment.get(DOUBLE, base - PriceArchive.BLOCK_HEADER_BYTES + 8);
+        }
+    }
+}
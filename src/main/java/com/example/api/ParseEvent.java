@@ -0,0 +1,24 @@
+package com.example.api;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR-händelse för tolkningen av ett JSON-svar med {@link ElprisJsonParser}.
+ */
+@Name("com.example.api.Parse")
+@Label("Elpriser: tolkning")
+@Category("Elpriser")
+@StackTrace(false)
+final class ParseEvent extends jdk.jfr.Event {
+
+    @Label("Storlek")
+    @DataAmount(DataAmount.BYTES)
+    int bytes;
+
+    @Label("Rader")
+    int rows;
+}
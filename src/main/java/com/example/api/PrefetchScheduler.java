@@ -0,0 +1,172 @@
+package com.example.api;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZonedDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hämtar priser i bakgrunden så att frågor från användare aldrig behöver vänta på nätverket.
+ * <p>
+ * Morgondagens priser publiceras på eftermiddagen. Under publiceringsfönstret, som standard
+ * {@value #DEFAULT_WINDOW_START_HOUR}:00–{@value #DEFAULT_WINDOW_END_HOUR}:00 svensk tid, frågar
+ * schemaläggaren efter morgondagens priser för alla prisklasser som ännu saknas. Väntetiden mellan
+ * försöken fördubblas från {@code initialBackoff} upp till {@code maxBackoff}. Dagens priser hämtas en
+ * gång per dag oavsett tid. Priser som hittas läggs i minnes- och disk-cachen via
+ * {@link ElpriserAPI#refresh(LocalDate, ElpriserAPI.Prisklass)}, och lyssnarna meddelas per prisklass.
+ * <p>
+ * Allt körs i en enda bakgrundstråd, som inte hindrar JVM:en från att avslutas.
+ */
+public final class PrefetchScheduler implements AutoCloseable {
+
+    static final int DEFAULT_WINDOW_START_HOUR = 13;
+    static final int DEFAULT_WINDOW_END_HOUR = 18;
+    static final Duration DEFAULT_INITIAL_BACKOFF = Duration.ofMinutes(2);
+    static final Duration DEFAULT_MAX_BACKOFF = Duration.ofMinutes(20);
+
+    private static final ElpriserAPI.Prisklass[] PRISKLASSER = ElpriserAPI.Prisklass.values();
+
+    /**
+     * Anropas när priser för en dag och prisklass har hämtats, i schemaläggarens tråd.
+     */
+    @FunctionalInterface
+    public interface Listener {
+        void onPublished(LocalDate datum, ElpriserAPI.Prisklass prisklass, List<ElpriserAPI.Elpris> priser);
+    }
+
+    private final ElpriserAPI api;
+    private final Clock clock;
+    private final LocalTime windowStart;
+    private final LocalTime windowEnd;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    // Allt nedan används bara från schemaläggarens tråd
+    private final Set<Long> fetched = new HashSet<>(); // nycklar enligt PriceCache.key
+    private Duration backoff;
+    private ScheduledExecutorService executor;
+
+    PrefetchScheduler(ElpriserAPI api, Clock clock, LocalTime windowStart, LocalTime windowEnd,
+                      Duration initialBackoff, Duration maxBackoff) {
+        if (!windowStart.isBefore(windowEnd)) {
+            throw new IllegalArgumentException("Publiceringsfönstret måste börja före det slutar: " + windowStart + "-" + windowEnd);
+        }
+        if (initialBackoff.isNegative() || initialBackoff.isZero() || maxBackoff.compareTo(initialBackoff) < 0) {
+            throw new IllegalArgumentException("Ogiltig väntetid: " + initialBackoff + "-" + maxBackoff);
+        }
+        this.api = api;
+        this.clock = clock.withZone(PriceSeries.ZONE);
+        this.windowStart = windowStart;
+        this.windowEnd = windowEnd;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.backoff = initialBackoff;
+    }
+
+    /**
+     * Startar en schemaläggare med standardinställningar som gör sin första hämtning direkt.
+     */
+    static PrefetchScheduler start(ElpriserAPI api) {
+        PrefetchScheduler scheduler = new PrefetchScheduler(api, Clock.system(PriceSeries.ZONE),
+                LocalTime.of(DEFAULT_WINDOW_START_HOUR, 0), LocalTime.of(DEFAULT_WINDOW_END_HOUR, 0),
+                DEFAULT_INITIAL_BACKOFF, DEFAULT_MAX_BACKOFF);
+        scheduler.executor = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("elpriser-prefetch").daemon().factory());
+        scheduler.executor.execute(scheduler::run);
+        return scheduler;
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Stoppar schemaläggaren. En pågående hämtning avbryts.
+     */
+    @Override
+    public void close() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    private void run() {
+        Duration delay;
+        try {
+            delay = poll();
+        } catch (RuntimeException e) { // en enskild omgång får inte stoppa schemaläggaren
+            Log.warning("Förhämtningen av elpriser misslyckades: " + e.getMessage());
+            delay = backoff;
+        }
+        if (!executor.isShutdown()) {
+            executor.schedule(this::run, delay.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Gör en omgång hämtningar utifrån klockan.
+     *
+     * @return hur länge det är till nästa omgång.
+     */
+    Duration poll() {
+        ZonedDateTime now = ZonedDateTime.now(clock);
+        LocalDate today = now.toLocalDate();
+        LocalDate tomorrow = today.plusDays(1);
+        fetched.removeIf(key -> PriceCache.datum(key).isBefore(today));
+
+        fetchMissing(today);
+        if (now.toLocalTime().isBefore(windowStart)) {
+            return Duration.between(now, today.atTime(windowStart).atZone(PriceSeries.ZONE));
+        }
+        if (fetchMissing(tomorrow) || !now.toLocalTime().isBefore(windowEnd)) {
+            // Klart för idag, eller fönstret är slut; nästa försök i morgondagens fönster
+            backoff = initialBackoff;
+            return Duration.between(now, tomorrow.atTime(windowStart).atZone(PriceSeries.ZONE));
+        }
+        Duration delay = backoff;
+        backoff = backoff.multipliedBy(2).compareTo(maxBackoff) > 0 ? maxBackoff : backoff.multipliedBy(2);
+        return delay;
+    }
+
+    /**
+     * Hämtar dagen för alla prisklasser som ännu inte har hämtats.
+     *
+     * @return true om dagen nu finns för alla prisklasser.
+     */
+    private boolean fetchMissing(LocalDate datum) {
+        boolean complete = true;
+        for (ElpriserAPI.Prisklass prisklass : PRISKLASSER) {
+            long key = PriceCache.key(datum, prisklass);
+            if (fetched.contains(key)) {
+                continue;
+            }
+            List<ElpriserAPI.Elpris> priser = api.refresh(datum, prisklass);
+            if (priser.isEmpty()) {
+                complete = false;
+                continue;
+            }
+            fetched.add(key);
+            for (Listener listener : listeners) {
+                try {
+                    listener.onPublished(datum, prisklass, priser);
+                } catch (RuntimeException e) {
+                    Log.warning("En lyssnare för " + PriceCache.toString(key) + " misslyckades: " + e.getMessage());
+                }
+            }
+        }
+        return complete;
+    }
+}
@@ -0,0 +1,230 @@
+package com.example.api;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+
+/**
+ * Ett kompakt, binärt och kolumnorienterat arkiv med historiska elpriser för ett elprisområde.
+ * <p>
+ * Filen består av en rubrik följd av ett block per dag. Nya dagar läggs till i slutet av filen
+ * utan att befintliga block skrivs om, i vilken ordning som helst.
+ * <pre>
+ * Filrubrik:   int MAGIC ("ELPA"), int VERSION
+ * Dagsblock:   int epochDay, int antal rader, double EXR, int CRC32
+ *              long[n] start (epoch-sekunder), long[n] slut (epoch-sekunder),
+ *              int[n] SEK/kWh och int[n] EUR/kWh som fixtal med fem decimaler
+ * </pre>
+ * CRC32 beräknas över blockets övriga rubrikfält och kolumndata. Ett halvskrivet block i slutet
+ * av filen ignoreras vid läsning och skrivs över vid nästa tillägg. EXR lagras en gång per dag
+ * eftersom API:t använder samma växelkurs för alla perioder under en dag.
+ */
+public final class PriceArchive {
+
+    static final int MAGIC = 0x454C5041;
+    static final int VERSION = 1;
+    static final int FILE_HEADER_BYTES = 8;
+    static final int BLOCK_HEADER_BYTES = 20;
+    static final int ROW_BYTES = 24;
+    static final double FIXED_POINT_SCALE = 100_000.0;
+
+    private final Path file;
+
+    // epochDay -> blockets position i filen, laddas vid första användning
+    private TreeMap<Long, Long> index;
+
+    public PriceArchive(Path file) {
+        this.file = file;
+    }
+
+    public Path file() {
+        return file;
+    }
+
+    /**
+     * @return true om arkivet innehåller priser för den angivna dagen.
+     */
+    public synchronized boolean contains(LocalDate day) throws IOException {
+        return index().containsKey(day.toEpochDay());
+    }
+
+    /**
+     * Lägger till en dags priser sist i arkivet. Dagar som redan finns skrivs inte om.
+     *
+     * @return true om dagen lades till, false om den redan fanns eller listan var tom.
+     */
+    public synchronized boolean append(LocalDate day, List<ElpriserAPI.Elpris> priser) throws IOException {
+        return append(day, PriceSeries.of(priser));
+    }
+
+    /**
+     * Lägger till en dags priser sist i arkivet. Dagar som redan finns skrivs inte om.
+     *
+     * @return true om dagen lades till, false om den redan fanns eller serien var tom.
+     */
+    public synchronized boolean append(LocalDate day, PriceSeries series) throws IOException {
+        if (series.isEmpty()) {
+            return false;
+        }
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+             FileLock ignored = channel.lock()) {
+            // Läs om indexet under låset, en annan process kan ha lagt till dagar
+            long validEnd = scan(channel);
+            if (index.containsKey(day.toEpochDay())) {
+                return false;
+            }
+            if (validEnd == 0) {
+                ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_BYTES).putInt(MAGIC).putInt(VERSION).flip();
+                writeFully(channel, header, 0);
+                validEnd = FILE_HEADER_BYTES;
+            }
+            channel.truncate(validEnd);
+
+            ByteBuffer block = encodeBlock(day.toEpochDay(), series);
+            writeFully(channel, block, validEnd);
+            channel.force(false);
+            index.put(day.toEpochDay(), validEnd);
+            return true;
+        }
+    }
+
+    /**
+     * Läser alla arkiverade dagar i intervallet {@code from} till och med {@code to}, i datumordning.
+     * Korrupta block hoppas över.
+     */
+    public synchronized PriceSeries read(LocalDate from, LocalDate to) throws IOException {
+        Map<Long, Long> days = index().subMap(from.toEpochDay(), true, to.toEpochDay(), true);
+        if (days.isEmpty()) {
+            return PriceSeries.empty();
+        }
+        PriceSeries.Builder builder = new PriceSeries.Builder(days.size() * 96);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            for (Map.Entry<Long, Long> day : days.entrySet()) {
+                if (!decodeBlock(channel, day.getValue(), builder)) {
+                    Log.warning("Korrupt arkivblock för " + LocalDate.ofEpochDay(day.getKey()) + " i " + file);
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    private TreeMap<Long, Long> index() throws IOException {
+        if (index == null) {
+            if (!Files.isRegularFile(file)) {
+                index = new TreeMap<>();
+            } else {
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                    scan(channel);
+                }
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Bygger om indexet genom att läsa blockrubrikerna.
+     * @return positionen efter det sista hela blocket, eller 0 om filen saknar giltig rubrik.
+     */
+    private long scan(FileChannel channel) throws IOException {
+        index = new TreeMap<>();
+        long size = channel.size();
+        if (size < FILE_HEADER_BYTES) {
+            return 0;
+        }
+        ByteBuffer header = ByteBuffer.allocate(BLOCK_HEADER_BYTES);
+        readFully(channel, header.limit(FILE_HEADER_BYTES), 0);
+        if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+            throw new IOException("Okänt arkivformat: " + file);
+        }
+        long pos = FILE_HEADER_BYTES;
+        while (pos + BLOCK_HEADER_BYTES <= size) {
+            header.clear();
+            readFully(channel, header, pos);
+            long epochDay = header.getInt(0);
+            int rows = header.getInt(4);
+            long blockEnd = pos + BLOCK_HEADER_BYTES + (long) rows * ROW_BYTES;
+            if (rows <= 0 || blockEnd > size) {
+                break;
+            }
+            index.putIfAbsent(epochDay, pos);
+            pos = blockEnd;
+        }
+        return pos;
+    }
+
+    static ByteBuffer encodeBlock(long epochDay, PriceSeries series) {
+        int rows = series.size();
+        ByteBuffer block = ByteBuffer.allocate(BLOCK_HEADER_BYTES + rows * ROW_BYTES);
+        block.putInt((int) epochDay).putInt(rows).putDouble(series.exr(0)).putInt(0);
+        for (int i = 0; i < rows; i++) block.putLong(series.startEpochSecond(i));
+        for (int i = 0; i < rows; i++) block.putLong(series.endEpochSecond(i));
+        for (int i = 0; i < rows; i++) block.putInt(toFixed(series.sekPerKWh(i)));
+        for (int i = 0; i < rows; i++) block.putInt(toFixed(series.eurPerKWh(i)));
+        block.putInt(16, checksum(block));
+        return block.flip();
+    }
+
+    private static boolean decodeBlock(FileChannel channel, long pos, PriceSeries.Builder builder) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(BLOCK_HEADER_BYTES);
+        readFully(channel, header, pos);
+        int rows = header.getInt(4);
+        ByteBuffer block = ByteBuffer.allocate(BLOCK_HEADER_BYTES + rows * ROW_BYTES);
+        readFully(channel, block, pos);
+        if (block.getInt(16) != checksum(block)) {
+            return false;
+        }
+        double exr = block.getDouble(8);
+        int starts = BLOCK_HEADER_BYTES;
+        int ends = starts + rows * 8;
+        int sek = ends + rows * 8;
+        int eur = sek + rows * 4;
+        for (int i = 0; i < rows; i++) {
+            builder.add(block.getLong(starts + i * 8), block.getLong(ends + i * 8),
+                    fromFixed(block.getInt(sek + i * 4)), fromFixed(block.getInt(eur + i * 4)), exr);
+        }
+        return true;
+    }
+
+    static int checksum(ByteBuffer block) {
+        CRC32 crc = new CRC32();
+        crc.update(block.slice(0, 16));
+        crc.update(block.slice(BLOCK_HEADER_BYTES, block.capacity() - BLOCK_HEADER_BYTES));
+        return (int) crc.getValue();
+    }
+
+    static int toFixed(double value) {
+        return (int) Math.round(value * FIXED_POINT_SCALE);
+    }
+
+    static double fromFixed(int value) {
+        return value / FIXED_POINT_SCALE;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long pos) throws IOException {
+        while (buffer.hasRemaining()) {
+            int n = channel.read(buffer, pos + buffer.position());
+            if (n < 0) {
+                throw new IOException("Oväntat filslut i " + channel);
+            }
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long pos) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, pos + buffer.position());
+        }
+    }
+}
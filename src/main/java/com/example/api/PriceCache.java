@@ -0,0 +1,473 @@
+package com.example.api;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Ett genomläsande, begränsat minnes-cache för elpriser där varje nyckel har högst en pågående laddning.
+ * <p>
+ * Nycklar är packade {@code long}-värden för dag och prisklass, se {@link #key(LocalDate, ElpriserAPI.Prisklass)},
+ * och lagras i en egen hashtabell med öppen adressering. En träff skapar därför inga objekt.
+ * <p>
+ * Den första tråden som saknar en nyckel startar laddningen; övriga trådar som frågar efter samma
+ * nyckel under tiden får samma {@link CompletableFuture}. Hur länge ett resultat sparas beror på dagen:
+ * <ul>
+ *     <li>passerade dagar är slutgiltiga och går aldrig ut,</li>
+ *     <li>idag och imorgon sparas under {@code freshTtl},</li>
+ *     <li>tomma resultat, dvs. 404, sparas bara under den korta {@code negativeTtl},</li>
+ *     <li>misslyckade laddningar sparas också under {@code negativeTtl}, så att ett avbrott i API:t
+ *     ger högst en hämtning per nyckel och {@code negativeTtl} i stället för en per anrop.</li>
+ * </ul>
+ * Ett utgånget resultat med priser lämnas ut som det är medan det laddas om i bakgrunden
+ * (stale-while-revalidate). Misslyckas omladdningen, t.ex. för att API:t inte svarar, fortsätter det
+ * gamla resultatet att lämnas ut och en ny omladdning görs tidigast efter {@code negativeTtl}.
+ * <p>
+ * När cachen innehåller fler än {@code maxEntries} poster tas utgångna och minst nyligen använda
+ * poster bort i en omgång, ned till 90 % av gränsen.
+ */
+final class PriceCache {
+
+    static final Duration DEFAULT_NEGATIVE_TTL = Duration.ofSeconds(60);
+    static final Duration DEFAULT_FRESH_TTL = Duration.ofHours(6);
+    static final int DEFAULT_MAX_ENTRIES = 4096;
+
+    private static final long NEVER = Long.MAX_VALUE;
+
+    private static final ElpriserAPI.Prisklass[] PRISKLASSER = ElpriserAPI.Prisklass.values();
+
+    private final SlotTable slots = new SlotTable();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final boolean retain;
+    private final int maxEntries;
+    private final long freshTtlNanos;
+    private final long negativeTtlNanos;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder staleHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param retain false för att bara slå ihop samtidiga laddningar utan att spara resultaten.
+     * @param negativeTtl hur länge tomma resultat och misslyckade laddningar sparas.
+     */
+    PriceCache(boolean retain, Duration negativeTtl) {
+        this(retain, DEFAULT_MAX_ENTRIES, DEFAULT_FRESH_TTL, negativeTtl);
+    }
+
+    /**
+     * @param retain false för att bara slå ihop samtidiga laddningar utan att spara resultaten.
+     * @param maxEntries högsta antal sparade poster.
+     * @param freshTtl hur länge priser för idag och senare dagar sparas.
+     * @param negativeTtl hur länge tomma resultat och misslyckade laddningar sparas.
+     */
+    PriceCache(boolean retain, int maxEntries, Duration freshTtl, Duration negativeTtl) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("maxEntries måste vara minst 1");
+        }
+        this.retain = retain;
+        this.maxEntries = maxEntries;
+        this.freshTtlNanos = freshTtl.toNanos();
+        this.negativeTtlNanos = negativeTtl.toNanos();
+    }
+
+    /**
+     * Packar dag och prisklass till en nyckel: {@code epochDay * antal prisklasser + ordinal}.
+     */
+    static long key(LocalDate datum, ElpriserAPI.Prisklass prisklass) {
+        return datum.toEpochDay() * PRISKLASSER.length + prisklass.ordinal();
+    }
+
+    static LocalDate datum(long key) {
+        return LocalDate.ofEpochDay(Math.floorDiv(key, PRISKLASSER.length));
+    }
+
+    static ElpriserAPI.Prisklass prisklass(long key) {
+        return PRISKLASSER[Math.floorMod(key, PRISKLASSER.length)];
+    }
+
+    /**
+     * @return nyckeln i samma form som disk-cachens filnamn, t.ex. "2025-08-30_SE3".
+     */
+    static String toString(long key) {
+        return datum(key) + "_" + prisklass(key).name();
+    }
+
+    private static final class Slot {
+        final long key;
+        final CompletableFuture<List<ElpriserAPI.Elpris>> future = new CompletableFuture<>();
+        // System.nanoTime() då posten går ut, NEVER för priser som inte går ut
+        volatile long expiresAt = NEVER;
+        // System.nanoTime() för senaste användning, för LRU-rensningen
+        volatile long lastAccess = System.nanoTime();
+        // Sann medan ett utgånget resultat laddas om i bakgrunden
+        final AtomicBoolean revalidating = new AtomicBoolean();
+
+        Slot(long key) {
+            this.key = key;
+        }
+
+        boolean isExpired(long now) {
+            long expires = expiresAt;
+            return expires != NEVER && now - expires >= 0;
+        }
+
+        boolean hasPrices() {
+            List<ElpriserAPI.Elpris> priser = future.getNow(null);
+            return priser != null && !priser.isEmpty();
+        }
+    }
+
+    /**
+     * @return det sparade resultatet för nyckeln, eller null om det saknas, har gått ut eller fortfarande laddas.
+     */
+    List<ElpriserAPI.Elpris> getIfPresent(long key) {
+        Slot slot = slots.get(key);
+        if (slot == null || !slot.future.isDone()) {
+            return null;
+        }
+        long now = System.nanoTime();
+        if (slot.isExpired(now)) {
+            return null;
+        }
+        slot.lastAccess = now;
+        hits.increment();
+        return slot.future.getNow(null);
+    }
+
+    /**
+     * Returnerar det sparade eller pågående resultatet för nyckeln, eller startar en ny laddning med
+     * {@code loader} om inget finns. Laddaren anropas i den anropande tråden och högst en gång åt gången
+     * per nyckel. Framtiden fullbordas aldrig med ett undantag; fel loggas och ger en tom lista som sparas
+     * under {@code negativeTtl}.
+     * Nyckelns dag styr hur länge resultatet sparas. Ett utgånget resultat med priser returneras direkt
+     * och laddas om med {@code loader} i en egen tråd.
+     */
+    CompletableFuture<List<ElpriserAPI.Elpris>> get(long key, Supplier<CompletableFuture<List<ElpriserAPI.Elpris>>> loader) {
+        return get(key, loader, stale -> loader.get());
+    }
+
+    /**
+     * Som {@link #get(long, Supplier)}, men ett utgånget resultat laddas om med {@code revalidator}, som får
+     * de gamla priserna. Den kan t.ex. göra en villkorlig hämtning och returnera samma lista om priserna
+     * inte har ändrats.
+     */
+    CompletableFuture<List<ElpriserAPI.Elpris>> get(long key, Supplier<CompletableFuture<List<ElpriserAPI.Elpris>>> loader,
+                                                    Function<List<ElpriserAPI.Elpris>, CompletableFuture<List<ElpriserAPI.Elpris>>> revalidator) {
+        while (true) {
+            Slot current = slots.get(key);
+            long now = System.nanoTime();
+            if (current != null && !current.isExpired(now)) {
+                current.lastAccess = now;
+                hits.increment();
+                return current.future;
+            }
+            if (current != null && retain && current.hasPrices()) {
+                current.lastAccess = now;
+                hits.increment();
+                staleHits.increment();
+                revalidate(current, revalidator);
+                return current.future;
+            }
+            Slot fresh = new Slot(key);
+            if (slots.replace(key, current, fresh)) {
+                misses.increment();
+                if (retain && slots.size() > maxEntries) {
+                    evict();
+                }
+                load(fresh, loader);
+                return fresh.future;
+            }
+        }
+    }
+
+    /**
+     * Sparar ett färdigt resultat för nyckeln och ersätter det som fanns, t.ex. ett tomt resultat från
+     * innan priserna publicerades. Gör ingenting om resultaten inte sparas.
+     */
+    void put(long key, List<ElpriserAPI.Elpris> priser) {
+        if (!retain) {
+            return;
+        }
+        Slot fresh = new Slot(key);
+        fresh.expiresAt = expiry(key, priser, System.nanoTime());
+        fresh.future.complete(priser);
+        while (true) {
+            Slot current = slots.get(key);
+            if (slots.replace(key, current, fresh)) {
+                if (current == null && slots.size() > maxEntries) {
+                    evict();
+                }
+                return;
+            }
+        }
+    }
+
+    CacheStats stats() {
+        return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), slots.size(), staleHits.sum());
+    }
+
+    /**
+     * Laddar om ett utgånget resultat i en virtuell tråd, om det inte redan laddas om. Nya priser ersätter
+     * posten; vid fel eller tomt resultat behålls de gamla priserna under {@code negativeTtl} till.
+     */
+    private void revalidate(Slot slot, Function<List<ElpriserAPI.Elpris>, CompletableFuture<List<ElpriserAPI.Elpris>>> revalidator) {
+        if (!slot.revalidating.compareAndSet(false, true)) {
+            return;
+        }
+        Thread.startVirtualThread(() -> {
+            CompletableFuture<List<ElpriserAPI.Elpris>> loading;
+            try {
+                loading = revalidator.apply(slot.future.getNow(null));
+            } catch (RuntimeException e) {
+                loading = CompletableFuture.failedFuture(e);
+            }
+            loading.whenComplete((priser, e) -> {
+                if (e == null && priser != null && !priser.isEmpty()) {
+                    put(slot.key, priser);
+                    return;
+                }
+                if (e != null) {
+                    Log.warning("Ett fel inträffade vid förnyelse av elpriser för " + toString(slot.key) + ": " + cause(e).getMessage());
+                }
+                slot.expiresAt = System.nanoTime() + negativeTtlNanos;
+                slot.revalidating.set(false);
+            });
+        });
+    }
+
+    private void load(Slot slot, Supplier<CompletableFuture<List<ElpriserAPI.Elpris>>> loader) {
+        CompletableFuture<List<ElpriserAPI.Elpris>> loading;
+        try {
+            loading = loader.get();
+        } catch (RuntimeException e) {
+            loading = CompletableFuture.failedFuture(e);
+        }
+        loading.whenComplete((priser, e) -> {
+            if (e != null) {
+                // Felet syns i loggen, medan anroparna får en tom lista som vid ett 404-svar
+                Log.warning("Ett fel inträffade vid hämtning av elpriser för " + toString(slot.key) + ": "
+                        + cause(e).getMessage() + (retain ? ", nytt försök om " + negativeTtlNanos / 1_000_000 + " ms" : ""));
+            }
+            List<ElpriserAPI.Elpris> result = e != null || priser == null ? Collections.emptyList() : priser;
+            if (!retain) {
+                slots.remove(slot.key, slot);
+            } else {
+                slot.expiresAt = expiry(slot.key, result, System.nanoTime());
+            }
+            slot.future.complete(result);
+        });
+    }
+
+    // Undantag från en framtid är ofta inslagna i ett CompletionException
+    private static Throwable cause(Throwable e) {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+    }
+
+    private long expiry(long key, List<ElpriserAPI.Elpris> priser, long now) {
+        if (priser.isEmpty()) {
+            return now + negativeTtlNanos;
+        }
+        if (Math.floorDiv(key, PRISKLASSER.length) < LocalDate.now(PriceSeries.ZONE).toEpochDay()) {
+            return NEVER;
+        }
+        return now + freshTtlNanos;
+    }
+
+    /**
+     * Tar bort utgångna poster och därefter de minst nyligen använda tills cachen är nere i 90 % av gränsen.
+     * Pågående laddningar tas aldrig bort. Om en annan tråd redan rensar hoppas rensningen över.
+     */
+    private void evict() {
+        if (!evictionLock.tryLock()) {
+            return;
+        }
+        try {
+            long now = System.nanoTime();
+            int target = Math.max(1, maxEntries - maxEntries / 10);
+            // Åldern läses en gång per post så att sorteringen inte påverkas av samtidiga träffar
+            record Candidate(Slot slot, long idleNanos) {}
+            List<Candidate> candidates = new ArrayList<>();
+            for (Slot slot : slots.snapshot()) {
+                if (!slot.future.isDone()) {
+                    continue;
+                }
+                if (slot.isExpired(now)) {
+                    if (slots.remove(slot.key, slot)) {
+                        evictions.increment();
+                    }
+                } else {
+                    candidates.add(new Candidate(slot, now - slot.lastAccess));
+                }
+            }
+            if (slots.size() <= target) {
+                return;
+            }
+            candidates.sort(Comparator.comparingLong(Candidate::idleNanos).reversed());
+            for (Candidate candidate : candidates) {
+                if (slots.size() <= target) {
+                    break;
+                }
+                if (slots.remove(candidate.slot().key, candidate.slot())) {
+                    evictions.increment();
+                }
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * En hashtabell från packad nyckel till {@link Slot} med öppen adressering och linjär sondering.
+     * <p>
+     * Uppslag sker utan lås och utan att skapa objekt. Ändringar görs under tabellens lås; borttagna
+     * poster ersätts med {@link #TOMBSTONE} och rensas bort när tabellen byggs om. En läsare som håller
+     * en gammal tabell kan som mest se en nyss borttagen eller missa en nyss tillagd post, vilket
+     * {@link #replace} och {@link #remove} hanterar genom att alltid jämföra mot den aktuella tabellen.
+     */
+    private static final class SlotTable {
+        private static final VarHandle ELEMENT = MethodHandles.arrayElementVarHandle(Slot[].class);
+        private static final Slot TOMBSTONE = new Slot(Long.MIN_VALUE);
+        private static final int MIN_CAPACITY = 16;
+
+        private volatile Slot[] table = new Slot[MIN_CAPACITY];
+        private volatile int size;
+        // Antal platser som inte är null, dvs. poster och gravstenar. Skyddas av låset
+        private int used;
+
+        Slot get(long key) {
+            Slot[] t = table;
+            int mask = t.length - 1;
+            // Tabellen är aldrig mer än halvfull så sonderingen når alltid en tom plats
+            for (int i = index(key, mask); ; i = (i + 1) & mask) {
+                Slot slot = (Slot) ELEMENT.getAcquire(t, i);
+                if (slot == null) {
+                    return null;
+                }
+                if (slot != TOMBSTONE && slot.key == key) {
+                    return slot;
+                }
+            }
+        }
+
+        int size() {
+            return size;
+        }
+
+        /**
+         * Ersätter {@code expected} med {@code replacement}. Om {@code expected} är null läggs
+         * {@code replacement} bara till om nyckeln saknas.
+         *
+         * @return false om nyckelns aktuella post inte var {@code expected}.
+         */
+        synchronized boolean replace(long key, Slot expected, Slot replacement) {
+            Slot[] t = table;
+            int mask = t.length - 1;
+            int free = -1;
+            for (int i = index(key, mask); ; i = (i + 1) & mask) {
+                Slot slot = t[i];
+                if (slot == null) {
+                    if (expected != null) {
+                        return false;
+                    }
+                    if (free < 0) {
+                        free = i;
+                        used++;
+                    }
+                    ELEMENT.setRelease(t, free, replacement);
+                    size++;
+                    if (used * 2 > t.length) {
+                        rehash();
+                    }
+                    return true;
+                }
+                if (slot == TOMBSTONE) {
+                    if (free < 0) {
+                        free = i;
+                    }
+                } else if (slot.key == key) {
+                    if (slot != expected) {
+                        return false;
+                    }
+                    ELEMENT.setRelease(t, i, replacement);
+                    return true;
+                }
+            }
+        }
+
+        /**
+         * Tar bort nyckeln om dess aktuella post är {@code expected}.
+         */
+        synchronized boolean remove(long key, Slot expected) {
+            Slot[] t = table;
+            int mask = t.length - 1;
+            for (int i = index(key, mask); ; i = (i + 1) & mask) {
+                Slot slot = t[i];
+                if (slot == null) {
+                    return false;
+                }
+                if (slot != TOMBSTONE && slot.key == key) {
+                    if (slot != expected) {
+                        return false;
+                    }
+                    ELEMENT.setRelease(t, i, TOMBSTONE);
+                    size--;
+                    return true;
+                }
+            }
+        }
+
+        /**
+         * @return en kopia av alla poster, i godtycklig ordning.
+         */
+        synchronized List<Slot> snapshot() {
+            List<Slot> result = new ArrayList<>(size);
+            for (Slot slot : table) {
+                if (slot != null && slot != TOMBSTONE) {
+                    result.add(slot);
+                }
+            }
+            return result;
+        }
+
+        // Bygger en ny tabell utan gravstenar, högst en fjärdedel full, och publicerar den
+        private void rehash() {
+            int capacity = MIN_CAPACITY;
+            while (capacity < size * 4) {
+                capacity <<= 1;
+            }
+            Slot[] rebuilt = new Slot[capacity];
+            int mask = capacity - 1;
+            for (Slot slot : table) {
+                if (slot == null || slot == TOMBSTONE) {
+                    continue;
+                }
+                int i = index(slot.key, mask);
+                while (rebuilt[i] != null) {
+                    i = (i + 1) & mask;
+                }
+                rebuilt[i] = slot;
+            }
+            used = size;
+            table = rebuilt;
+        }
+
+        private static int index(long key, int mask) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32)) & mask;
+        }
+    }
+}
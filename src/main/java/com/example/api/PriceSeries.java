@@ -0,0 +1,302 @@
+package com.example.api;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * En kolumnorienterad prisserie där varje fält i {@link ElpriserAPI.Elpris} lagras i en egen
+ * primitiv array. Tider lagras som epoch-sekunder och tolkas i {@link #ZONE} vid konvertering
+ * tillbaka till {@link ElpriserAPI.Elpris}.
+ * <p>
+ * Kolumnerna som returneras av t.ex. {@link #sekColumn()} är seriens egna arrayer och får inte ändras.
+ */
+public final class PriceSeries {
+
+    /** Tidszonen som elprisområdena använder. */
+    public static final ZoneId ZONE = ZoneId.of("Europe/Stockholm");
+
+    private static final PriceSeries EMPTY = new PriceSeries(new long[0], new long[0], new double[0], new double[0], new double[0]);
+
+    private final long[] start;
+    private final long[] end;
+    private final double[] sek;
+    private final double[] eur;
+    private final double[] exr;
+
+    PriceSeries(long[] start, long[] end, double[] sek, double[] eur, double[] exr) {
+        this.start = start;
+        this.end = end;
+        this.sek = sek;
+        this.eur = eur;
+        this.exr = exr;
+    }
+
+    public static PriceSeries empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Skapar en serie från en lista av {@link ElpriserAPI.Elpris}, i listans ordning.
+     */
+    public static PriceSeries of(List<ElpriserAPI.Elpris> priser) {
+        Builder builder = new Builder(priser.size());
+        for (ElpriserAPI.Elpris p : priser) {
+            builder.add(p.timeStart().toEpochSecond(), p.timeEnd().toEpochSecond(), p.sekPerKWh(), p.eurPerKWh(), p.exr());
+        }
+        return builder.build();
+    }
+
+    public int size() {
+        return start.length;
+    }
+
+    public boolean isEmpty() {
+        return start.length == 0;
+    }
+
+    public long startEpochSecond(int i) {
+        return start[i];
+    }
+
+    public long endEpochSecond(int i) {
+        return end[i];
+    }
+
+    public double sekPerKWh(int i) {
+        return sek[i];
+    }
+
+    public double eurPerKWh(int i) {
+        return eur[i];
+    }
+
+    public double exr(int i) {
+        return exr[i];
+    }
+
+    /**
+     * @return intervallets längd i sekunder, {@code end - start}. Kan vara noll eller negativ om källdatan är det.
+     */
+    public long durationSeconds(int i) {
+        return end[i] - start[i];
+    }
+
+    public long[] startColumn() {
+        return start;
+    }
+
+    public long[] endColumn() {
+        return end;
+    }
+
+    public double[] sekColumn() {
+        return sek;
+    }
+
+    public double[] eurColumn() {
+        return eur;
+    }
+
+    public double[] exrColumn() {
+        return exr;
+    }
+
+    /**
+     * Seriens intervall i sekunder: det kortaste positiva avståndet mellan två starttider. En serie
+     * med en rad använder radens längd och en tom serie, eller en rad utan längd, en timme.
+     */
+    public long intervalSeconds() {
+        long shortest = Long.MAX_VALUE;
+        for (int i = 1; i < start.length; i++) {
+            long step = start[i] - start[i - 1];
+            if (step > 0 && step < shortest) {
+                shortest = step;
+            }
+        }
+        if (shortest == Long.MAX_VALUE) {
+            shortest = start.length > 0 && durationSeconds(0) > 0 ? durationSeconds(0) : 3600;
+        }
+        return shortest;
+    }
+
+    /**
+     * Slår ihop rader till intervall om {@code bucketSeconds}, t.ex. 3600 för timpriser.
+     * <p>
+     * Intervallen räknas på absolut tid, med första radens UTC-offset i {@link #ZONE} som startpunkt
+     * så att de börjar på hela lokala timmar. Därför hålls t.ex. de två timmarna 02:00 vid övergång
+     * till vintertid isär. Raderna förutsätts vara i tidsordning; varje intervall får medelvärdet av
+     * sina rader, summerat i radordning, första radens starttid och sista radens sluttid. Rader som
+     * redan är längre än intervallet lämnas orörda.
+     *
+     * @return en ny serie, eller samma serie om inga rader slogs ihop.
+     */
+    public PriceSeries resample(long bucketSeconds) {
+        if (bucketSeconds <= 0) {
+            throw new IllegalArgumentException("Intervallet måste vara positivt: " + bucketSeconds);
+        }
+        if (start.length < 2) {
+            return this;
+        }
+        long anchor = ZONE.getRules().getOffset(Instant.ofEpochSecond(start[0])).getTotalSeconds();
+        Builder builder = new Builder(start.length);
+        int first = 0;
+        long bucket = Math.floorDiv(start[0] + anchor, bucketSeconds);
+        for (int i = 1; i <= start.length; i++) {
+            long next = i < start.length ? Math.floorDiv(start[i] + anchor, bucketSeconds) : Long.MIN_VALUE;
+            if (next == bucket) {
+                continue;
+            }
+            double sekSum = 0.0, eurSum = 0.0, exrSum = 0.0;
+            for (int j = first; j < i; j++) {
+                sekSum += sek[j];
+                eurSum += eur[j];
+                exrSum += exr[j];
+            }
+            int count = i - first;
+            builder.add(start[first], end[i - 1], sekSum / count, eurSum / count, exrSum / count);
+            first = i;
+            bucket = next;
+        }
+        return builder.size() == start.length ? this : builder.build();
+    }
+
+    /**
+     * @return en ny serie med raderna från och med {@code from} till, men inte med, {@code to}.
+     */
+    public PriceSeries slice(int from, int to) {
+        if (from == 0 && to == size()) {
+            return this;
+        }
+        if (from == to) {
+            Objects.checkFromToIndex(from, to, size());
+            return EMPTY;
+        }
+        return new PriceSeries(Arrays.copyOfRange(start, from, to), Arrays.copyOfRange(end, from, to),
+                Arrays.copyOfRange(sek, from, to), Arrays.copyOfRange(eur, from, to), Arrays.copyOfRange(exr, from, to));
+    }
+
+    /**
+     * @return en ny serie med raderna i {@code rows}, i den ordningen.
+     */
+    public PriceSeries select(int[] rows) {
+        Builder builder = new Builder(rows.length);
+        for (int i : rows) {
+            builder.add(start[i], end[i], sek[i], eur[i], exr[i]);
+        }
+        return builder.build();
+    }
+
+    /**
+     * @return en ny serie med den här seriens rader följda av raderna i {@code other}.
+     */
+    public PriceSeries concat(PriceSeries other) {
+        if (other.isEmpty()) {
+            return this;
+        }
+        if (isEmpty()) {
+            return other;
+        }
+        return new PriceSeries(concat(start, other.start), concat(end, other.end),
+                concat(sek, other.sek), concat(eur, other.eur), concat(exr, other.exr));
+    }
+
+    private static long[] concat(long[] a, long[] b) {
+        long[] result = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, result, a.length, b.length);
+        return result;
+    }
+
+    private static double[] concat(double[] a, double[] b) {
+        double[] result = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, result, a.length, b.length);
+        return result;
+    }
+
+    /**
+     * Skapar ett {@link ElpriserAPI.Elpris} för rad {@code i}. Tiderna får svensk tids offset vid tidpunkten,
+     * som i API:ts svar, så att raden är lika med den som {@link ElprisJsonParser} ger för samma pris.
+     */
+    public ElpriserAPI.Elpris get(int i) {
+        return new ElpriserAPI.Elpris(sek[i], eur[i], exr[i], toZoned(start[i]), toZoned(end[i]));
+    }
+
+    private static ZonedDateTime toZoned(long epochSecond) {
+        Instant instant = Instant.ofEpochSecond(epochSecond);
+        return ZonedDateTime.ofInstant(instant, ZONE.getRules().getOffset(instant));
+    }
+
+    /**
+     * @return en ny, muterbar lista med alla rader som {@link ElpriserAPI.Elpris}.
+     */
+    public List<ElpriserAPI.Elpris> toList() {
+        List<ElpriserAPI.Elpris> list = new ArrayList<>(size());
+        for (int i = 0; i < size(); i++) {
+            list.add(get(i));
+        }
+        return list;
+    }
+
+    /**
+     * Bygger upp en {@link PriceSeries} rad för rad.
+     */
+    public static final class Builder {
+        private long[] start;
+        private long[] end;
+        private double[] sek;
+        private double[] eur;
+        private double[] exr;
+        private int size;
+
+        public Builder() {
+            this(96);
+        }
+
+        public Builder(int capacity) {
+            int c = Math.max(capacity, 1);
+            start = new long[c];
+            end = new long[c];
+            sek = new double[c];
+            eur = new double[c];
+            exr = new double[c];
+        }
+
+        public Builder add(long startEpochSecond, long endEpochSecond, double sekPerKWh, double eurPerKWh, double exrValue) {
+            if (size == start.length) {
+                grow();
+            }
+            start[size] = startEpochSecond;
+            end[size] = endEpochSecond;
+            sek[size] = sekPerKWh;
+            eur[size] = eurPerKWh;
+            exr[size] = exrValue;
+            size++;
+            return this;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        private void grow() {
+            int c = start.length * 2;
+            start = Arrays.copyOf(start, c);
+            end = Arrays.copyOf(end, c);
+            sek = Arrays.copyOf(sek, c);
+            eur = Arrays.copyOf(eur, c);
+            exr = Arrays.copyOf(exr, c);
+        }
+
+        public PriceSeries build() {
+            if (size == 0) {
+                return EMPTY;
+            }
+            return new PriceSeries(Arrays.copyOf(start, size), Arrays.copyOf(end, size),
+                    Arrays.copyOf(sek, size), Arrays.copyOf(eur, size), Arrays.copyOf(exr, size));
+        }
+    }
+}
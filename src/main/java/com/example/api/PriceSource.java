@@ -0,0 +1,58 @@
+package com.example.api;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * En källa för elpriser som {@link ElpriserAPI} laddar från vid en miss i minnes-cachen.
+ * <p>
+ * Standardkällan frågar arkivet med passerade dagar, disk-cachen och till sist nätverket i en
+ * {@link TieredPriceSource}. Med {@link ElpriserAPI#ElpriserAPI(boolean, PriceSource)} används en annan
+ * källa, t.ex. en {@link InMemoryPriceSource} i last- och prestandatester eller en {@link ReplayPriceSource}
+ * med inspelade svar, utan nätverk och utan global mock-data.
+ * <p>
+ * En källa returnerar null när den inte har dagen, så att nästa källa i en kedja får frågan, och en tom
+ * lista när den vet att priserna saknas, t.ex. för ett 404-svar från API:t. Fel, t.ex. när API:t inte
+ * svarar, kastas som undantag eller ger en misslyckad framtid, så att de inte tas för saknade priser.
+ * Implementationer ska vara trådsäkra.
+ */
+public interface PriceSource {
+
+    /**
+     * Hämtar priser för en dag och prisklass.
+     *
+     * @return priserna, en tom lista om de inte finns, eller null om källan inte har dagen.
+     * @throws java.io.UncheckedIOException eller annat {@link RuntimeException} om priserna inte kunde hämtas.
+     */
+    List<ElpriserAPI.Elpris> fetch(LocalDate datum, ElpriserAPI.Prisklass prisklass);
+
+    /**
+     * Som {@link #fetch} utan att blockera. Fel ger en misslyckad framtid. Standard är att anropa
+     * {@link #fetch} i den anropande tråden.
+     */
+    default CompletableFuture<List<ElpriserAPI.Elpris>> fetchAsync(LocalDate datum, ElpriserAPI.Prisklass prisklass) {
+        try {
+            return CompletableFuture.completedFuture(fetch(datum, prisklass));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Hämtar om priser som har gått ut i minnes-cachen. En källa som kan fråga om priserna har ändrats
+     * returnerar {@code stale} om de inte har det. Vid fel misslyckas framtiden och {@code stale} får
+     * fortsätta att användas. Standard är {@link #fetchAsync}.
+     */
+    default CompletableFuture<List<ElpriserAPI.Elpris>> revalidate(LocalDate datum, ElpriserAPI.Prisklass prisklass,
+                                                                   List<ElpriserAPI.Elpris> stale) {
+        return fetchAsync(datum, prisklass);
+    }
+
+    /**
+     * Tar emot priser som en senare källa i en {@link TieredPriceSource} hittade, så att de kan besvaras
+     * härifrån nästa gång. Standard är att inte spara något.
+     */
+    default void store(LocalDate datum, ElpriserAPI.Prisklass prisklass, List<ElpriserAPI.Elpris> priser) {
+    }
+}
@@ -0,0 +1,222 @@
+package com.example.api;
+
+import java.util.Arrays;
+
+/**
+ * Sammanfattande statistik för SEK, EUR och växelkurs i en {@link PriceSeries}.
+ * <p>
+ * Antal, min, max, medelvärde och standardavvikelse för alla tre kolumnerna räknas fram i en
+ * enda genomläsning av serien. Medianen och andra percentiler kräver sorterade värden; de räknas
+ * fram vid första anropet genom att en kopia av kolumnen sorteras, så det kostar ingenting för den
+ * som bara behöver grundstatistiken.
+ */
+public final class PriceStatistics {
+
+    private final Column sek;
+    private final Column eur;
+    private final Column exr;
+
+    private PriceStatistics(Column sek, Column eur, Column exr) {
+        this.sek = sek;
+        this.eur = eur;
+        this.exr = exr;
+    }
+
+    /**
+     * Räknar fram statistik för hela serien.
+     */
+    public static PriceStatistics of(PriceSeries series) {
+        return of(series, 0, series.size());
+    }
+
+    /**
+     * Räknar fram statistik för raderna från och med {@code from} till, men inte med, {@code to},
+     * t.ex. en dag i en längre serie, utan att kopiera raderna.
+     */
+    public static PriceStatistics of(PriceSeries series, int from, int to) {
+        if (from < 0 || to > series.size() || from > to) {
+            throw new IndexOutOfBoundsException("Ogiltigt intervall " + from + "-" + to + " för " + series.size() + " rader");
+        }
+        double[] sekColumn = series.sekColumn();
+        double[] eurColumn = series.eurColumn();
+        double[] exrColumn = series.exrColumn();
+        Accumulator s = new Accumulator();
+        Accumulator e = new Accumulator();
+        Accumulator x = new Accumulator();
+        for (int i = from; i < to; i++) {
+            s.add(sekColumn[i], i);
+            e.add(eurColumn[i], i);
+            x.add(exrColumn[i], i);
+        }
+        return new PriceStatistics(
+                s.toColumn(sekColumn, from, to),
+                e.toColumn(eurColumn, from, to),
+                x.toColumn(exrColumn, from, to));
+    }
+
+    public Column sek() {
+        return sek;
+    }
+
+    public Column eur() {
+        return eur;
+    }
+
+    public Column exr() {
+        return exr;
+    }
+
+    /**
+     * Statistik för en kolumn. För en tom serie är medelvärde och standardavvikelse 0, min och max
+     * NaN och radindexen -1.
+     */
+    public static final class Column {
+        private final int count;
+        private final double min;
+        private final int minIndex;
+        private final double max;
+        private final int maxIndex;
+        private final double mean;
+        private final double stddev;
+
+        private final double[] values;
+        private final int from;
+        private final int to;
+        private double[] sorted;
+
+        private Column(int count, double min, int minIndex, double max, int maxIndex, double mean, double stddev,
+                       double[] values, int from, int to) {
+            this.count = count;
+            this.min = min;
+            this.minIndex = minIndex;
+            this.max = max;
+            this.maxIndex = maxIndex;
+            this.mean = mean;
+            this.stddev = stddev;
+            this.values = values;
+            this.from = from;
+            this.to = to;
+        }
+
+        public int count() {
+            return count;
+        }
+
+        public double min() {
+            return min;
+        }
+
+        /**
+         * @return raden i serien med lägst värde, den första om flera är lika. -1 om serien är tom.
+         */
+        public int minIndex() {
+            return minIndex;
+        }
+
+        public double max() {
+            return max;
+        }
+
+        /**
+         * @return raden i serien med högst värde, den första om flera är lika. -1 om serien är tom.
+         */
+        public int maxIndex() {
+            return maxIndex;
+        }
+
+        /**
+         * @return summan i radordning delad med antalet, samma resultat som en enkel summering.
+         */
+        public double mean() {
+            return mean;
+        }
+
+        /**
+         * @return populationens standardavvikelse.
+         */
+        public double stddev() {
+            return stddev;
+        }
+
+        public double median() {
+            return percentile(50);
+        }
+
+        /**
+         * Percentil med linjär interpolation mellan de närmaste sorterade värdena.
+         *
+         * @param p percentil mellan 0 och 100.
+         * @return percentilen, eller NaN om serien är tom.
+         */
+        public double percentile(double p) {
+            if (p < 0 || p > 100 || Double.isNaN(p)) {
+                throw new IllegalArgumentException("Percentilen måste vara mellan 0 och 100: " + p);
+            }
+            if (count == 0) {
+                return Double.NaN;
+            }
+            double[] s = sorted();
+            double rank = p / 100 * (count - 1);
+            int lower = (int) rank;
+            if (lower == count - 1) {
+                return s[lower];
+            }
+            return s[lower] + (rank - lower) * (s[lower + 1] - s[lower]);
+        }
+
+        private double[] sorted() {
+            double[] s = sorted;
+            if (s == null) {
+                s = Arrays.copyOfRange(values, from, to);
+                Arrays.sort(s);
+                sorted = s;
+            }
+            return s;
+        }
+    }
+
+    /**
+     * Löpande min, max, summa och kvadratavvikelse (Welfords metod) för en kolumn.
+     */
+    private static final class Accumulator {
+        private int count;
+        private double min = Double.NaN;
+        private int minIndex = -1;
+        private double max = Double.NaN;
+        private int maxIndex = -1;
+        private double sum;
+        private double runningMean;
+        private double m2;
+
+        void add(double value, int i) {
+            // Första raden blir både min och max, övriga jämförs strikt så att den första vinner vid lika
+            if (count == 0) {
+                min = value;
+                max = value;
+                minIndex = i;
+                maxIndex = i;
+            } else {
+                if (value < min) {
+                    min = value;
+                    minIndex = i;
+                }
+                if (value > max) {
+                    max = value;
+                    maxIndex = i;
+                }
+            }
+            count++;
+            sum += value;
+            double delta = value - runningMean;
+            runningMean += delta / count;
+            m2 += delta * (value - runningMean);
+        }
+
+        Column toColumn(double[] values, int from, int to) {
+            if (count == 0) {
+                return new Column(0, Double.NaN, -1, Double.NaN, -1, 0.0, 0.0, values, from, to);
+            }
+            return new Column(count, min, minIndex, max, maxIndex, sum / count, Math.sqrt(m2 / count), values, from, to);
+        }
+    }
+}
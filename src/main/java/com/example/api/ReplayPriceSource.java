@@ -0,0 +1,95 @@
+package com.example.api;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * En källa som spelar upp inspelade svar från en katalog, en fil per dag och prisklass med samma namn
+ * som i disk-cachen, t.ex. {@code 2025-09-04_SE3.json}.
+ * <p>
+ * Filerna kan vara API:ts svar som de är eller disk-cachens filer, så en befintlig cachekatalog kan
+ * spelas upp direkt. Som nivå framför nätverket i en {@link TieredPriceSource} spelar källan in de priser
+ * som hämtas, så att en körning kan upprepas senare utan nätverk.
+ */
+public final class ReplayPriceSource implements PriceSource {
+
+    private static final String SUFFIX = ".json";
+
+    private final Path directory;
+
+    public ReplayPriceSource(Path directory) {
+        this.directory = directory;
+    }
+
+    public Path directory() {
+        return directory;
+    }
+
+    @Override
+    public List<ElpriserAPI.Elpris> fetch(LocalDate datum, ElpriserAPI.Prisklass prisklass) {
+        Path file = file(datum, prisklass);
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try {
+            byte[] data = Files.readAllBytes(file);
+            if (data.length > 0 && data[0] == '#') {
+                DiskCache.Entry entry = DiskCache.decode(data);
+                if (entry == null) {
+                    Log.warning("Korrupt inspelning hoppas över: " + file);
+                    return null;
+                }
+                data = entry.body();
+            }
+            return ElprisJsonParser.parse(data);
+        } catch (IOException e) {
+            Log.warning("Kunde inte läsa inspelningen " + file + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Spelar in priserna i API:ts format, atomiskt via en temporär fil.
+     */
+    @Override
+    public void store(LocalDate datum, ElpriserAPI.Prisklass prisklass, List<ElpriserAPI.Elpris> priser) {
+        try {
+            Files.createDirectories(directory);
+            Path tmp = Files.createTempFile(directory, datum + "_" + prisklass.name(), ".tmp");
+            try {
+                Files.writeString(tmp, toJson(priser), StandardCharsets.UTF_8);
+                DiskCache.moveAtomically(tmp, file(datum, prisklass));
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+        } catch (IOException e) {
+            Log.warning("Kunde inte spela in " + datum + "_" + prisklass.name() + ": " + e.getMessage());
+        }
+    }
+
+    private Path file(LocalDate datum, ElpriserAPI.Prisklass prisklass) {
+        return directory.resolve(datum + "_" + prisklass.name() + SUFFIX);
+    }
+
+    static String toJson(List<ElpriserAPI.Elpris> priser) {
+        StringBuilder json = new StringBuilder(priser.size() * 140 + 2).append('[');
+        for (int i = 0; i < priser.size(); i++) {
+            ElpriserAPI.Elpris pris = priser.get(i);
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"SEK_per_kWh\":").append(pris.sekPerKWh())
+                    .append(",\"EUR_per_kWh\":").append(pris.eurPerKWh())
+                    .append(",\"EXR\":").append(pris.exr())
+                    .append(",\"time_start\":\"").append(DateTimeFormatter.ISO_OFFSET_DATE_TIME.format(pris.timeStart()))
+                    .append("\",\"time_end\":\"").append(DateTimeFormatter.ISO_OFFSET_DATE_TIME.format(pris.timeEnd()))
+                    .append("\"}");
+        }
+        return json.append(']').toString();
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.api;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * En kedja av källor som frågas i tur och ordning tills någon har dagen.
+ * <p>
+ * När en källa har priserna lämnas de till {@link PriceSource#store} på alla källor före den i kedjan,
+ * så att de snabbare källorna kan besvara frågan nästa gång. Standardkedjan i {@link ElpriserAPI} är
+ * arkivet följt av nätverket med disk-cache, så att passerade dagar som hämtas från nätverket hamnar i
+ * arkivet. Kedjor kan också byggas av egna källor, t.ex. en {@link InMemoryPriceSource} framför en
+ * {@link ReplayPriceSource}.
+ * <p>
+ * Ett fel i en källa avbryter kedjan och når anroparen i stället för att tas för en miss.
+ */
+public final class TieredPriceSource implements PriceSource {
+
+    private final List<PriceSource> tiers;
+
+    private TieredPriceSource(List<PriceSource> tiers) {
+        this.tiers = tiers;
+    }
+
+    /**
+     * @param tiers källorna, den som frågas först först.
+     */
+    public static TieredPriceSource of(PriceSource... tiers) {
+        if (tiers.length == 0) {
+            throw new IllegalArgumentException("En kedja måste ha minst en källa");
+        }
+        return new TieredPriceSource(List.of(tiers));
+    }
+
+    @Override
+    public List<ElpriserAPI.Elpris> fetch(LocalDate datum, ElpriserAPI.Prisklass prisklass) {
+        for (int tier = 0; tier < tiers.size(); tier++) {
+            List<ElpriserAPI.Elpris> priser = tiers.get(tier).fetch(datum, prisklass);
+            if (priser != null) {
+                storeBefore(tier, datum, prisklass, priser);
+                return priser;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public CompletableFuture<List<ElpriserAPI.Elpris>> fetchAsync(LocalDate datum, ElpriserAPI.Prisklass prisklass) {
+        return fetchAsync(0, datum, prisklass, null);
+    }
+
+    /**
+     * Låter källorna förnya priserna i tur och ordning med {@link PriceSource#revalidate}.
+     */
+    @Override
+    public CompletableFuture<List<ElpriserAPI.Elpris>> revalidate(LocalDate datum, ElpriserAPI.Prisklass prisklass,
+                                                                  List<ElpriserAPI.Elpris> stale) {
+        return fetchAsync(0, datum, prisklass, stale);
+    }
+
+    @Override
+    public void store(LocalDate datum, ElpriserAPI.Prisklass prisklass, List<ElpriserAPI.Elpris> priser) {
+        storeBefore(tiers.size(), datum, prisklass, priser);
+    }
+
+    private CompletableFuture<List<ElpriserAPI.Elpris>> fetchAsync(int tier, LocalDate datum, ElpriserAPI.Prisklass prisklass,
+                                                                   List<ElpriserAPI.Elpris> stale) {
+        if (tier == tiers.size()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        PriceSource source = tiers.get(tier);
+        CompletableFuture<List<ElpriserAPI.Elpris>> loading = stale == null
+                ? source.fetchAsync(datum, prisklass)
+                : source.revalidate(datum, prisklass, stale);
+        return loading.thenCompose(priser -> {
+            if (priser == null) {
+                return fetchAsync(tier + 1, datum, prisklass, stale);
+            }
+            storeBefore(tier, datum, prisklass, priser);
+            return CompletableFuture.completedFuture(priser);
+        });
+    }
+
+    private void storeBefore(int tier, LocalDate datum, ElpriserAPI.Prisklass prisklass, List<ElpriserAPI.Elpris> priser) {
+        if (priser.isEmpty()) {
+            return;
+        }
+        for (int i = 0; i < tier; i++) {
+            tiers.get(i).store(datum, prisklass, priser);
+        }
+    }
+}
@@ -441,6 +441,73 @@ class MainTest {
         assertThat(output).contains("Medelpris: " + formatOre(expectedMean) + " öre");
     }
 
+    @Test
+    void findOptimalCharging_withMinutesDuration_roundsUpToWholeHours() {
+        String mockJson = """
+                [{"SEK_per_kWh":0.50,"EUR_per_kWh":0.05,"EXR":10.0,"time_start":"2025-09-04T00:00:00+02:00","time_end":"2025-09-04T01:00:00+02:00"},
+                 {"SEK_per_kWh":0.40,"EUR_per_kWh":0.04,"EXR":10.0,"time_start":"2025-09-04T01:00:00+02:00","time_end":"2025-09-04T02:00:00+02:00"},
+                 {"SEK_per_kWh":0.05,"EUR_per_kWh":0.005,"EXR":10.0,"time_start":"2025-09-04T02:00:00+02:00","time_end":"2025-09-04T03:00:00+02:00"},
+                 {"SEK_per_kWh":0.15,"EUR_per_kWh":0.015,"EXR":10.0,"time_start":"2025-09-04T03:00:00+02:00","time_end":"2025-09-04T04:00:00+02:00"},
+                 {"SEK_per_kWh":0.30,"EUR_per_kWh":0.03,"EXR":10.0,"time_start":"2025-09-04T04:00:00+02:00","time_end":"2025-09-04T05:00:00+02:00"}]""";
+        ElpriserAPI.setMockResponseForDate(LocalDate.of(2025, 9, 4), mockJson);
+
+        Main.main(new String[]{"--zone", "SE3", "--date", "2025-09-04", "--charging", "1h30m"});
+
+        String output = bos.toString();
+        // 1h30m needs two hourly slots: 02-03 + 03-04
+        assertThat(output).contains("Påbörja laddning: kl 02:00");
+        assertThat(output).contains("Medelpris för fönster: " + formatOre(0.10) + " öre");
+    }
+
+    @Test
+    void handleInvalidChargingDuration() {
+        Main.main(new String[]{"--zone", "SE3", "--date", "2025-09-04", "--charging", "20m"});
+
+        assertThat(bos.toString()).contains("Invalid charging window: 20m");
+    }
+
+    @Test
+    void scheduleEnergy_picksCheapestHoursBeforeDeadline() {
+        String mockJson = """
+                [{"SEK_per_kWh":0.50,"EUR_per_kWh":0.05,"EXR":10.0,"time_start":"2025-09-04T00:00:00+02:00","time_end":"2025-09-04T01:00:00+02:00"},
+                 {"SEK_per_kWh":0.10,"EUR_per_kWh":0.01,"EXR":10.0,"time_start":"2025-09-04T01:00:00+02:00","time_end":"2025-09-04T02:00:00+02:00"},
+                 {"SEK_per_kWh":0.40,"EUR_per_kWh":0.04,"EXR":10.0,"time_start":"2025-09-04T02:00:00+02:00","time_end":"2025-09-04T03:00:00+02:00"},
+                 {"SEK_per_kWh":0.20,"EUR_per_kWh":0.02,"EXR":10.0,"time_start":"2025-09-04T03:00:00+02:00","time_end":"2025-09-04T04:00:00+02:00"},
+                 {"SEK_per_kWh":0.05,"EUR_per_kWh":0.005,"EXR":10.0,"time_start":"2025-09-04T04:00:00+02:00","time_end":"2025-09-04T05:00:00+02:00"}]""";
+        ElpriserAPI.setMockResponseForDate(LocalDate.of(2025, 9, 4), mockJson);
+
+        Main.main(new String[]{"--zone", "SE3", "--date", "2025-09-04", "--energy", "5", "--power", "2,5", "--deadline", "04:00"});
+
+        String output = bos.toString();
+        assertThat(output).contains("Laddschema för 5,00 kWh:");
+        assertThat(output).contains("01-02 10,00 öre 2,50 kWh");
+        assertThat(output).contains("03-04 20,00 öre 2,50 kWh");
+        assertThat(output).doesNotContain("04-05");
+        assertThat(output).contains("Medelpris för schema: 15,00 öre");
+        assertThat(output).contains("Kostnad: 0,75 kr");
+    }
+
+    @Test
+    void nativeResolution_printsQuarterHours_andChargesAtQuarterHours() {
+        StringBuilder json = new StringBuilder("[");
+        for (int quarter = 0; quarter < 8; quarter++) {
+            if (quarter > 0) json.append(',');
+            double price = quarter == 3 || quarter == 4 ? 0.01 : 0.50;
+            json.append(String.format(Locale.US,
+                    "{\"SEK_per_kWh\":%.2f,\"EUR_per_kWh\":0.01,\"EXR\":10.0,\"time_start\":\"2025-09-04T%02d:%02d:00+02:00\",\"time_end\":\"2025-09-04T%02d:%02d:00+02:00\"}",
+                    price, quarter / 4, quarter % 4 * 15, (quarter + 1) / 4, (quarter + 1) % 4 * 15));
+        }
+        ElpriserAPI.setMockResponseForDate(LocalDate.of(2025, 9, 4), json.append(']').toString());
+
+        Main.main(new String[]{"--zone", "SE3", "--date", "2025-09-04", "--resolution", "native", "--charging", "30m"});
+
+        String output = bos.toString();
+        assertThat(output).contains("Påbörja laddning: kl 00:45");
+        assertThat(output).contains("00:45-01:00 1,00 öre");
+        assertThat(output).contains("01:00-01:15 1,00 öre");
+        assertThat(output).contains("Medelpris för fönster: 1,00 öre");
+    }
+
     private String formatOre(double sekPerKWh) {
         double ore = sekPerKWh * 100.0;
         DecimalFormatSymbols symbols = new DecimalFormatSymbols(new Locale("sv", "SE"));
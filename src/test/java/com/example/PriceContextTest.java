@@ -0,0 +1,60 @@
+package com.example;
+
+import com.example.api.ElpriserAPI;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PriceContextTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 9, 4);
+
+    private PrintStream originalOut;
+    private ByteArrayOutputStream bos;
+
+    @BeforeEach
+    void setup() {
+        originalOut = System.out;
+        bos = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(bos));
+    }
+
+    @AfterEach
+    void tearDown() {
+        System.setOut(originalOut);
+        ElpriserAPI.clearMockResponse();
+    }
+
+    @Test
+    void eachDayIsFetchedOnce_evenWithoutCaching() {
+        ElpriserAPI.setMockResponseForDate(DAY, """
+                [{"SEK_per_kWh":0.1,"EUR_per_kWh":0.01,"EXR":10.0,"time_start":"2025-09-04T00:00:00+02:00","time_end":"2025-09-04T01:00:00+02:00"}]""");
+        ElpriserAPI api = new ElpriserAPI(false);
+        PriceContext context = new PriceContext(api, ElpriserAPI.Prisklass.SE3);
+
+        context.prefetch(DAY.plusDays(1));
+        assertThat(context.prices(DAY)).hasSize(1);
+        assertThat(context.prices(DAY)).hasSize(1);
+        assertThat(context.prices(DAY.plusDays(1))).isEmpty(); //a day without data is not fetched again either
+        assertThat(context.prices(DAY.plusDays(1))).isEmpty();
+
+        assertThat(api.getMetrics().getMockResponses()).isEqualTo(2);
+        assertThat(context.fetchedDays()).isEqualTo(2);
+    }
+
+    @Test
+    void verbose_printsFetchedDaysAndTime() {
+        ElpriserAPI.setMockResponseForDate(DAY, """
+                [{"SEK_per_kWh":0.1,"EUR_per_kWh":0.01,"EXR":10.0,"time_start":"2025-09-04T00:00:00+02:00","time_end":"2025-09-04T01:00:00+02:00"}]""");
+
+        Main.main(new String[]{"--zone", "SE3", "--date", "2025-09-04", "--verbose"});
+
+        assertThat(bos.toString()).containsPattern("Fetched 2 days in \\d+ ms");
+    }
+}
@@ -0,0 +1,88 @@
+package com.example;
+
+import com.example.api.ElpriserAPI;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PriceServerTest {
+
+    private PriceServer server;
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @BeforeEach
+    void setup() throws Exception {
+        StringBuilder json = new StringBuilder("[");
+        for (int hour = 0; hour < 6; hour++) {
+            if (hour > 0) json.append(',');
+            double price = hour == 2 || hour == 3 ? 0.05 : 0.40 + hour / 100.0;
+            json.append(String.format(Locale.US,
+                    "{\"SEK_per_kWh\":%.2f,\"EUR_per_kWh\":0.01,\"EXR\":11.0,\"time_start\":\"2025-09-04T%02d:00:00+02:00\",\"time_end\":\"2025-09-04T%02d:00:00+02:00\"}",
+                    price, hour, hour + 1));
+        }
+        ElpriserAPI.setMockResponseForDate(LocalDate.of(2025, 9, 4), json.append(']').toString());
+        server = PriceServer.start(0, new ElpriserAPI(false));
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop();
+        ElpriserAPI.clearMockResponse();
+    }
+
+    @Test
+    void stats_returnsPricesMinMaxAndMeanAsJson() throws Exception {
+        HttpResponse<String> response = get("?zone=SE3&date=2025-09-04");
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.headers().firstValue("Content-Type")).hasValueSatisfying(type -> assertThat(type).startsWith("application/json"));
+        assertThat(response.body())
+                .startsWith("{\"zone\":\"SE3\",\"date\":\"2025-09-04\",\"prices\":[{\"start\":\"2025-09-04T00:00:00+02:00\"")
+                .contains("\"min\":{\"start\":\"2025-09-04T02:00:00+02:00\",\"end\":\"2025-09-04T03:00:00+02:00\",\"sekPerKWh\":0.05")
+                .contains("\"max\":{\"start\":\"2025-09-04T05:00:00+02:00\"");
+    }
+
+    @Test
+    void charging_andEnergy_answerLikeTheCommandLine() throws Exception {
+        HttpResponse<String> charging = get("?zone=SE3&date=2025-09-04&charging=2h");
+        HttpResponse<String> energy = get("?zone=SE3&date=2025-09-04&energy=3&power=2");
+
+        assertThat(charging.body()).contains("\"charging\":\"PT2H\",\"start\":\"2025-09-04T02:00:00+02:00\",\"mean\":0.05");
+        assertThat(energy.statusCode()).isEqualTo(200);
+        assertThat(energy.body())
+                .contains("\"energyKWh\":3.0")
+                .contains("{\"start\":\"2025-09-04T02:00:00+02:00\",\"end\":\"2025-09-04T03:00:00+02:00\",\"sekPerKWh\":0.05,\"eurPerKWh\":0.01,\"exr\":11.0,\"energyKWh\":2.0}")
+                .contains("\"energyKWh\":1.0}");
+    }
+
+    @Test
+    void invalidQueries_returnErrors() throws Exception {
+        assertThat(get("?zone=SE9").statusCode()).isEqualTo(400);
+        assertThat(get("?zone=SE3&charging=20m").body()).isEqualTo("{\"error\":\"Invalid charging window: 20m\"}");
+        assertThat(get("?zone=SE3&foo=%22x%22").body()).isEqualTo("{\"error\":\"Invalid argument: foo\"}");
+        assertThat(get("?zone=SE3&date=2025-09-10").statusCode()).isEqualTo(404);
+    }
+
+    @Test
+    void parseQuery_decodesValuesAndFlags() {
+        assertThat(PriceServer.parseQuery("zone=SE3&sorted&deadline=07%3A00"))
+                .containsEntry("zone", "SE3")
+                .containsEntry("sorted", "true")
+                .containsEntry("deadline", "07:00");
+        assertThat(PriceServer.quote("a\"b\\\n")).isEqualTo("\"a\\\"b\\\\\\n\"");
+    }
+
+    private HttpResponse<String> get(String query) throws Exception {
+        URI uri = URI.create("http://localhost:" + server.port() + PriceServer.PATH + query);
+        return client.send(HttpRequest.newBuilder(uri).build(), HttpResponse.BodyHandlers.ofString());
+    }
+}
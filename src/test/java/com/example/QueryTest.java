@@ -0,0 +1,57 @@
+package com.example;
+
+import com.example.api.ElpriserAPI;
+import com.example.api.PriceSeries;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class QueryTest {
+
+    @Test
+    void commandLineAndServer_parseTheSameQuery() {
+        Query cli = Query.parse(Map.of("--zone", "SE3", "--date", "2025-09-04", "--energy", "10", "--power", "2,5",
+                "--deadline", "07:00", "--verbose", "true"), "--", Set.of("verbose"));
+        Query server = Query.parse(Map.of("zone", "SE3", "date", "2025-09-04", "energy", "10", "power", "2,5",
+                "deadline", "07:00"), "", Set.of());
+
+        assertThat(cli).isEqualTo(server);
+        assertThat(server.zone()).isEqualTo(ElpriserAPI.Prisklass.SE3);
+        assertThat(server.date()).isEqualTo(LocalDate.of(2025, 9, 4));
+        assertThat(server.power()).isEqualTo(2.5);
+        assertThat(server.resolution()).isEqualTo(Duration.ofHours(1));
+    }
+
+    @Test
+    void defaults_areTodayAndWholeHours() {
+        Query query = Query.parse(Map.of("zone", "SE1", "sorted", "false", "resolution", "native"), "", Set.of());
+
+        assertThat(query.date()).isEqualTo(LocalDate.now(PriceSeries.ZONE));
+        assertThat(query.sorted()).isFalse();
+        assertThat(query.resolution()).isNull();
+        assertThat(query.charging()).isNull();
+        assertThat(query.energy()).isNull();
+    }
+
+    @Test
+    void errors_nameTheParameterWithItsPrefix() {
+        assertThatThrownBy(() -> Query.parse(Map.of("--zone", "SE3", "--verbose", "true"), "--", Set.of()))
+                .hasMessage("Invalid argument: --verbose");
+        assertThatThrownBy(() -> Query.parse(Map.of("zone", "SE5"), "", Set.of()))
+                .hasMessage("Invalid zone");
+        assertThatThrownBy(() -> Query.parse(Map.of("--zone", "SE3", "--power", "2"), "--", Set.of()))
+                .hasMessage("--energy required with --power, --deadline and --minrun");
+        assertThatThrownBy(() -> Query.parse(Map.of("zone", "SE3", "energy", "10"), "", Set.of()))
+                .hasMessage("power required with energy");
+        assertThatThrownBy(() -> Query.parse(Map.of("zone", "SE3", "energy", "10", "power", "2", "charging", "2h"), "", Set.of()))
+                .hasMessage("Use either charging or energy");
+        assertThatThrownBy(() -> Query.parse(Map.of("zone", "SE3", "minrun", "20m"), "", Set.of()))
+                .hasMessage("Invalid minimum run: 20m");
+    }
+}
@@ -0,0 +1,121 @@
+package com.example;
+
+import com.example.api.ElpriserAPI;
+import com.example.api.PriceSeries;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RecordWriterTest {
+
+    private static final long START = 1_756_936_800L; // 2025-09-04T00:00+02:00
+
+    @AfterEach
+    void tearDown() {
+        ElpriserAPI.clearMockResponse();
+    }
+
+    @Test
+    void csv_hasHeaderAndEmptyFieldsForMissingValues() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (RecordWriter out = RecordWriter.of(RecordWriter.Format.CSV, bytes)) {
+            out.price(RecordWriter.Type.PRICE, series(), 0);
+            out.write(RecordWriter.Type.SCHEDULE, START, START + 3600, 0.1, Double.NaN, Double.NaN, 2.0, 0.2);
+        }
+
+        assertThat(bytes.toString(StandardCharsets.UTF_8)).isEqualTo("""
+                type,start,end,sek_per_kwh,eur_per_kwh,exr,energy_kwh,cost_sek
+                price,2025-09-04T00:00:00+02:00,2025-09-04T01:00:00+02:00,0.1,0.01,11.0,,
+                schedule,2025-09-04T00:00:00+02:00,2025-09-04T01:00:00+02:00,0.1,,,2.0,0.2
+                """);
+    }
+
+    @Test
+    void ndjson_leavesOutMissingValues() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (RecordWriter out = RecordWriter.of(RecordWriter.Format.NDJSON, bytes)) {
+            out.write(RecordWriter.Type.WINDOW, START, START + 7200, 0.15, Double.NaN, Double.NaN, Double.NaN, Double.NaN);
+        }
+
+        assertThat(bytes.toString(StandardCharsets.UTF_8)).isEqualTo(
+                "{\"type\":\"window\",\"start\":\"2025-09-04T00:00:00+02:00\",\"end\":\"2025-09-04T02:00:00+02:00\",\"sek_per_kwh\":0.15}\n");
+    }
+
+    @Test
+    void binary_writesColumnarBatchesAndEndMarker() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        int rows = 1500;
+        try (RecordWriter out = RecordWriter.of(RecordWriter.Format.BINARY, bytes)) {
+            for (int i = 0; i < rows; i++) {
+                out.write(RecordWriter.Type.PRICE, START + i * 900L, START + (i + 1) * 900L, i / 100.0, 0.01, 11.0, Double.NaN, Double.NaN);
+            }
+        }
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        assertThat(in.readInt()).isEqualTo(0x454C5052);
+        assertThat(in.readInt()).isEqualTo(1);
+        int read = 0;
+        for (int n = in.readInt(); n > 0; n = in.readInt()) {
+            byte[] types = in.readNBytes(n);
+            long[] starts = new long[n];
+            for (int i = 0; i < n; i++) starts[i] = in.readLong();
+            in.skipNBytes(8L * n); // end
+            double[] sek = new double[n];
+            for (int i = 0; i < n; i++) sek[i] = in.readDouble();
+            in.skipNBytes(8L * n * 2); // eur, exr
+            for (int i = 0; i < n; i++) assertThat(in.readDouble()).isNaN();
+            in.skipNBytes(8L * n); // cost
+            for (int i = 0; i < n; i++) {
+                assertThat(types[i]).isEqualTo((byte) RecordWriter.Type.PRICE.ordinal());
+                assertThat(starts[i]).isEqualTo(START + (read + i) * 900L);
+                assertThat(sek[i]).isEqualTo((read + i) / 100.0);
+            }
+            read += n;
+        }
+        assertThat(read).isEqualTo(rows);
+        assertThat(in.available()).isZero();
+    }
+
+    @Test
+    void main_withFormatCsv_writesPricesAndStatsRecords() {
+        StringBuilder json = new StringBuilder("[");
+        for (int hour = 0; hour < 4; hour++) {
+            if (hour > 0) json.append(',');
+            json.append(String.format(Locale.US,
+                    "{\"SEK_per_kWh\":%.2f,\"EUR_per_kWh\":0.01,\"EXR\":11.0,\"time_start\":\"2025-09-04T%02d:00:00+02:00\",\"time_end\":\"2025-09-04T%02d:00:00+02:00\"}",
+                    0.4 - hour * 0.1, hour, hour + 1));
+        }
+        ElpriserAPI.setMockResponseForDate(LocalDate.of(2025, 9, 4), json.append(']').toString());
+        PrintStream originalOut = System.out;
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(bytes, true, StandardCharsets.UTF_8));
+        try {
+            Main.main(new String[]{"--zone", "SE3", "--date", "2025-09-04", "--format", "csv"});
+        } finally {
+            System.setOut(originalOut);
+        }
+
+        String output = bytes.toString(StandardCharsets.UTF_8);
+        String csv = output.substring(output.indexOf("type,start"));
+        assertThat(csv.lines()).hasSize(8);
+        assertThat(csv).contains("price,2025-09-04T03:00:00+02:00,2025-09-04T04:00:00+02:00,0.1,0.01,11.0,,\n")
+                .contains("min,2025-09-04T03:00:00+02:00")
+                .contains("max,2025-09-04T00:00:00+02:00")
+                .contains("mean,2025-09-04T00:00:00+02:00,2025-09-04T04:00:00+02:00,0.2499");
+        assertThat(csv).doesNotContain("öre");
+    }
+
+    private static PriceSeries series() {
+        return new PriceSeries.Builder(1).add(START, START + 3600, 0.1, 0.01, 11.0).build();
+    }
+}
@@ -0,0 +1,75 @@
+package com.example;
+
+import com.example.api.PriceSeries;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReportWriterTest {
+
+    private static final DecimalFormat REFERENCE = new DecimalFormat("0.00", DecimalFormatSymbols.getInstance(Locale.of("sv", "SE")));
+
+    @Test
+    void decimal_matchesDecimalFormat_includingTiesAndNegativeZero() {
+        double[] values = {0, -0.0, 0.125, 0.135, 0.145, 2.675, 1.005, -0.001, -0.005, -0.0051, 12.345, 99.995,
+                1e13, -1e13, 123456789.125, Double.NaN, Double.POSITIVE_INFINITY, 0.1 + 0.2};
+        for (double value : values) {
+            assertThat(new ReportWriter().decimal(value).toString()).as("%s", value).isEqualTo(REFERENCE.format(value));
+        }
+
+        Random random = new Random(1);
+        for (int i = 0; i < 200_000; i++) {
+            // Priser med fem decimaler som i API:t, och godtyckliga värden
+            double value = i % 2 == 0 ? Math.round((random.nextDouble() - 0.1) * 1e5) / 1e5 : (random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(12));
+            assertThat(new ReportWriter().ore(value).toString()).as("%s", value).isEqualTo(REFERENCE.format(value * 100));
+        }
+    }
+
+    @Test
+    void time_matchesDateTimeFormatter_acrossDaylightSavingChanges() {
+        DateTimeFormatter hours = DateTimeFormatter.ofPattern("HH");
+        DateTimeFormatter minutes = DateTimeFormatter.ofPattern("HH:mm");
+        ReportWriter writer = new ReportWriter();
+        StringBuilder expected = new StringBuilder();
+
+        // Från vintertid till sommartid och tillbaka, och baklänges så att cachen av UTC-förskjutningen byts
+        long first = LocalDateTime.of(2025, 3, 29, 0, 0).atZone(PriceSeries.ZONE).toEpochSecond();
+        long last = LocalDateTime.of(2025, 10, 27, 0, 0).atZone(PriceSeries.ZONE).toEpochSecond();
+        for (long t = first; t < last; t += 900) {
+            ZonedDateTime time = ZonedDateTime.ofInstant(Instant.ofEpochSecond(t), PriceSeries.ZONE);
+            expected.append(hours.format(time)).append(minutes.format(time));
+            writer.time(t, false).time(t, true);
+        }
+        for (long t = last; t > first; t -= 3600 * 7) {
+            ZonedDateTime time = ZonedDateTime.ofInstant(Instant.ofEpochSecond(t), PriceSeries.ZONE);
+            expected.append(minutes.format(time));
+            writer.time(t, true);
+        }
+
+        assertThat(writer.toString()).isEqualTo(expected.toString());
+    }
+
+    @Test
+    void writeTo_writesReportOnceAndEmptiesBuffer() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        PrintStream out = new PrintStream(bytes);
+        ReportWriter writer = new ReportWriter().text("Medelpris: ").ore(0.12345).text(" öre").newLine();
+
+        writer.writeTo(out);
+        writer.writeTo(out);
+
+        assertThat(bytes.toString()).isEqualTo("Medelpris: 12,35 öre" + System.lineSeparator());
+        assertThat(writer.toString()).isEmpty();
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.api;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static com.example.api.TestSeries.series;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ChargingWindowsTest {
+
+    @Test
+    void cheapest_answersSeveralLengthsAndPrefersEarliestOnTies() {
+        ChargingWindows windows = ChargingWindows.of(series(3600, 0.5, 0.1, 0.2, 0.5, 0.2, 0.1, 0.9));
+
+        ChargingWindows.Window[] best = windows.cheapest(1, 2, 3, 8);
+
+        assertThat(best[0].start()).isEqualTo(1);
+        // 0.1 + 0.2 och 0.2 + 0.1 är lika billiga, det tidigaste vinner trots flyttalsavrundning
+        assertThat(best[1].start()).isEqualTo(1);
+        assertThat(best[1].mean()).isEqualTo((0.1 + 0.2) / 2);
+        assertThat(best[2].start()).isZero();
+        assertThat(best[3]).isNull();
+    }
+
+    @Test
+    void cheapest_matchesBruteForce() {
+        double[] sek = new double[200];
+        java.util.Random random = new java.util.Random(42);
+        for (int i = 0; i < sek.length; i++) sek[i] = Math.round((random.nextDouble() - 0.2) * 1e5) / 1e5;
+        ChargingWindows windows = ChargingWindows.of(series(900, sek));
+
+        for (int length = 1; length <= 48; length++) {
+            int expected = 0;
+            double expectedSum = Double.MAX_VALUE;
+            for (int start = 0; start + length <= sek.length; start++) {
+                double sum = 0;
+                for (int i = start; i < start + length; i++) sum += Math.round(sek[i] * 1e5);
+                if (sum < expectedSum) {
+                    expectedSum = sum;
+                    expected = start;
+                }
+            }
+            assertThat(windows.cheapest(length).start()).as("längd %d", length).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void cheapestNonOverlapping_picksGreedilyWithoutOverlap() {
+        ChargingWindows windows = ChargingWindows.of(series(3600, 0.9, 0.1, 0.1, 0.9, 0.2, 0.2, 0.9, 0.3, 0.3));
+
+        List<ChargingWindows.Window> top = windows.cheapestNonOverlapping(2, 5);
+
+        assertThat(top).extracting(ChargingWindows.Window::start).containsExactly(1, 4, 7);
+        assertThat(windows.cheapestNonOverlapping(2, 1)).hasSize(1);
+        assertThat(windows.cheapestNonOverlapping(20, 3)).isEmpty();
+    }
+
+    @Test
+    void slotsFor_usesSeriesInterval() {
+        ChargingWindows quarters = ChargingWindows.of(series(900, 0.1, 0.2, 0.3));
+        ChargingWindows hours = ChargingWindows.of(series(3600, 0.1, 0.2, 0.3));
+
+        assertThat(quarters.slotsFor(Duration.ofMinutes(90))).isEqualTo(6);
+        assertThat(hours.slotsFor(Duration.ofMinutes(90))).isEqualTo(2);
+        assertThat(hours.slotsFor(Duration.ofHours(12))).isEqualTo(12);
+        assertThatThrownBy(() -> hours.slotsFor(Duration.ofMinutes(20))).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> hours.slotsFor(Duration.ZERO)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
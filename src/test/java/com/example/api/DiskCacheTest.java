@@ -0,0 +1,113 @@
+package com.example.api;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DiskCacheTest {
+
+    private static final String JSON = """
+            [{"SEK_per_kWh":0.10,"EUR_per_kWh":0.01,"EXR":10.0,"time_start":"2025-09-04T00:00:00+02:00","time_end":"2025-09-04T01:00:00+02:00"}]""";
+
+    @TempDir
+    Path dir;
+
+    @AfterEach
+    void tearDown() {
+        ElpriserAPI.clearMockResponse();
+    }
+
+    @Test
+    void savedEntry_canBeLoadedBack() {
+        DiskCache cache = new DiskCache(dir, 1024 * 1024, Duration.ofDays(1));
+
+        cache.save("2025-09-04_SE3", JSON);
+
+        assertThat(cache.load("2025-09-04_SE3")).isEqualTo(JSON);
+        assertThat(cache.load("2025-09-05_SE3")).isNull();
+    }
+
+    @Test
+    void validators_areStoredWithTheEntry() {
+        DiskCache cache = new DiskCache(dir, 1024 * 1024, Duration.ofDays(1));
+        HttpValidators validators = new HttpValidators("W/\"abc-123\"", Instant.parse("2025-09-03T12:00:00Z"));
+
+        cache.save("2025-09-04_SE3", JSON.getBytes(StandardCharsets.UTF_8), validators);
+        cache.save("2025-09-05_SE3", JSON.getBytes(StandardCharsets.UTF_8), new HttpValidators(null, validators.lastModified()));
+
+        assertThat(cache.loadEntry("2025-09-04_SE3").validators()).isEqualTo(validators);
+        assertThat(cache.loadEntry("2025-09-04_SE3").json()).isEqualTo(JSON);
+        assertThat(cache.loadEntry("2025-09-05_SE3").validators().etag()).isNull();
+    }
+
+    @Test
+    void entriesWrittenWithoutValidators_canStillBeRead() throws IOException {
+        DiskCache cache = new DiskCache(dir, 1024 * 1024, Duration.ofDays(1));
+        byte[] body = JSON.getBytes(StandardCharsets.UTF_8);
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        String header = "#elpriser-v1 " + body.length + " " + Long.toHexString(crc.getValue()) + "\n";
+        Files.write(dir.resolve("2025-09-04_SE3.json"), (header + JSON).getBytes(StandardCharsets.UTF_8));
+
+        assertThat(cache.load("2025-09-04_SE3")).isEqualTo(JSON);
+        assertThat(cache.loadEntry("2025-09-04_SE3").validators()).isEqualTo(HttpValidators.NONE);
+    }
+
+    @Test
+    void corruptEntry_isDetectedAndRemoved() throws IOException {
+        DiskCache cache = new DiskCache(dir, 1024 * 1024, Duration.ofDays(1));
+        cache.save("2025-09-04_SE3", JSON);
+        Path file = dir.resolve("2025-09-04_SE3.json");
+
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length - 3] ^= 0x20;
+        Files.write(file, bytes);
+
+        assertThat(cache.load("2025-09-04_SE3")).isNull();
+        assertThat(file).doesNotExist();
+    }
+
+    @Test
+    void evict_removesExpiredAndOldestEntries() throws IOException {
+        long entrySize = DiskCache.encode(JSON).length;
+        DiskCache unbounded = new DiskCache(dir, Long.MAX_VALUE, Duration.ofDays(30));
+        unbounded.save("2025-09-01_SE3", JSON);
+        unbounded.save("2025-09-02_SE3", JSON);
+        unbounded.save("2025-09-03_SE3", JSON);
+        Files.setLastModifiedTime(dir.resolve("2025-09-01_SE3.json"), FileTime.from(Instant.now().minus(Duration.ofDays(60))));
+        Files.setLastModifiedTime(dir.resolve("2025-09-02_SE3.json"), FileTime.from(Instant.now().minus(Duration.ofDays(2))));
+
+        DiskCache cache = new DiskCache(dir, entrySize * 2, Duration.ofDays(30));
+        cache.save("2025-09-04_SE3", JSON);
+
+        assertThat(cache.load("2025-09-01_SE3")).isNull();
+        assertThat(cache.load("2025-09-02_SE3")).isNull();
+        assertThat(cache.load("2025-09-03_SE3")).isEqualTo(JSON);
+        assertThat(cache.load("2025-09-04_SE3")).isEqualTo(JSON);
+    }
+
+    @Test
+    void getPriser_servesHistoricalDayFromDisk() {
+        DiskCache cache = new DiskCache(dir, 1024 * 1024, Duration.ofDays(3650));
+        cache.save("2025-09-04_SE3", JSON);
+        ElpriserAPI api = new ElpriserAPI(true, cache);
+
+        List<ElpriserAPI.Elpris> priser = api.getPriser(LocalDate.of(2025, 9, 4), ElpriserAPI.Prisklass.SE3);
+
+        assertThat(priser).hasSize(1);
+        assertThat(priser.getFirst().sekPerKWh()).isEqualTo(0.10);
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.api;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ElprisJsonParserTest {
+
+    @Test
+    void parse_readsEveryRowInOrder() {
+        List<ElpriserAPI.Elpris> priser = ElprisJsonParser.parse(day(96));
+
+        assertThat(priser).hasSize(96);
+        assertThat(priser.get(0)).isEqualTo(new ElpriserAPI.Elpris(0.1, 0.01, 11.0876,
+                ZonedDateTime.parse("2025-09-04T00:00:00+02:00"), ZonedDateTime.parse("2025-09-04T00:15:00+02:00")));
+        assertThat(priser.get(1)).isEqualTo(new ElpriserAPI.Elpris(0.11234, 0.01112, 11.0876,
+                ZonedDateTime.parse("2025-09-04T00:15:00+02:00"), ZonedDateTime.parse("2025-09-04T00:30:00+02:00")));
+        assertThat(priser.get(95)).isEqualTo(new ElpriserAPI.Elpris(1.2723, 0.1164, 11.0876,
+                ZonedDateTime.parse("2025-09-04T23:45:00+02:00"), ZonedDateTime.parse("2025-09-05T00:00:00+02:00")));
+    }
+
+    @Test
+    void parse_toleratesReorderedFieldsWhitespaceAndUnknownFields() {
+        String json = """
+                 [ {
+                   "time_end" : "2025-09-04T01:00:00+02:00",
+                   "extra": {"nested": [1, 2, "}"]},
+                   "EXR": 1.1e1, "EUR_per_kWh": -0.001, "time_start": "2025-09-04T00:00:00+02:00",
+                   "SEK_per_kWh" : 0.12229
+                 } ]
+                """;
+
+        List<ElpriserAPI.Elpris> priser = ElprisJsonParser.parse(json);
+
+        assertThat(priser).containsExactly(new ElpriserAPI.Elpris(0.12229, -0.001, 11.0,
+                ZonedDateTime.parse("2025-09-04T00:00:00+02:00"), ZonedDateTime.parse("2025-09-04T01:00:00+02:00")));
+    }
+
+    @Test
+    void parse_skipsObjectsThatCannotBeParsed() {
+        String json = """
+                [{"SEK_per_kWh":"abc","EUR_per_kWh":0.01,"EXR":10.0,"time_start":"2025-09-04T00:00:00+02:00","time_end":"2025-09-04T01:00:00+02:00"},
+                 {"SEK_per_kWh":0.20,"EXR":10.0,"time_start":"2025-09-04T01:00:00+02:00","time_end":"2025-09-04T02:00:00+02:00"},
+                 {"SEK_per_kWh":0.30,"EUR_per_kWh":0.03,"EXR":10.0,"time_start":"2025-09-04T02:00:00+02:00","time_end":"2025-09-04T03:00:00+02:00"}]""";
+
+        List<ElpriserAPI.Elpris> priser = ElprisJsonParser.parse(json);
+
+        assertThat(priser).hasSize(1);
+        assertThat(priser.getFirst().sekPerKWh()).isEqualTo(0.30);
+    }
+
+    @Test
+    void parse_returnsEmptyForNonArrays() {
+        assertThat(ElprisJsonParser.parse("[]")).isEmpty();
+        assertThat(ElprisJsonParser.parse("{\"error\":404}")).isEmpty();
+        assertThat(ElprisJsonParser.parse("")).isEmpty();
+    }
+
+    @Test
+    void parseSeries_usesEpochSeconds() {
+        PriceSeries series = ElprisJsonParser.parseSeries(day(24).getBytes(StandardCharsets.UTF_8));
+
+        assertThat(series.size()).isEqualTo(24);
+        assertThat(series.startEpochSecond(0)).isEqualTo(ZonedDateTime.parse("2025-09-04T00:00:00+02:00").toEpochSecond());
+        assertThat(series.endEpochSecond(23)).isEqualTo(ZonedDateTime.parse("2025-09-05T00:00:00+02:00").toEpochSecond());
+    }
+
+    private static String day(int rows) {
+        StringBuilder json = new StringBuilder("[");
+        ZonedDateTime start = ZonedDateTime.parse("2025-09-04T00:00:00+02:00");
+        int minutes = 24 * 60 / rows;
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) json.append(',');
+            json.append(String.format(Locale.US,
+                    "{\"SEK_per_kWh\":%.5f,\"EUR_per_kWh\":%.5f,\"EXR\":11.0876,\"time_start\":\"%s\",\"time_end\":\"%s\"}",
+                    0.1 + i * 0.01234, 0.01 + i * 0.00112, start.plusMinutes((long) i * minutes), start.plusMinutes((long) (i + 1) * minutes)));
+        }
+        return json.append(']').toString();
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.api;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ElpriserAPITest {
+
+    @AfterEach
+    void tearDown() {
+        ElpriserAPI.clearMockResponse();
+    }
+
+    @Test
+    void getPriser_forRangeAndZones_returnsTimeOrderedListPerZone() {
+        LocalDate first = LocalDate.of(2025, 9, 4);
+        for (int d = 0; d < 3; d++) {
+            ElpriserAPI.setMockResponseForDate(first.plusDays(d), dayJson(first.plusDays(d), 0.1 * (d + 1)));
+        }
+        ElpriserAPI api = new ElpriserAPI(false);
+
+        Map<ElpriserAPI.Prisklass, List<ElpriserAPI.Elpris>> priser =
+                api.getPriser(first, first.plusDays(2), EnumSet.of(ElpriserAPI.Prisklass.SE1, ElpriserAPI.Prisklass.SE4), 2);
+
+        assertThat(priser).containsOnlyKeys(ElpriserAPI.Prisklass.SE1, ElpriserAPI.Prisklass.SE4);
+        for (List<ElpriserAPI.Elpris> zone : priser.values()) {
+            assertThat(zone).hasSize(6);
+            assertThat(zone).isSortedAccordingTo((a, b) -> a.timeStart().compareTo(b.timeStart()));
+            assertThat(zone.getFirst().timeStart().toLocalDate()).isEqualTo(first);
+            assertThat(zone.getLast().timeStart().toLocalDate()).isEqualTo(first.plusDays(2));
+        }
+    }
+
+    @Test
+    void getPriser_forEmptyRange_returnsEmptyLists() {
+        ElpriserAPI.setMockResponse("[]");
+        ElpriserAPI api = new ElpriserAPI(false);
+        LocalDate day = LocalDate.of(2025, 9, 4);
+
+        Map<ElpriserAPI.Prisklass, List<ElpriserAPI.Elpris>> priser =
+                api.getPriser(day, day.minusDays(1), EnumSet.of(ElpriserAPI.Prisklass.SE3));
+
+        assertThat(priser.get(ElpriserAPI.Prisklass.SE3)).isEmpty();
+    }
+
+    @Test
+    void getPriser_forRange_whenInterrupted_throwsInsteadOfLeavingOutZones() {
+        ElpriserAPI.setMockResponse(dayJson(LocalDate.of(2025, 9, 4), 0.1));
+        ElpriserAPI api = new ElpriserAPI(false);
+        LocalDate day = LocalDate.of(2025, 9, 4);
+
+        Thread.currentThread().interrupt();
+        assertThatThrownBy(() -> api.getPriser(day, day.plusDays(1), EnumSet.of(ElpriserAPI.Prisklass.SE3), 1))
+                .isInstanceOf(CancellationException.class)
+                .hasCauseInstanceOf(InterruptedException.class);
+        assertThat(Thread.interrupted()).isTrue();
+    }
+
+    static String dayJson(LocalDate day, double sek) {
+        // Två timmar per dag räcker för testerna; listas i omvänd ordning för att testa sorteringen
+        return """
+                [{"SEK_per_kWh":%1$s,"EUR_per_kWh":0.02,"EXR":10.0,"time_start":"%2$sT01:00:00+02:00","time_end":"%2$sT02:00:00+02:00"},
+                 {"SEK_per_kWh":%1$s,"EUR_per_kWh":0.01,"EXR":10.0,"time_start":"%2$sT00:00:00+02:00","time_end":"%2$sT01:00:00+02:00"}]"""
+                .formatted(sek, day);
+    }
+}
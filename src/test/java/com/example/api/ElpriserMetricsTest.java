@@ -0,0 +1,128 @@
+package com.example.api;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.management.ObjectName;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ElpriserMetricsTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 9, 4);
+
+    @TempDir
+    Path dir;
+
+    @AfterEach
+    void tearDown() {
+        ElpriserAPI.clearMockResponse();
+    }
+
+    @Test
+    void countsLookupsPerTier() {
+        ElpriserAPI.setMockResponseForDate(DAY, ElpriserAPITest.dayJson(DAY, 0.1));
+        ElpriserAPI api = new ElpriserAPI(true, null, null);
+
+        api.getPriser(DAY, ElpriserAPI.Prisklass.SE3);
+        api.getPriser(DAY, ElpriserAPI.Prisklass.SE3);
+        api.getPriser(DAY.plusDays(1), ElpriserAPI.Prisklass.SE3);
+
+        ElpriserMetrics metrics = api.getMetrics();
+        assertThat(metrics.getMemoryHits()).isEqualTo(1);
+        assertThat(metrics.getMemoryMisses()).isEqualTo(2);
+        assertThat(metrics.getMockResponses()).isEqualTo(2);
+        assertThat(metrics.getHttpRequests()).isZero();
+        assertThat(metrics.getParseCount()).isEqualTo(1);
+        assertThat(metrics.getRowsParsed()).isEqualTo(2);
+        assertThat(metrics.parseTime().max()).isPositive();
+    }
+
+    @Test
+    void diskCacheHitsAndMissesAreCounted() {
+        DiskCache disk = new DiskCache(dir, 1 << 20, Duration.ofDays(1));
+        LocalDate today = LocalDate.now(PriceSeries.ZONE);
+        disk.save(today + "_SE3", ElpriserAPITest.dayJson(today, 0.1));
+        ElpriserAPI api = new ElpriserAPI(true, disk, null);
+
+        assertThat(api.getPriser(today, ElpriserAPI.Prisklass.SE3)).hasSize(2);
+
+        assertThat(api.getMetrics().getDiskHits()).isEqualTo(1);
+        assertThat(api.getMetrics().getDiskMisses()).isZero();
+        assertThat(api.getMetrics().getHttpRequests()).isZero();
+    }
+
+    @Test
+    void register_exposesCountersOverJmx() throws Exception {
+        ElpriserAPI.setMockResponse(ElpriserAPITest.dayJson(DAY, 0.1));
+        ElpriserAPI api = new ElpriserAPI(false);
+        api.getPriser(DAY, ElpriserAPI.Prisklass.SE1);
+
+        ObjectName name = api.getMetrics().register();
+        try {
+            assertThat(name).isNotNull();
+            assertThat(ManagementFactory.getPlatformMBeanServer().getAttribute(name, "MockResponses")).isEqualTo(1L);
+            assertThat(ManagementFactory.getPlatformMBeanServer().getAttribute(name, "RowsParsed")).isEqualTo(2L);
+        } finally {
+            api.getMetrics().unregister();
+        }
+        assertThat(ManagementFactory.getPlatformMBeanServer().isRegistered(name)).isFalse();
+    }
+
+    @Test
+    void fetchAndParse_emitJfrEvents() throws Exception {
+        ElpriserAPI.setMockResponse(ElpriserAPITest.dayJson(DAY, 0.1));
+        ElpriserAPI api = new ElpriserAPI(false);
+        Path file = dir.resolve("elpriser.jfr");
+
+        try (Recording recording = new Recording()) {
+            recording.enable("com.example.api.Fetch");
+            recording.enable("com.example.api.Parse");
+            recording.start();
+            api.getPriser(DAY, ElpriserAPI.Prisklass.SE2);
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        assertThat(events).anySatisfy(event -> {
+            assertThat(event.getEventType().getName()).isEqualTo("com.example.api.Fetch");
+            assertThat(event.getString("date")).isEqualTo("2025-09-04");
+            assertThat(event.getString("zone")).isEqualTo("SE2");
+            assertThat(event.getString("source")).isEqualTo("mock");
+            assertThat(event.getInt("rows")).isEqualTo(2);
+        });
+        assertThat(events).anySatisfy(event -> {
+            assertThat(event.getEventType().getName()).isEqualTo("com.example.api.Parse");
+            assertThat(event.getInt("rows")).isEqualTo(2);
+        });
+    }
+
+    @Test
+    void routineMessagesAreNotPrintedByDefault() {
+        ElpriserAPI.setMockResponse(ElpriserAPITest.dayJson(DAY, 0.1));
+        PrintStream originalOut = System.out;
+        PrintStream originalErr = System.err;
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(bytes));
+        System.setErr(new PrintStream(bytes));
+        try {
+            new ElpriserAPI(false).getPriser(DAY, ElpriserAPI.Prisklass.SE3);
+        } finally {
+            System.setOut(originalOut);
+            System.setErr(originalErr);
+        }
+        assertThat(bytes.toString()).isEmpty();
+    }
+}
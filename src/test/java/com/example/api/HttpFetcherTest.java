@@ -0,0 +1,280 @@
+package com.example.api;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Hämtningar mot en lokal stubbserver som svarar med en förbestämd följd av svar.
+ */
+class HttpFetcherTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 9, 4);
+
+    private record Reply(int status, byte[] body, long delayMillis, Map<String, String> headers) {
+
+        Reply(int status, String body, long delayMillis) {
+            this(status, body.getBytes(StandardCharsets.UTF_8), delayMillis, Map.of());
+        }
+    }
+
+    private final ConcurrentLinkedQueue<Reply> replies = new ConcurrentLinkedQueue<>();
+    private final List<String> paths = new CopyOnWriteArrayList<>();
+    private final List<Headers> requestHeaders = new CopyOnWriteArrayList<>();
+    private HttpServer stub;
+
+    @TempDir
+    Path dir;
+
+    @BeforeEach
+    void setup() throws IOException {
+        stub = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        stub.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        stub.createContext("/", exchange -> {
+            paths.add(exchange.getRequestURI().getPath());
+            requestHeaders.add(exchange.getRequestHeaders());
+            Reply reply = replies.isEmpty() ? new Reply(500, "", 0) : replies.size() == 1 ? replies.peek() : replies.poll();
+            try {
+                Thread.sleep(reply.delayMillis());
+                byte[] body = reply.body();
+                reply.headers().forEach(exchange.getResponseHeaders()::add);
+                exchange.sendResponseHeaders(reply.status(), body.length == 0 ? -1 : body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            } catch (InterruptedException | IOException e) {
+                exchange.close();
+            }
+        });
+        stub.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        stub.stop(0);
+    }
+
+    @Test
+    void serverErrors_areRetried_untilPricesArrive() {
+        replies.add(new Reply(503, "", 0));
+        replies.add(new Reply(200, ElpriserAPITest.dayJson(DAY, 0.1), 0));
+        ElpriserAPI api = api(2, 5);
+
+        assertThat(api.getPriser(DAY, ElpriserAPI.Prisklass.SE3)).hasSize(2);
+
+        assertThat(paths).containsExactly("/api/v1/prices/2025/09-04_SE3.json", "/api/v1/prices/2025/09-04_SE3.json");
+        assertThat(api.getMetrics().getHttpRetries()).isEqualTo(1);
+        assertThat(api.getMetrics().getHttpStatusCounts()).isEqualTo(Map.of(200, 1L, 503, 1L));
+    }
+
+    @Test
+    void asyncFetch_retriesToo() {
+        replies.add(new Reply(429, "", 0));
+        replies.add(new Reply(200, ElpriserAPITest.dayJson(DAY, 0.1), 0));
+        ElpriserAPI api = api(2, 5);
+
+        assertThat(api.getPriserAsync(DAY, ElpriserAPI.Prisklass.SE1).join()).hasSize(2);
+        assertThat(paths).hasSize(2);
+    }
+
+    @Test
+    void missingPrices_areNotRetried() {
+        replies.add(new Reply(404, "", 0));
+        ElpriserAPI api = api(2, 5);
+
+        assertThat(api.getPriser(DAY, ElpriserAPI.Prisklass.SE3)).isEmpty();
+        assertThat(paths).hasSize(1);
+        assertThat(api.getMetrics().getCircuitBreakerState()).isEqualTo("CLOSED");
+    }
+
+    @Test
+    void exhaustedRetries_areErrors_notMissingPrices() {
+        replies.add(new Reply(503, "", 0));
+        replies.add(new Reply(503, "", 0));
+        replies.add(new Reply(503, "", 0));
+        // Gott om tid, så att ett långsamt första anrop inte blir en timeout i stället för 503
+        HttpSettings settings = settings(0, 5, Duration.ofSeconds(5));
+        ElpriserMetrics metrics = new ElpriserMetrics(() -> null, () -> CircuitBreaker.State.CLOSED);
+        HttpPriceSource source = new HttpPriceSource(new HttpFetcher(settings, new CircuitBreaker(5, Duration.ofMinutes(1)), metrics),
+                settings.baseUrl(), null, false, PriceCache.DEFAULT_FRESH_TTL, metrics);
+
+        assertThatThrownBy(() -> source.fetch(DAY, ElpriserAPI.Prisklass.SE3))
+                .isInstanceOf(UncheckedIOException.class).hasMessageContaining("503");
+        assertThat(source.fetchAsync(DAY, ElpriserAPI.Prisklass.SE3)).failsWithin(Duration.ofSeconds(2));
+
+        // Felet sparas i minnes-cachen under negativeTtl, så nästa anrop går inte till nätverket igen
+        ElpriserAPI api = new ElpriserAPI(true, null, null, settings);
+        assertThat(api.getPriser(DAY, ElpriserAPI.Prisklass.SE3)).isEmpty();
+        assertThat(api.getPriser(DAY, ElpriserAPI.Prisklass.SE3)).isEmpty();
+        assertThat(paths).hasSize(3);
+    }
+
+    @Test
+    void stalledServer_timesOut_insteadOfBlocking() {
+        replies.add(new Reply(200, ElpriserAPITest.dayJson(DAY, 0.1), 5_000));
+        ElpriserAPI api = api(1, 5);
+
+        long start = System.nanoTime();
+        assertThat(api.getPriser(DAY, ElpriserAPI.Prisklass.SE3)).isEmpty();
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(3));
+        assertThat(api.getMetrics().getHttpErrors()).isEqualTo(2);
+    }
+
+    @Test
+    void repeatedFailures_openCircuitBreaker_andLaterCallsFailFast() {
+        ElpriserAPI api = api(0, 2);
+
+        api.getPriser(DAY, ElpriserAPI.Prisklass.SE3);
+        api.getPriser(DAY, ElpriserAPI.Prisklass.SE4);
+        assertThat(api.getMetrics().getCircuitBreakerState()).isEqualTo("OPEN");
+        assertThat(api.getPriser(DAY, ElpriserAPI.Prisklass.SE1)).isEmpty();
+        assertThat(api.getPriserAsync(DAY, ElpriserAPI.Prisklass.SE2).join()).isEmpty();
+
+        assertThat(paths).hasSize(2);
+        assertThat(api.getMetrics().getCircuitBreakerRejections()).isEqualTo(2);
+    }
+
+    @Test
+    void compressedResponses_areDecodedWhileReading() throws IOException {
+        replies.add(new Reply(200, gzip(ElpriserAPITest.dayJson(DAY, 0.1)), 0, Map.of("Content-Encoding", "gzip")));
+        ElpriserAPI api = api(0, 5);
+
+        assertThat(api.getPriser(DAY, ElpriserAPI.Prisklass.SE3)).hasSize(2);
+        assertThat(requestHeaders.getFirst().getFirst("Accept-Encoding")).contains("gzip", "deflate");
+
+        replies.clear();
+        replies.add(new Reply(200, deflate(ElpriserAPITest.dayJson(DAY, 0.2)), 0, Map.of("Content-Encoding", "deflate")));
+        List<ElpriserAPI.Elpris> priser = api.getPriserAsync(DAY, ElpriserAPI.Prisklass.SE4).join();
+        assertThat(priser).extracting(ElpriserAPI.Elpris::sekPerKWh).containsOnly(0.2);
+    }
+
+    @Test
+    void revalidation_sendsValidators_andNotModifiedKeepsThePrices() {
+        LocalDate today = LocalDate.now(PriceSeries.ZONE);
+        Instant lastModified = Instant.parse("2025-09-03T12:00:00Z");
+        replies.add(new Reply(200, ElpriserAPITest.dayJson(today, 0.1).getBytes(StandardCharsets.UTF_8), 0,
+                Map.of("ETag", "\"v1\"", "Last-Modified", "Wed, 03 Sep 2025 12:00:00 GMT")));
+        ElpriserAPI api = cachingApi();
+        List<ElpriserAPI.Elpris> priser = api.getPriser(today, ElpriserAPI.Prisklass.SE3);
+        assertThat(requestHeaders.getFirst().containsKey("If-None-Match")).isFalse();
+
+        replies.clear();
+        replies.add(new Reply(304, "", 0));
+        List<ElpriserAPI.Elpris> förnyade = api.revalidate(today, ElpriserAPI.Prisklass.SE3, priser).join();
+
+        assertThat(förnyade).isSameAs(priser);
+        assertThat(requestHeaders.get(1).getFirst("If-None-Match")).isEqualTo("\"v1\"");
+        assertThat(requestHeaders.get(1).getFirst("If-Modified-Since")).isEqualTo("Wed, 03 Sep 2025 12:00:00 GMT");
+        assertThat(new DiskCache(dir, Long.MAX_VALUE, Duration.ofDays(1)).loadEntry(today + "_SE3").validators())
+                .isEqualTo(new HttpValidators("\"v1\"", lastModified));
+        assertThat(api.getMetrics().getParseCount()).isEqualTo(1);
+        assertThat(api.getMetrics().getConditionalRequests()).isEqualTo(1);
+        assertThat(api.getMetrics().getHttpStatusCounts()).isEqualTo(Map.of(200, 1L, 304, 1L));
+    }
+
+    @Test
+    void revalidation_withChangedPrices_replacesTheDiskEntry() {
+        LocalDate today = LocalDate.now(PriceSeries.ZONE);
+        replies.add(new Reply(200, ElpriserAPITest.dayJson(today, 0.1).getBytes(StandardCharsets.UTF_8), 0,
+                Map.of("ETag", "\"v1\"")));
+        ElpriserAPI api = cachingApi();
+        List<ElpriserAPI.Elpris> priser = api.getPriser(today, ElpriserAPI.Prisklass.SE3);
+
+        replies.clear();
+        replies.add(new Reply(200, ElpriserAPITest.dayJson(today, 0.3).getBytes(StandardCharsets.UTF_8), 0,
+                Map.of("ETag", "\"v2\"")));
+        List<ElpriserAPI.Elpris> förnyade = api.revalidate(today, ElpriserAPI.Prisklass.SE3, priser).join();
+
+        assertThat(förnyade).extracting(ElpriserAPI.Elpris::sekPerKWh).containsOnly(0.3);
+        DiskCache.Entry sparad = new DiskCache(dir, Long.MAX_VALUE, Duration.ofDays(1)).loadEntry(today + "_SE3");
+        assertThat(sparad.validators().etag()).isEqualTo("\"v2\"");
+        assertThat(sparad.json()).isEqualTo(ElpriserAPITest.dayJson(today, 0.3));
+    }
+
+    @Test
+    void liveDayOnDisk_isFreshForFreshTtl_thenRevalidated_andServedWhenTheApiFails() throws IOException {
+        LocalDate today = LocalDate.now(PriceSeries.ZONE);
+        DiskCache disk = new DiskCache(dir, Long.MAX_VALUE, Duration.ofDays(1));
+        disk.save(today + "_SE3", ElpriserAPITest.dayJson(today, 0.1).getBytes(StandardCharsets.UTF_8),
+                new HttpValidators("\"v1\"", null));
+        Path file = dir.resolve(today + "_SE3.json");
+
+        assertThat(cachingApi().getPriser(today, ElpriserAPI.Prisklass.SE3)).hasSize(2);
+        assertThat(paths).isEmpty();
+
+        FileTime old = FileTime.from(Instant.now().minus(PriceCache.DEFAULT_FRESH_TTL).minusSeconds(60));
+        Files.setLastModifiedTime(file, old);
+        replies.add(new Reply(304, "", 0));
+        assertThat(cachingApi().getPriser(today, ElpriserAPI.Prisklass.SE3)).extracting(ElpriserAPI.Elpris::sekPerKWh).containsOnly(0.1);
+        assertThat(requestHeaders.getFirst().getFirst("If-None-Match")).isEqualTo("\"v1\"");
+        assertThat(Files.getLastModifiedTime(file)).isGreaterThan(old);
+
+        Files.setLastModifiedTime(file, old);
+        replies.clear();
+        replies.add(new Reply(503, "", 0));
+        assertThat(cachingApi().getPriserAsync(today, ElpriserAPI.Prisklass.SE3).join()).hasSize(2);
+        assertThat(paths).hasSize(2);
+    }
+
+    private ElpriserAPI api(int maxRetries, int failureThreshold) {
+        return new ElpriserAPI(false, null, null, settings(maxRetries, failureThreshold));
+    }
+
+    private ElpriserAPI cachingApi() {
+        return new ElpriserAPI(true, new DiskCache(dir, Long.MAX_VALUE, Duration.ofDays(1)), null, settings(0, 5));
+    }
+
+    private HttpSettings settings(int maxRetries, int failureThreshold) {
+        return settings(maxRetries, failureThreshold, Duration.ofMillis(300));
+    }
+
+    private HttpSettings settings(int maxRetries, int failureThreshold, Duration requestTimeout) {
+        URI baseUrl = URI.create("http://127.0.0.1:" + stub.getAddress().getPort() + "/api/v1/prices");
+        return new HttpSettings(baseUrl, Duration.ofSeconds(1), requestTimeout, maxRetries,
+                Duration.ofMillis(5), Duration.ofMillis(20), failureThreshold, Duration.ofMinutes(1));
+    }
+
+    private static byte[] gzip(String json) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (OutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(json.getBytes(StandardCharsets.UTF_8));
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] deflate(String json) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (OutputStream deflate = new DeflaterOutputStream(out)) {
+            deflate.write(json.getBytes(StandardCharsets.UTF_8));
+        }
+        return out.toByteArray();
+    }
+}
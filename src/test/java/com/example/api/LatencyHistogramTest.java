@@ -0,0 +1,54 @@
+package com.example.api;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class LatencyHistogramTest {
+
+    @Test
+    void percentiles_areWithinThreePercent_fromNanosToMinutes() {
+        for (long scale : new long[]{1, 1_000, 1_000_000, 60_000_000_000L}) {
+            LatencyHistogram histogram = new LatencyHistogram();
+            for (long i = 1; i <= 10_000; i++) {
+                histogram.record(i * scale);
+            }
+
+            assertThat(histogram.count()).isEqualTo(10_000);
+            assertThat(histogram.max()).isEqualTo(10_000 * scale);
+            assertThat(histogram.mean()).isCloseTo(5000.5 * scale, within(1e-6 * scale));
+            assertThat((double) histogram.percentile(50)).isCloseTo(5000.0 * scale, within(0.032 * 5000 * scale));
+            assertThat((double) histogram.percentile(99)).isCloseTo(9900.0 * scale, within(0.032 * 9900 * scale));
+            assertThat(histogram.percentile(100)).isEqualTo(10_000 * scale);
+        }
+    }
+
+    @Test
+    void smallValuesAreExact_andEmptyHistogramIsZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertThat(histogram.percentile(99)).isZero();
+        assertThat(histogram.mean()).isZero();
+
+        histogram.record(-5);
+        histogram.record(3);
+        histogram.record(63);
+        assertThat(histogram.percentile(0)).isZero();
+        assertThat(histogram.percentile(50)).isEqualTo(3);
+        assertThat(histogram.percentile(100)).isEqualTo(63);
+        assertThatThrownBy(() -> histogram.percentile(101)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void index_isContinuousAndCoversEveryLong() {
+        for (long value = 0; value < 100_000; value++) {
+            int index = LatencyHistogram.index(value);
+            assertThat(LatencyHistogram.highestValue(index)).isGreaterThanOrEqualTo(value);
+            if (index > 0) {
+                assertThat(LatencyHistogram.highestValue(index - 1)).isLessThan(value);
+            }
+        }
+        assertThat(LatencyHistogram.highestValue(LatencyHistogram.index(Long.MAX_VALUE))).isEqualTo(Long.MAX_VALUE);
+    }
+}
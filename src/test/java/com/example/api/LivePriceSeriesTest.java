@@ -0,0 +1,94 @@
+package com.example.api;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Random;
+
+import static com.example.api.TestSeries.series;
+import static com.example.api.TestSeries.seriesFrom;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.offset;
+
+class LivePriceSeriesTest {
+
+    @Test
+    void advance_dropsPassedRowsAndKeepsMinMaxEarliestOnTies() {
+        LivePriceSeries live = new LivePriceSeries(4);
+        live.append(series(3600, 0.1, 0.5, 0.3, 0.5, 0.2, 0.3));
+
+        assertThat(live.minIndex()).isZero();
+        assertThat(live.maxIndex()).isEqualTo(1);
+
+        assertThat(live.advance(Instant.ofEpochSecond(2 * 3600 + 1))).isEqualTo(2);
+        assertThat(live.size()).isEqualTo(4);
+        assertThat(live.startEpochSecond(0)).isEqualTo(2 * 3600);
+        // 0.5 på rad 1 (tidigare rad 3) och 0.2 på rad 2
+        assertThat(live.maxIndex()).isEqualTo(1);
+        assertThat(live.minIndex()).isEqualTo(2);
+        assertThat(live.mean()).isEqualTo((0.3 + 0.5 + 0.2 + 0.3) / 4, offset(1e-12));
+    }
+
+    @Test
+    void append_skipsRowsAlreadyPresentAndGrows() {
+        LivePriceSeries live = new LivePriceSeries(2);
+        PriceSeries today = series(900, 0.4, 0.3, 0.2, 0.1);
+
+        assertThat(live.append(today)).isEqualTo(4);
+        assertThat(live.append(today)).isZero();
+        assertThat(live.append(seriesFrom(4 * 900, 900, 0.05, 0.6))).isEqualTo(2);
+
+        PriceSeries snapshot = live.snapshot();
+        assertThat(snapshot.size()).isEqualTo(6);
+        assertThat(snapshot.sekPerKWh(4)).isEqualTo(0.05);
+        assertThat(live.minIndex()).isEqualTo(4);
+        assertThat(live.maxIndex()).isEqualTo(5);
+        assertThat(live.cheapestWindow(2)).isEqualTo(3);
+        assertThat(live.cheapestWindow(7)).isEqualTo(-1);
+    }
+
+    @Test
+    void matchesRecomputationAfterEveryTick() {
+        Random random = new Random(7);
+        LivePriceSeries live = new LivePriceSeries(8);
+        int appended = 0;
+        int dropped = 0;
+        double[] all = new double[2000];
+        for (int i = 0; i < all.length; i++) all[i] = Math.round(random.nextDouble() * 100) / 100.0;
+
+        for (int tick = 0; tick < 400; tick++) {
+            if (appended < all.length && random.nextInt(3) == 0) {
+                int n = Math.min(random.nextInt(24) + 1, all.length - appended);
+                double[] chunk = Arrays.copyOfRange(all, appended, appended + n);
+                live.append(seriesFrom(appended * 900L, 900, chunk));
+                appended += n;
+            }
+            dropped += live.advance(Instant.ofEpochSecond((dropped + random.nextInt(3)) * 900L + 1));
+            dropped = Math.min(dropped, appended);
+
+            PriceStatistics expected = PriceStatistics.of(live.snapshot());
+            assertThat(live.size()).isEqualTo(appended - dropped);
+            assertThat(live.minIndex()).isEqualTo(expected.sek().minIndex());
+            assertThat(live.maxIndex()).isEqualTo(expected.sek().maxIndex());
+            if (!live.isEmpty()) {
+                assertThat(live.mean()).isEqualTo(expected.sek().mean(), offset(1e-9));
+                int length = Math.min(live.size(), 4);
+                ChargingWindows.Window window = ChargingWindows.of(live.snapshot()).cheapest(length);
+                assertThat(live.cheapestWindow(length)).isEqualTo(window.start());
+            }
+        }
+    }
+
+    @Test
+    void windowSum_rejectsRangesOutsideSeries() {
+        LivePriceSeries live = new LivePriceSeries();
+        live.append(series(3600, 0.1, 0.2));
+
+        assertThat(live.windowSum(1, 1)).isEqualTo(0.2);
+        assertThat(live.windowSum(2, 0)).isZero();
+        assertThatThrownBy(() -> live.windowSum(1, 2)).isInstanceOf(IndexOutOfBoundsException.class);
+        assertThatThrownBy(() -> live.cheapestWindow(0)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.api;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Random;
+
+import static com.example.api.TestSeries.series;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class LoadSchedulerTest {
+
+    @Test
+    void withoutMinRun_picksCheapestSlots_andRunsTheDearestPartially() {
+        PriceSeries series = series(3600, 0.9, 0.1, 0.5, 0.2, 0.1, 0.8);
+
+        // 2,5 kW i timintervall: 7 kWh kräver tre intervall, det sista med 2 kWh
+        LoadScheduler.Schedule schedule = LoadScheduler.schedule(series, new LoadScheduler.Request(7, 2.5, null, null));
+
+        assertThat(schedule.allocations()).extracting(LoadScheduler.Allocation::row).containsExactly(1, 3, 4);
+        assertThat(schedule.allocations()).extracting(LoadScheduler.Allocation::energyKWh).containsExactly(2.5, 2.0, 2.5);
+        assertThat(schedule.costSek()).isCloseTo(2.5 * 0.1 + 2.0 * 0.2 + 2.5 * 0.1, within(1e-12));
+        assertThat(schedule.meanPrice()).isCloseTo(schedule.costSek() / 7, within(1e-12));
+    }
+
+    @Test
+    void deadline_excludesSlotsEndingAfterIt() {
+        PriceSeries series = series(3600, 0.9, 0.5, 0.1, 0.1);
+
+        LoadScheduler.Schedule schedule = LoadScheduler.schedule(series,
+                new LoadScheduler.Request(2, 1, Instant.ofEpochSecond(3 * 3600), null));
+        LoadScheduler.Schedule impossible = LoadScheduler.schedule(series,
+                new LoadScheduler.Request(4, 1, Instant.ofEpochSecond(3 * 3600), null));
+
+        assertThat(schedule.allocations()).extracting(LoadScheduler.Allocation::row).containsExactly(1, 2);
+        assertThat(impossible).isNull();
+    }
+
+    @Test
+    void minRun_requiresRunsOfAtLeastThatLength() {
+        // De fyra billigaste timmarna (0, 4, 6, 1) bildar inga körningar på två timmar
+        PriceSeries series = series(3600, 0.0, 0.3, 0.3, 0.9, 0.25, 0.4, 0.05);
+
+        LoadScheduler.Schedule schedule = LoadScheduler.schedule(series,
+                new LoadScheduler.Request(4, 1, null, Duration.ofHours(2)));
+
+        // Bäst med två körningar: 0-1 (0,0 + 0,3) och 5-6 (0,4 + 0,05)
+        assertThat(schedule.allocations()).extracting(LoadScheduler.Allocation::row).containsExactly(0, 1, 5, 6);
+    }
+
+    @Test
+    void minRun_longerThanTheEnergyNeeds_runsTheWholeMinRunAtLowerPower() {
+        PriceSeries series = series(900, 0.5, 0.4, 0.1, 0.2, 0.1, 0.3, 0.9, 0.9);
+
+        // 3 kW i kvartsintervall: 1 kWh ryms i två intervall, men lasten ska köras minst en timme
+        LoadScheduler.Schedule schedule = LoadScheduler.schedule(series,
+                new LoadScheduler.Request(1, 3, null, Duration.ofHours(1)));
+        LoadScheduler.Schedule impossible = LoadScheduler.schedule(series,
+                new LoadScheduler.Request(1, 3, Instant.ofEpochSecond(3 * 900), Duration.ofHours(1)));
+
+        assertThat(schedule.allocations()).extracting(LoadScheduler.Allocation::row).containsExactly(2, 3, 4, 5);
+        assertThat(schedule.allocations()).extracting(LoadScheduler.Allocation::energyKWh).containsOnly(0.25);
+        assertThat(schedule.costSek()).isCloseTo(0.25 * (0.1 + 0.2 + 0.1 + 0.3), within(1e-12));
+        assertThat(impossible).isNull();
+    }
+
+    @Test
+    void minRun_matchesBruteForce() {
+        Random random = new Random(7);
+        for (int round = 0; round < 200; round++) {
+            int n = 4 + random.nextInt(9);
+            int[] ore = new int[n];
+            double[] sek = new double[n];
+            for (int i = 0; i < n; i++) {
+                ore[i] = random.nextInt(20) - 5;
+                sek[i] = ore[i] / 100.0;
+            }
+            // 1 kW i timintervall: energin kräver k intervall, det sista ibland bara delvis
+            int k = 1 + random.nextInt(n);
+            double energy = k - 0.25 * random.nextInt(4);
+            int m = 2 + random.nextInt(4);
+
+            LoadScheduler.Schedule schedule = LoadScheduler.schedule(series(3600, sek),
+                    new LoadScheduler.Request(energy, 1, null, Duration.ofHours(m)));
+
+            // Lasten körs i max(k, m) intervall, med körningar på minst m intervall
+            int rows = Math.max(k, m);
+            long best = Long.MAX_VALUE;
+            for (int mask = 0; mask < 1 << n; mask++) {
+                if (Integer.bitCount(mask) == rows && runsAtLeast(mask, n, m)) {
+                    long sum = 0;
+                    for (int i = 0; i < n; i++) if ((mask >> i & 1) == 1) sum += ore[i];
+                    best = Math.min(best, sum);
+                }
+            }
+            if (best == Long.MAX_VALUE) {
+                assertThat(schedule).isNull();
+            } else {
+                long sum = 0;
+                int mask = 0;
+                double delivered = 0;
+                for (LoadScheduler.Allocation allocation : schedule.allocations()) {
+                    sum += ore[allocation.row()];
+                    mask |= 1 << allocation.row();
+                    delivered += allocation.energyKWh();
+                    assertThat(allocation.energyKWh()).isPositive().isLessThanOrEqualTo(1.0);
+                }
+                assertThat(sum).isEqualTo(best);
+                assertThat(Integer.bitCount(mask)).isEqualTo(rows);
+                assertThat(runsAtLeast(mask, n, m)).isTrue();
+                assertThat(delivered).isCloseTo(energy, within(1e-9));
+            }
+        }
+    }
+
+    @Test
+    void cheapest_prefersEarliestOnTies() {
+        assertThat(LoadScheduler.cheapest(new long[]{5, 1, 3, 1, 1, 3}, 4)).containsExactly(1, 2, 3, 4);
+    }
+
+    private static boolean runsAtLeast(int mask, int n, int m) {
+        int run = 0;
+        for (int i = 0; i <= n; i++) {
+            if (i < n && (mask >> i & 1) == 1) {
+                run++;
+            } else {
+                if (run > 0 && run < m) return false;
+                run = 0;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.api;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MappedPriceArchiveTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void rangeView_matchesHeapRead() throws IOException {
+        Path file = dir.resolve("SE3.elpa");
+        PriceArchive archive = new PriceArchive(file);
+        LocalDate first = LocalDate.of(2025, 9, 1);
+        for (int d = 4; d >= 0; d--) {
+            archive.append(first.plusDays(d), day(first.plusDays(d), 96, 0.1 * (d + 1)));
+        }
+
+        MappedPriceArchive mapped = MappedPriceArchive.open(file);
+        MappedPriceArchive.View view = mapped.range(first.plusDays(1), first.plusDays(3));
+        PriceSeries expected = archive.read(first.plusDays(1), first.plusDays(3));
+
+        assertThat(mapped.dayCount()).isEqualTo(5);
+        assertThat(mapped.verify()).isTrue();
+        assertThat(view.size()).isEqualTo(3 * 96).isEqualTo(expected.size());
+        for (int i = 0; i < view.size(); i++) {
+            assertThat(view.startEpochSecond(i)).isEqualTo(expected.startEpochSecond(i));
+            assertThat(view.endEpochSecond(i)).isEqualTo(expected.endEpochSecond(i));
+            assertThat(view.sekPerKWh(i)).isEqualTo(expected.sekPerKWh(i));
+            assertThat(view.eurPerKWh(i)).isEqualTo(expected.eurPerKWh(i));
+            assertThat(view.exr(i)).isEqualTo(expected.exr(i));
+        }
+
+        MappedPriceArchive.Cursor cursor = view.cursor();
+        int rows = 0;
+        while (cursor.next()) {
+            assertThat(cursor.sekPerKWh()).isEqualTo(expected.sekPerKWh(rows));
+            assertThat(cursor.startEpochSecond()).isEqualTo(expected.startEpochSecond(rows));
+            rows++;
+        }
+        assertThat(rows).isEqualTo(expected.size());
+    }
+
+    @Test
+    void rangeOutsideArchive_isEmpty() throws IOException {
+        Path file = dir.resolve("SE1.elpa");
+        LocalDate day = LocalDate.of(2025, 9, 1);
+        new PriceArchive(file).append(day, day(day, 24, 0.5));
+
+        MappedPriceArchive.View view = MappedPriceArchive.open(file).range(day.plusDays(1), day.plusDays(10));
+
+        assertThat(view.isEmpty()).isTrue();
+        assertThat(view.cursor().next()).isFalse();
+    }
+
+    private static List<ElpriserAPI.Elpris> day(LocalDate date, int rows, double sek) {
+        List<ElpriserAPI.Elpris> priser = new ArrayList<>();
+        ZonedDateTime start = date.atStartOfDay(PriceSeries.ZONE);
+        int minutes = 24 * 60 / rows;
+        for (int i = 0; i < rows; i++) {
+            priser.add(new ElpriserAPI.Elpris(sek + i * 0.001, sek / 10, 11.2, start.plusMinutes((long) i * minutes), start.plusMinutes((long) (i + 1) * minutes)));
+        }
+        return priser;
+    }
+}
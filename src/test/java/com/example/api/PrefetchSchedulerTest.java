@@ -0,0 +1,111 @@
+package com.example.api;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PrefetchSchedulerTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2025, 9, 3);
+    private static final LocalDate TOMORROW = TODAY.plusDays(1);
+
+    @TempDir
+    Path dir;
+
+    @AfterEach
+    void tearDown() {
+        ElpriserAPI.clearMockResponse();
+    }
+
+    @Test
+    void poll_beforeWindow_fetchesTodayAndWaitsForWindow() {
+        ElpriserAPI.setMockResponseForDate(TODAY, ElpriserAPITest.dayJson(TODAY, 0.1));
+        ElpriserAPI.setMockResponseForDate(TOMORROW, ElpriserAPITest.dayJson(TOMORROW, 0.2));
+        List<String> published = new ArrayList<>();
+        PrefetchScheduler scheduler = scheduler(api(), at(10, 30));
+        scheduler.addListener((datum, prisklass, priser) -> published.add(datum + "_" + prisklass));
+
+        assertThat(scheduler.poll()).isEqualTo(Duration.ofMinutes(150));
+        assertThat(published).containsExactly("2025-09-03_SE1", "2025-09-03_SE2", "2025-09-03_SE3", "2025-09-03_SE4");
+
+        // Redan hämtade dagar hämtas inte igen
+        published.clear();
+        scheduler.poll();
+        assertThat(published).isEmpty();
+    }
+
+    @Test
+    void poll_inWindow_backsOffUntilPublished_thenWarmsCache() {
+        ElpriserAPI.setMockResponseForDate(TODAY, ElpriserAPITest.dayJson(TODAY, 0.1));
+        ElpriserAPI api = api();
+        List<ElpriserAPI.Prisklass> published = new ArrayList<>();
+        PrefetchScheduler scheduler = scheduler(api, at(14, 0));
+        scheduler.addListener((datum, prisklass, priser) -> {
+            if (datum.equals(TOMORROW)) published.add(prisklass);
+        });
+
+        assertThat(scheduler.poll()).isEqualTo(Duration.ofMinutes(1));
+        assertThat(scheduler.poll()).isEqualTo(Duration.ofMinutes(2));
+        assertThat(scheduler.poll()).isEqualTo(Duration.ofMinutes(4));
+        assertThat(scheduler.poll()).isEqualTo(Duration.ofMinutes(5));
+        assertThat(published).isEmpty();
+
+        ElpriserAPI.setMockResponseForDate(TOMORROW, ElpriserAPITest.dayJson(TOMORROW, 0.2));
+        // Nästa försök i morgondagens fönster, 23 timmar senare
+        assertThat(scheduler.poll()).isEqualTo(Duration.ofHours(23));
+        assertThat(published).containsExactly(ElpriserAPI.Prisklass.values());
+
+        long hits = api.getCacheStats().hits();
+        assertThat(api.getPriser(TOMORROW, ElpriserAPI.Prisklass.SE3)).hasSize(2);
+        assertThat(api.getCacheStats().hits()).isEqualTo(hits + 1);
+    }
+
+    @Test
+    void poll_afterWindow_givesUpUntilNextWindow() {
+        ElpriserAPI.setMockResponseForDate(TODAY, ElpriserAPITest.dayJson(TODAY, 0.1));
+
+        assertThat(scheduler(api(), at(18, 0)).poll()).isEqualTo(Duration.ofHours(19));
+    }
+
+    @Test
+    void listenerFailure_doesNotStopOtherListeners() {
+        ElpriserAPI.setMockResponseForDate(TODAY, ElpriserAPITest.dayJson(TODAY, 0.1));
+        List<LocalDate> published = new ArrayList<>();
+        PrefetchScheduler scheduler = scheduler(api(), at(9, 0));
+        scheduler.addListener((datum, prisklass, priser) -> {
+            throw new IllegalStateException("trasig lyssnare");
+        });
+        scheduler.addListener((datum, prisklass, priser) -> published.add(datum));
+
+        scheduler.poll();
+
+        assertThat(published).hasSize(4);
+        assertThatThrownBy(() -> new PrefetchScheduler(api(), at(9, 0), LocalTime.of(18, 0), LocalTime.of(13, 0),
+                Duration.ofMinutes(1), Duration.ofMinutes(5))).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private ElpriserAPI api() {
+        return new ElpriserAPI(true, new DiskCache(dir, 1024 * 1024, Duration.ofDays(1)));
+    }
+
+    private static PrefetchScheduler scheduler(ElpriserAPI api, Clock clock) {
+        return new PrefetchScheduler(api, clock, LocalTime.of(13, 0), LocalTime.of(18, 0),
+                Duration.ofMinutes(1), Duration.ofMinutes(5));
+    }
+
+    private static Clock at(int hour, int minute) {
+        return Clock.fixed(ZonedDateTime.of(TODAY, LocalTime.of(hour, minute), PriceSeries.ZONE).toInstant(), PriceSeries.ZONE);
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.api;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PriceArchiveTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void appendedDays_areReadBackInDateOrder() throws IOException {
+        PriceArchive archive = new PriceArchive(dir.resolve("SE3.elpa"));
+        LocalDate first = LocalDate.of(2025, 9, 4);
+        LocalDate second = first.plusDays(1);
+
+        assertThat(archive.append(second, day(second, 0.20))).isTrue();
+        assertThat(archive.append(first, day(first, 0.10))).isTrue();
+
+        PriceSeries series = new PriceArchive(dir.resolve("SE3.elpa")).read(first, second);
+
+        assertThat(series.size()).isEqualTo(48);
+        assertThat(series.sekPerKWh(0)).isEqualTo(0.10);
+        assertThat(series.sekPerKWh(24)).isEqualTo(0.20);
+        assertThat(series.exr(0)).isEqualTo(10.997148);
+        assertThat(series.startEpochSecond(0)).isEqualTo(first.atStartOfDay(PriceSeries.ZONE).toEpochSecond());
+        assertThat(series.get(23).timeEnd().toLocalDate()).isEqualTo(second);
+    }
+
+    @Test
+    void appendingExistingDay_isIgnored() throws IOException {
+        PriceArchive archive = new PriceArchive(dir.resolve("SE3.elpa"));
+        LocalDate day = LocalDate.of(2025, 9, 4);
+
+        archive.append(day, day(day, 0.10));
+
+        assertThat(archive.append(day, day(day, 0.50))).isFalse();
+        assertThat(archive.read(day, day).sekPerKWh(0)).isEqualTo(0.10);
+    }
+
+    @Test
+    void tornTrailingBlock_isIgnoredAndOverwritten() throws IOException {
+        Path file = dir.resolve("SE3.elpa");
+        LocalDate day = LocalDate.of(2025, 9, 4);
+        new PriceArchive(file).append(day, day(day, 0.10));
+        Files.write(file, new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17, 18, 19, 20, 21}, StandardOpenOption.APPEND);
+
+        PriceArchive archive = new PriceArchive(file);
+        assertThat(archive.read(day, day.plusDays(1)).size()).isEqualTo(24);
+
+        archive.append(day.plusDays(1), day(day.plusDays(1), 0.30));
+        PriceSeries series = new PriceArchive(file).read(day, day.plusDays(1));
+        assertThat(series.size()).isEqualTo(48);
+        assertThat(series.sekPerKWh(47)).isEqualTo(0.30);
+    }
+
+    @Test
+    void archivedDays_equalTheParsedPrices_inSummerAndWinterTime() throws IOException {
+        PriceArchive archive = new PriceArchive(dir.resolve("SE3.elpa"));
+        LocalDate summer = LocalDate.of(2025, 9, 4);
+        LocalDate winter = LocalDate.of(2025, 12, 4);
+        List<ElpriserAPI.Elpris> summerPrices = ElprisJsonParser.parse(ElpriserAPITest.dayJson(summer, 0.1));
+        List<ElpriserAPI.Elpris> winterPrices = ElprisJsonParser.parse("""
+                [{"SEK_per_kWh":0.2,"EUR_per_kWh":0.02,"EXR":10.0,"time_start":"2025-12-04T00:00:00+01:00","time_end":"2025-12-04T01:00:00+01:00"}]""");
+
+        archive.append(summer, summerPrices);
+        archive.append(winter, winterPrices);
+
+        assertThat(archive.read(summer, summer).toList()).containsExactlyInAnyOrderElementsOf(summerPrices);
+        assertThat(archive.read(winter, winter).toList()).isEqualTo(winterPrices);
+    }
+
+    private static List<ElpriserAPI.Elpris> day(LocalDate date, double sek) {
+        List<ElpriserAPI.Elpris> priser = new ArrayList<>();
+        ZonedDateTime start = date.atStartOfDay(PriceSeries.ZONE);
+        for (int h = 0; h < 24; h++) {
+            priser.add(new ElpriserAPI.Elpris(sek, sek / 10, 10.997148, start.plusHours(h), start.plusHours(h + 1)));
+        }
+        return priser;
+    }
+}
@@ -0,0 +1,245 @@
+package com.example.api;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PriceCacheTest {
+
+    private static final List<ElpriserAPI.Elpris> PRISER = List.of(new ElpriserAPI.Elpris(0.1, 0.01, 10.0,
+            ZonedDateTime.parse("2025-09-04T00:00:00+02:00"), ZonedDateTime.parse("2025-09-04T01:00:00+02:00")));
+
+    private static final LocalDate PAST = LocalDate.of(2025, 9, 4);
+    private static final long SE3 = PriceCache.key(PAST, ElpriserAPI.Prisklass.SE3);
+    private static final long NEXT_SE3 = PriceCache.key(PAST.plusDays(1), ElpriserAPI.Prisklass.SE3);
+
+    @Test
+    void concurrentMisses_shareOneLoad() throws Exception {
+        PriceCache cache = new PriceCache(true, PriceCache.DEFAULT_NEGATIVE_TTL);
+        AtomicInteger loads = new AtomicInteger();
+        CompletableFuture<List<ElpriserAPI.Elpris>> slowLoad = new CompletableFuture<>();
+
+        List<Future<List<ElpriserAPI.Elpris>>> results = new ArrayList<>();
+        try (ExecutorService pool = Executors.newFixedThreadPool(8)) {
+            for (int i = 0; i < 16; i++) {
+                results.add(pool.submit(() -> cache.get(SE3, () -> {
+                    loads.incrementAndGet();
+                    return slowLoad;
+                }).join()));
+            }
+            Thread.sleep(50);
+            slowLoad.complete(PRISER);
+            for (Future<List<ElpriserAPI.Elpris>> result : results) {
+                assertThat(result.get()).isEqualTo(PRISER);
+            }
+        }
+
+        assertThat(loads).hasValue(1);
+        assertThat(cache.getIfPresent(SE3)).isEqualTo(PRISER);
+    }
+
+    @Test
+    void emptyResults_expireAfterNegativeTtl() throws InterruptedException {
+        PriceCache cache = new PriceCache(true, Duration.ofMillis(20));
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(NEXT_SE3, () -> {
+            loads.incrementAndGet();
+            return CompletableFuture.completedFuture(Collections.emptyList());
+        }).join();
+        assertThat(cache.getIfPresent(NEXT_SE3)).isEmpty();
+
+        Thread.sleep(40);
+        assertThat(cache.getIfPresent(NEXT_SE3)).isNull();
+        List<ElpriserAPI.Elpris> reloaded = cache.get(NEXT_SE3, () -> {
+            loads.incrementAndGet();
+            return CompletableFuture.completedFuture(PRISER);
+        }).join();
+
+        assertThat(reloaded).isEqualTo(PRISER);
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void put_replacesEmptyResultBeforeItExpires() {
+        PriceCache cache = new PriceCache(true, Duration.ofHours(1));
+        cache.get(NEXT_SE3, () -> CompletableFuture.completedFuture(Collections.emptyList())).join();
+
+        cache.put(NEXT_SE3, PRISER);
+
+        assertThat(cache.getIfPresent(NEXT_SE3)).isEqualTo(PRISER);
+        assertThat(cache.get(NEXT_SE3, () -> CompletableFuture.failedFuture(new AssertionError("ska inte laddas"))).join()).isEqualTo(PRISER);
+    }
+
+    @Test
+    void failedLoad_isKeptForNegativeTtl_thenLoadedAgain() throws InterruptedException {
+        PriceCache cache = new PriceCache(true, Duration.ofMillis(50));
+        AtomicInteger loads = new AtomicInteger();
+        Supplier<CompletableFuture<List<ElpriserAPI.Elpris>>> failing = () -> {
+            loads.incrementAndGet();
+            throw new UncheckedIOException(new IOException("nere"));
+        };
+
+        assertThat(cache.get(SE3, failing).join()).isEmpty();
+        assertThat(cache.get(SE3, failing).join()).isEmpty();
+        assertThat(loads).hasValue(1);
+
+        Thread.sleep(80);
+        assertThat(cache.get(SE3, failing).join()).isEmpty();
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void withoutRetain_resultsAreNotKept() {
+        PriceCache cache = new PriceCache(false, PriceCache.DEFAULT_NEGATIVE_TTL);
+
+        cache.get(SE3, () -> CompletableFuture.completedFuture(PRISER)).join();
+
+        assertThat(cache.getIfPresent(SE3)).isNull();
+    }
+
+    @Test
+    void fullCache_evictsLeastRecentlyUsedEntries() {
+        PriceCache cache = new PriceCache(true, 10, PriceCache.DEFAULT_FRESH_TTL, PriceCache.DEFAULT_NEGATIVE_TTL);
+        for (int i = 0; i < 10; i++) {
+            cache.get(PriceCache.key(PAST.plusDays(i), ElpriserAPI.Prisklass.SE1), () -> CompletableFuture.completedFuture(PRISER)).join();
+        }
+        long first = PriceCache.key(PAST, ElpriserAPI.Prisklass.SE1);
+        long second = PriceCache.key(PAST.plusDays(1), ElpriserAPI.Prisklass.SE1);
+        long eleventh = PriceCache.key(PAST.plusDays(10), ElpriserAPI.Prisklass.SE1);
+        // Använd den första så att den inte längre är äldst
+        assertThat(cache.getIfPresent(first)).isEqualTo(PRISER);
+
+        cache.get(eleventh, () -> CompletableFuture.completedFuture(PRISER)).join();
+
+        CacheStats stats = cache.stats();
+        assertThat(stats.size()).isLessThanOrEqualTo(10);
+        assertThat(stats.evictions()).isPositive();
+        assertThat(cache.getIfPresent(first)).isEqualTo(PRISER);
+        assertThat(cache.getIfPresent(second)).isNull();
+        assertThat(cache.getIfPresent(eleventh)).isEqualTo(PRISER);
+    }
+
+    @Test
+    void todaysPrices_expireAfterFreshTtl_butPastDaysDoNot() throws InterruptedException {
+        PriceCache cache = new PriceCache(true, 100, Duration.ofMillis(20), PriceCache.DEFAULT_NEGATIVE_TTL);
+        LocalDate today = LocalDate.now(PriceSeries.ZONE);
+
+        long todayKey = PriceCache.key(today, ElpriserAPI.Prisklass.SE3);
+        long pastKey = PriceCache.key(today.minusDays(1), ElpriserAPI.Prisklass.SE3);
+
+        cache.get(todayKey, () -> CompletableFuture.completedFuture(PRISER)).join();
+        cache.get(pastKey, () -> CompletableFuture.completedFuture(PRISER)).join();
+        Thread.sleep(40);
+
+        assertThat(cache.getIfPresent(todayKey)).isNull();
+        assertThat(cache.getIfPresent(pastKey)).isEqualTo(PRISER);
+    }
+
+    @Test
+    void expiredPrices_areServedStaleWhileRevalidating() throws Exception {
+        PriceCache cache = new PriceCache(true, 100, Duration.ofMillis(20), PriceCache.DEFAULT_NEGATIVE_TTL);
+        long todayKey = PriceCache.key(LocalDate.now(PriceSeries.ZONE), ElpriserAPI.Prisklass.SE3);
+        List<ElpriserAPI.Elpris> newer = List.of(PRISER.getFirst(), PRISER.getFirst());
+        cache.get(todayKey, () -> CompletableFuture.completedFuture(PRISER)).join();
+        Thread.sleep(40);
+
+        CompletableFuture<List<ElpriserAPI.Elpris>> revalidation = new CompletableFuture<>();
+        AtomicInteger loads = new AtomicInteger();
+        for (int i = 0; i < 3; i++) {
+            assertThat(cache.get(todayKey, () -> {
+                loads.incrementAndGet();
+                return revalidation;
+            }).join()).isEqualTo(PRISER);
+        }
+        revalidation.complete(newer);
+        for (int i = 0; i < 200 && cache.getIfPresent(todayKey) == null; i++) {
+            Thread.sleep(5); // omladdningen sker i en egen tråd
+        }
+
+        assertThat(loads).hasValue(1);
+        assertThat(cache.getIfPresent(todayKey)).isEqualTo(newer);
+        assertThat(cache.stats().staleHits()).isEqualTo(3);
+    }
+
+    @Test
+    void failedRevalidation_keepsServingStalePrices() throws Exception {
+        PriceCache cache = new PriceCache(true, 100, Duration.ofMillis(20), Duration.ofMillis(20));
+        long todayKey = PriceCache.key(LocalDate.now(PriceSeries.ZONE), ElpriserAPI.Prisklass.SE3);
+        cache.get(todayKey, () -> CompletableFuture.completedFuture(PRISER)).join();
+        Thread.sleep(40);
+
+        CompletableFuture<List<ElpriserAPI.Elpris>> failed = CompletableFuture.failedFuture(new IllegalStateException("503"));
+        assertThat(cache.get(todayKey, () -> failed).join()).isEqualTo(PRISER);
+        for (int i = 0; i < 200 && cache.getIfPresent(todayKey) == null; i++) {
+            Thread.sleep(5); // omladdningen sker i en egen tråd
+        }
+
+        assertThat(cache.getIfPresent(todayKey)).isEqualTo(PRISER);
+        Thread.sleep(40);
+        assertThat(cache.get(todayKey, () -> CompletableFuture.completedFuture(List.of())).join()).isEqualTo(PRISER);
+    }
+
+    @Test
+    void stats_countHitsAndMisses() {
+        PriceCache cache = new PriceCache(true, PriceCache.DEFAULT_NEGATIVE_TTL);
+
+        cache.get(SE3, () -> CompletableFuture.completedFuture(PRISER)).join();
+        cache.get(SE3, () -> CompletableFuture.completedFuture(PRISER)).join();
+        cache.getIfPresent(SE3);
+        cache.getIfPresent(NEXT_SE3);
+
+        CacheStats stats = cache.stats();
+        assertThat(stats.misses()).isEqualTo(1);
+        assertThat(stats.hits()).isEqualTo(2);
+        assertThat(stats.hitRate()).isEqualTo(2.0 / 3);
+    }
+
+    @Test
+    void keys_roundTripDateAndZone() {
+        LocalDate[] dates = {LocalDate.of(1969, 12, 31), LocalDate.EPOCH, PAST};
+        for (LocalDate date : dates) {
+            for (ElpriserAPI.Prisklass prisklass : ElpriserAPI.Prisklass.values()) {
+                long key = PriceCache.key(date, prisklass);
+                assertThat(PriceCache.datum(key)).isEqualTo(date);
+                assertThat(PriceCache.prisklass(key)).isEqualTo(prisklass);
+            }
+        }
+        assertThat(PriceCache.toString(SE3)).isEqualTo("2025-09-04_SE3");
+    }
+
+    @Test
+    void manyKeys_surviveRemovalAndRehash() {
+        PriceCache cache = new PriceCache(false, PriceCache.DEFAULT_NEGATIVE_TTL);
+        PriceCache retained = new PriceCache(true, 100_000, PriceCache.DEFAULT_FRESH_TTL, PriceCache.DEFAULT_NEGATIVE_TTL);
+        for (int d = 0; d < 2_000; d++) {
+            for (ElpriserAPI.Prisklass prisklass : ElpriserAPI.Prisklass.values()) {
+                long key = PriceCache.key(PAST.minusDays(d), prisklass);
+                cache.get(key, () -> CompletableFuture.completedFuture(PRISER)).join();
+                retained.get(key, () -> CompletableFuture.completedFuture(PRISER)).join();
+            }
+        }
+
+        assertThat(cache.stats().size()).isZero();
+        assertThat(retained.stats().size()).isEqualTo(8_000);
+        for (int d = 0; d < 2_000; d++) {
+            assertThat(retained.getIfPresent(PriceCache.key(PAST.minusDays(d), ElpriserAPI.Prisklass.SE4))).isSameAs(PRISER);
+        }
+        assertThat(retained.getIfPresent(PriceCache.key(PAST.plusDays(1), ElpriserAPI.Prisklass.SE4))).isNull();
+    }
+}
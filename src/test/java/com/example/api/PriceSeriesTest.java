@@ -0,0 +1,80 @@
+package com.example.api;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PriceSeriesTest {
+
+    private static final ZonedDateTime START = ZonedDateTime.of(2025, 9, 4, 0, 0, 0, 0, PriceSeries.ZONE);
+
+    @Test
+    void of_andToList_roundTrip() {
+        // Som i API:ts svar har tiderna en fast offset och inte tidszonen
+        ZonedDateTime start = START.toOffsetDateTime().toZonedDateTime();
+        List<ElpriserAPI.Elpris> priser = List.of(
+                new ElpriserAPI.Elpris(0.1, 0.01, 11.0, start, start.plusHours(1)),
+                new ElpriserAPI.Elpris(-0.2, -0.02, 11.0, start.plusHours(1), start.plusHours(2)));
+
+        PriceSeries series = PriceSeries.of(priser);
+
+        assertThat(series.size()).isEqualTo(2);
+        assertThat(series.durationSeconds(1)).isEqualTo(3600);
+        assertThat(series.toList()).isEqualTo(priser);
+    }
+
+    @Test
+    void sliceSelectAndConcat_copyRowsInOrder() {
+        PriceSeries.Builder builder = new PriceSeries.Builder(2);
+        for (int i = 0; i < 5; i++) {
+            builder.add(START.plusHours(i).toEpochSecond(), START.plusHours(i + 1).toEpochSecond(), i, i / 10.0, 11.0);
+        }
+        PriceSeries series = builder.build();
+
+        assertThat(series.slice(1, 3).sekColumn()).containsExactly(1, 2);
+        assertThat(series.slice(2, 2).isEmpty()).isTrue();
+        assertThat(series.select(new int[]{4, 0}).sekColumn()).containsExactly(4, 0);
+        assertThat(series.slice(3, 5).concat(series.slice(0, 1)).startColumn())
+                .containsExactly(series.startEpochSecond(3), series.startEpochSecond(4), series.startEpochSecond(0));
+        assertThat(series.concat(PriceSeries.empty())).isSameAs(series);
+    }
+
+    @Test
+    void resample_keepsBothHoursAtDstFallBack() {
+        // 2025-10-26 har 25 timmar i Stockholm, 02:00 förekommer två gånger
+        ZonedDateTime midnight = ZonedDateTime.of(2025, 10, 26, 0, 0, 0, 0, PriceSeries.ZONE);
+        PriceSeries.Builder builder = new PriceSeries.Builder(100);
+        for (int q = 0; q < 100; q++) {
+            long start = midnight.toEpochSecond() + q * 900L;
+            builder.add(start, start + 900, q, q / 10.0, 11.0);
+        }
+
+        PriceSeries hourly = builder.build().resample(3600);
+
+        assertThat(hourly.size()).isEqualTo(25);
+        assertThat(hourly.sekPerKWh(0)).isEqualTo((0 + 1 + 2 + 3) / 4.0);
+        assertThat(hourly.get(2).timeStart().getHour()).isEqualTo(2);
+        assertThat(hourly.get(3).timeStart().getHour()).isEqualTo(2);
+        assertThat(hourly.startEpochSecond(3) - hourly.startEpochSecond(2)).isEqualTo(3600);
+        assertThat(hourly.endEpochSecond(24)).isEqualTo(midnight.plusDays(1).toEpochSecond());
+    }
+
+    @Test
+    void resample_alignsToLocalTime_andLeavesCoarserRowsAlone() {
+        PriceSeries.Builder builder = new PriceSeries.Builder(8);
+        for (int q = 0; q < 8; q++) {
+            long start = START.toEpochSecond() + q * 900L;
+            builder.add(start, start + 900, q, 0, 11.0);
+        }
+        PriceSeries quarters = builder.build();
+
+        PriceSeries halfHours = quarters.resample(1800);
+
+        assertThat(halfHours.sekColumn()).containsExactly(0.5, 2.5, 4.5, 6.5);
+        assertThat(halfHours.resample(900)).isSameAs(halfHours);
+        assertThat(quarters.resample(7200).size()).isEqualTo(1);
+    }
+}
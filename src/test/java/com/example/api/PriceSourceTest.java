@@ -0,0 +1,84 @@
+package com.example.api;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PriceSourceTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 9, 4);
+
+    @AfterEach
+    void tearDown() {
+        ElpriserAPI.clearMockResponse();
+    }
+
+    @Test
+    void tieredSource_asksTiersInOrder_andStoresHitsInEarlierTiers() {
+        InMemoryPriceSource front = new InMemoryPriceSource();
+        InMemoryPriceSource back = new InMemoryPriceSource().putJson(DAY, ElpriserAPI.Prisklass.SE3, ElpriserAPITest.dayJson(DAY, 0.1));
+        AtomicInteger backCalls = new AtomicInteger();
+        PriceSource counting = (datum, prisklass) -> {
+            backCalls.incrementAndGet();
+            return back.fetch(datum, prisklass);
+        };
+        TieredPriceSource tiered = TieredPriceSource.of(front, counting);
+
+        List<ElpriserAPI.Elpris> priser = tiered.fetch(DAY, ElpriserAPI.Prisklass.SE3);
+        assertThat(priser).hasSize(2);
+        assertThat(front.fetch(DAY, ElpriserAPI.Prisklass.SE3)).isEqualTo(priser);
+
+        assertThat(tiered.fetchAsync(DAY, ElpriserAPI.Prisklass.SE3).join()).isEqualTo(priser);
+        assertThat(backCalls).hasValue(1);
+    }
+
+    @Test
+    void tieredSource_returnsNull_whenNoTierHasTheDay() {
+        TieredPriceSource tiered = TieredPriceSource.of(new InMemoryPriceSource(), new InMemoryPriceSource());
+
+        assertThat(tiered.fetch(DAY, ElpriserAPI.Prisklass.SE3)).isNull();
+        assertThat(tiered.fetchAsync(DAY, ElpriserAPI.Prisklass.SE3).join()).isNull();
+        assertThatThrownBy(TieredPriceSource::of).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void emptyResult_endsTheChain_withoutBeingStored() {
+        InMemoryPriceSource front = new InMemoryPriceSource();
+        InMemoryPriceSource last = new InMemoryPriceSource().putJson(DAY, ElpriserAPI.Prisklass.SE3, ElpriserAPITest.dayJson(DAY, 0.1));
+        PriceSource notPublished = (datum, prisklass) -> Collections.emptyList();
+
+        assertThat(TieredPriceSource.of(front, notPublished, last).fetch(DAY, ElpriserAPI.Prisklass.SE3)).isEmpty();
+        assertThat(front.size()).isZero();
+    }
+
+    @Test
+    void api_withOwnSource_usesNeitherNetworkNorGlobalMocks() {
+        ElpriserAPI.setMockResponse(ElpriserAPITest.dayJson(DAY, 0.9));
+        InMemoryPriceSource source = new InMemoryPriceSource();
+        for (int d = 0; d < 3; d++) {
+            for (ElpriserAPI.Prisklass prisklass : ElpriserAPI.Prisklass.values()) {
+                source.putJson(DAY.plusDays(d), prisklass, ElpriserAPITest.dayJson(DAY.plusDays(d), 0.1));
+            }
+        }
+        ElpriserAPI api = new ElpriserAPI(false, source);
+
+        Map<ElpriserAPI.Prisklass, List<ElpriserAPI.Elpris>> priser =
+                api.getPriser(DAY, DAY.plusDays(2), EnumSet.allOf(ElpriserAPI.Prisklass.class), 4);
+
+        assertThat(priser.values()).allSatisfy(zone -> assertThat(zone).hasSize(6)
+                .extracting(ElpriserAPI.Elpris::sekPerKWh).containsOnly(0.1));
+        assertThat(api.getPriser(DAY.plusDays(3), ElpriserAPI.Prisklass.SE3)).isEmpty();
+        assertThat(api.getMetrics().getMockResponses()).isZero();
+        assertThat(api.getMetrics().getHttpRequests()).isZero();
+        assertThatThrownBy(() -> new ElpriserAPI(true, (PriceSource) null)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
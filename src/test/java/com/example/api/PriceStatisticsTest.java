@@ -0,0 +1,61 @@
+package com.example.api;
+
+import org.junit.jupiter.api.Test;
+
+import static com.example.api.TestSeries.series;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class PriceStatisticsTest {
+
+    @Test
+    void singlePass_matchesSeparateCalculations() {
+        double[] sek = {0.5, -0.1, 0.8, -0.1, 0.3, 0.8};
+        PriceSeries series = series(3600, sek);
+
+        PriceStatistics.Column stats = PriceStatistics.of(series).sek();
+
+        double sum = 0;
+        for (double v : sek) sum += v;
+        double mean = sum / sek.length;
+        double squares = 0;
+        for (double v : sek) squares += (v - mean) * (v - mean);
+
+        assertThat(stats.count()).isEqualTo(6);
+        assertThat(stats.mean()).isEqualTo(mean);
+        assertThat(stats.stddev()).isCloseTo(Math.sqrt(squares / sek.length), within(1e-12));
+        // Vid lika värden är det första som gäller
+        assertThat(stats.min()).isEqualTo(-0.1);
+        assertThat(stats.minIndex()).isEqualTo(1);
+        assertThat(stats.max()).isEqualTo(0.8);
+        assertThat(stats.maxIndex()).isEqualTo(2);
+        assertThat(PriceStatistics.of(series).eur().mean()).isCloseTo(mean / 10, within(1e-12));
+        assertThat(PriceStatistics.of(series).exr().stddev()).isZero();
+    }
+
+    @Test
+    void percentiles_interpolateBetweenSortedValues() {
+        PriceStatistics.Column stats = PriceStatistics.of(series(3600, 4, 1, 3, 2)).sek();
+
+        assertThat(stats.median()).isEqualTo(2.5);
+        assertThat(stats.percentile(0)).isEqualTo(1);
+        assertThat(stats.percentile(100)).isEqualTo(4);
+        assertThat(stats.percentile(25)).isEqualTo(1.75);
+    }
+
+    @Test
+    void range_usesOnlyRowsInRange_andEmptyRangeHasNoExtremes() {
+        PriceSeries series = series(3600, 9, 1, 2, 9);
+
+        PriceStatistics.Column range = PriceStatistics.of(series, 1, 3).sek();
+        PriceStatistics.Column empty = PriceStatistics.of(series, 2, 2).sek();
+
+        assertThat(range.mean()).isEqualTo(1.5);
+        assertThat(range.minIndex()).isEqualTo(1);
+        assertThat(range.maxIndex()).isEqualTo(2);
+        assertThat(range.median()).isEqualTo(1.5);
+        assertThat(empty.count()).isZero();
+        assertThat(empty.minIndex()).isEqualTo(-1);
+        assertThat(empty.median()).isNaN();
+    }
+}
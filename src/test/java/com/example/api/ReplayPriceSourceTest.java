@@ -0,0 +1,54 @@
+package com.example.api;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReplayPriceSourceTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 9, 4);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void pricesFetchedBehindTheReplay_areRecordedAndCanBeReplayed() {
+        InMemoryPriceSource upstream = new InMemoryPriceSource()
+                .putJson(DAY, ElpriserAPI.Prisklass.SE3, ElpriserAPITest.dayJson(DAY, 0.123456789));
+        List<ElpriserAPI.Elpris> priser = TieredPriceSource.of(new ReplayPriceSource(dir), upstream)
+                .fetch(DAY, ElpriserAPI.Prisklass.SE3);
+
+        assertThat(dir.resolve("2025-09-04_SE3.json")).exists();
+        assertThat(new ReplayPriceSource(dir).fetch(DAY, ElpriserAPI.Prisklass.SE3)).isEqualTo(priser);
+        assertThat(new ReplayPriceSource(dir).fetch(DAY, ElpriserAPI.Prisklass.SE4)).isNull();
+    }
+
+    @Test
+    void diskCacheDirectory_canBeReplayed() throws IOException {
+        new DiskCache(dir, 1 << 20, Duration.ofDays(1)).save("2025-09-04_SE1", ElpriserAPITest.dayJson(DAY, 0.2));
+        Files.writeString(dir.resolve("2025-09-04_SE2.json"), "#elpriser-v2 trasig\n[]");
+
+        ReplayPriceSource replay = new ReplayPriceSource(dir);
+
+        assertThat(replay.fetch(DAY, ElpriserAPI.Prisklass.SE1)).extracting(ElpriserAPI.Elpris::sekPerKWh).containsOnly(0.2);
+        assertThat(replay.fetch(DAY, ElpriserAPI.Prisklass.SE2)).isNull();
+    }
+
+    @Test
+    void api_canRunAgainstARecording() {
+        new ReplayPriceSource(dir).store(DAY, ElpriserAPI.Prisklass.SE4,
+                ElprisJsonParser.parse(ElpriserAPITest.dayJson(DAY, 0.5)));
+        ElpriserAPI api = new ElpriserAPI(true, new ReplayPriceSource(dir));
+
+        assertThat(api.getPriser(DAY, ElpriserAPI.Prisklass.SE4)).hasSize(2);
+        assertThat(api.getPriserAsync(DAY.plusDays(1), ElpriserAPI.Prisklass.SE4).join()).isEmpty();
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.api;
+
+/**
+ * Gemensamma testserier: raderna ligger tätt efter varandra, EUR är en tiondel av SEK och EXR är 11.
+ */
+final class TestSeries {
+
+    private TestSeries() {
+    }
+
+    /**
+     * @return en serie som börjar vid epoch-sekund 0 med en rad per pris.
+     */
+    static PriceSeries series(long interval, double... sek) {
+        return seriesFrom(0, interval, sek);
+    }
+
+    /**
+     * @return en serie som börjar vid epoch-sekund {@code first} med en rad per pris.
+     */
+    static PriceSeries seriesFrom(long first, long interval, double... sek) {
+        PriceSeries.Builder builder = new PriceSeries.Builder(sek.length);
+        for (int i = 0; i < sek.length; i++) {
+            builder.add(first + i * interval, first + (i + 1) * interval, sek[i], sek[i] / 10, 11.0);
+        }
+        return builder.build();
+    }
+}